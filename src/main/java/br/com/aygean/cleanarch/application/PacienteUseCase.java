@@ -1,29 +1,106 @@
 package br.com.aygean.cleanarch.application;
 
 import br.com.aygean.cleanarch.application.exception.PacienteNotFoundException;
+import br.com.aygean.cleanarch.domain.CampoPaciente;
+import br.com.aygean.cleanarch.domain.HistoricoAdicionado;
+import br.com.aygean.cleanarch.domain.HistoricoMedico;
+import br.com.aygean.cleanarch.domain.Pagina;
 import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.domain.PacientesPorIds;
+import br.com.aygean.cleanarch.domain.ResultadoLote;
+import br.com.aygean.cleanarch.domain.TipoAlteracao;
+import br.com.aygean.cleanarch.gateway.AlteracoesPacienteGateway;
 import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import br.com.aygean.cleanarch.gateway.PacienteGatewayAsync;
 
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public class PacienteUseCase {
-    // Dependência para acessar o repositório de pacientes
+    // Tamanho máximo de página aceito na listagem de pacientes
+    public static final int LIMITE_MAXIMO = 500;
+    // Tamanho máximo de lote aceito na importação de pacientes
+    public static final int TAMANHO_LOTE_MAXIMO = 5000;
+
+    // Dependências para acessar o repositório de pacientes, de forma síncrona e assíncrona
     private final PacienteGateway gateway;
+    private final PacienteGatewayAsync gatewayAsync;
+    // Destino das alterações de pacientes feitas por este caso de uso
+    private final AlteracoesPacienteGateway gatewayAlteracoes;
 
-    // Construtor que recebe uma implementação de PacienteGateway
-    public PacienteUseCase(PacienteGateway gateway) {
+    // Construtor que recebe as implementações de PacienteGateway, PacienteGatewayAsync e AlteracoesPacienteGateway
+    public PacienteUseCase(PacienteGateway gateway, PacienteGatewayAsync gatewayAsync, AlteracoesPacienteGateway gatewayAlteracoes) {
         this.gateway = gateway;
+        this.gatewayAsync = gatewayAsync;
+        this.gatewayAlteracoes = gatewayAlteracoes;
+    }
+
+    // Lista os pacientes página a página, a partir do cursor (ID) informado
+    public Pagina<Paciente> listarPacientes(Long after, int limit) {
+        return gateway.listarPacientes(after, limitar(limit));
+    }
+
+    // Lista os pacientes trazendo do banco apenas os campos informados
+    public Pagina<Paciente> listarPacientes(Long after, int limit, Set<CampoPaciente> campos) {
+        return gateway.listarPacientes(after, limitar(limit), campos);
     }
 
-    // Lista todos os pacientes
-    public List<Paciente> listarPacientes() {
-        return gateway.listarPacientes();
+    // Percorre todos os pacientes, entregando um por vez ao consumidor informado
+    public void exportarPacientes(Consumer<Paciente> consumidor) {
+        gateway.exportarPacientes(consumidor);
     }
 
     // Adiciona um novo paciente e o retorna após o salvamento
     public Paciente adicionarPaciente(Paciente paciente) {
-        return gateway.adicionarPaciente(paciente);
+        return publicar(TipoAlteracao.ADICIONADO, gateway.adicionarPaciente(paciente));
+    }
+
+    // Importa os pacientes em lotes, cada um em sua própria transação, e relata o resultado de cada lote
+    public List<ResultadoLote> importarPacientes(Iterator<Paciente> pacientes, int tamanhoLote) {
+        int tamanho = Math.max(1, Math.min(tamanhoLote, TAMANHO_LOTE_MAXIMO));
+        var resultados = new ArrayList<ResultadoLote>();
+        var lote = new ArrayList<Paciente>(tamanho);
+
+        while (true) {
+            try {
+                if (!pacientes.hasNext()) {
+                    break;
+                }
+                lote.add(pacientes.next());
+            } catch (RuntimeException e) {
+                // Falha na leitura da entrada: registra o lote corrente como falho e interrompe a importação
+                resultados.add(new ResultadoLote(resultados.size() + 1, lote.size(), false, e.getMessage()));
+                return resultados;
+            }
+
+            if (lote.size() == tamanho) {
+                resultados.add(salvarLote(resultados.size() + 1, lote));
+                lote.clear();
+            }
+        }
+
+        if (!lote.isEmpty()) {
+            resultados.add(salvarLote(resultados.size() + 1, lote));
+        }
+        return resultados;
+    }
+
+    // Salva um lote de pacientes, convertendo uma falha do lote em resultado em vez de abortar a importação
+    private ResultadoLote salvarLote(int numero, List<Paciente> lote) {
+        try {
+            gateway.adicionarPacientes(lote).forEach(p -> publicar(TipoAlteracao.ADICIONADO, p));
+            return new ResultadoLote(numero, lote.size(), true, null);
+        } catch (RuntimeException e) {
+            return new ResultadoLote(numero, lote.size(), false, e.getMessage());
+        }
     }
 
     // Busca um paciente por ID e lança uma exceção se não for encontrado
@@ -32,22 +109,60 @@ public class PacienteUseCase {
             .orElseThrow(() -> new PacienteNotFoundException("Paciente não encontrado"));
     }
 
-    // Atualiza os dados de um paciente existente e lança exceção se o ID não existir
-    public Paciente atualizarPaciente(Long id, Paciente paciente) {
-        // Verifica se o paciente existe, lançando exceção se não for encontrado
-        buscarPacientePorId(id);
+    // Busca um paciente por ID trazendo do banco apenas os campos informados
+    public Paciente buscarPacientePorId(Long id, Set<CampoPaciente> campos) {
+        return gateway.buscarPacientePorId(id, campos)
+            .orElseThrow(() -> new PacienteNotFoundException("Paciente não encontrado"));
+    }
+
+    // Busca vários pacientes de uma vez, na ordem dos IDs informados, indicando os IDs inexistentes
+    public PacientesPorIds buscarPacientesPorIds(List<Long> ids) {
+        var idsDistintos = ids.stream().distinct().toList();
+        var porId = new HashMap<Long, Paciente>();
+        for (Paciente paciente : gateway.buscarPacientesPorIds(idsDistintos)) {
+            porId.put(paciente.getId(), paciente);
+        }
+
+        var pacientes = new ArrayList<Paciente>(porId.size());
+        var naoEncontrados = new ArrayList<Long>();
+        for (Long id : idsDistintos) {
+            Paciente paciente = porId.get(id);
+            if (paciente != null) {
+                pacientes.add(paciente);
+            } else {
+                naoEncontrados.add(id);
+            }
+        }
+        return new PacientesPorIds(pacientes, naoEncontrados);
+    }
 
-        // Define o ID do paciente a ser atualizado e salva
+    // Retorna a versão atual do paciente e lança exceção se ele não existir
+    public Long buscarVersaoPaciente(Long id) {
+        return gateway.buscarVersaoPaciente(id)
+            .orElseThrow(() -> new PacienteNotFoundException(id));
+    }
+
+    // Atualiza os dados de um paciente existente e lança exceção se o ID não existir.
+    // Com uma versão esperada, a atualização só é feita se o paciente ainda estiver nessa versão.
+    public Paciente atualizarPaciente(Long id, Paciente paciente, Long versaoEsperada) {
+        // Define o ID do paciente a ser atualizado; a existência e a versão são conferidas na própria gravação
         paciente.setId(id);
+        if (versaoEsperada != null) {
+            paciente.setVersao(versaoEsperada);
+        }
+        return publicar(TipoAlteracao.ATUALIZADO, gateway.atualizarPaciente(paciente)
+            .orElseThrow(() -> new PacienteNotFoundException(id)));
+    }
 
-        // Redefine o paciente para sua versão atualizada
-        paciente = gateway.atualizarPaciente(paciente).get();
-        return paciente;
+    // Altera apenas os campos presentes no documento (JSON merge patch); um campo com valor nulo é apagado
+    public Paciente atualizarPacienteParcialmente(Long id, Map<String, Object> alteracoes, Long versaoEsperada) {
+        return publicar(TipoAlteracao.ATUALIZADO, gateway.atualizarPacienteParcialmente(id, alteracoes, versaoEsperada)
+            .orElseThrow(() -> new PacienteNotFoundException(id)));
     }
 
-    // Busca pacientes pelo nome e lança exceção se não houver resultados
-    public List<Paciente> buscarPacientes(String nome) {
-        Optional<List<Paciente>> pacientes = gateway.buscarPacientes(nome);
+    // Busca pacientes cujo nome contém o trecho informado e lança exceção se não houver resultados
+    public List<Paciente> buscarPacientes(String nome, int limit) {
+        Optional<List<Paciente>> pacientes = gateway.buscarPacientes(nome, limitar(limit));
 
         // Lança exceção se a lista estiver vazia
         if (pacientes.isEmpty()) {
@@ -57,12 +172,100 @@ public class PacienteUseCase {
         return pacientes.get();
     }
 
-    // Deleta um paciente pelo ID, após verificar sua existência
+    // Busca pacientes por trecho do nome trazendo do banco apenas os campos informados
+    public List<Paciente> buscarPacientes(String nome, int limit, Set<CampoPaciente> campos) {
+        return gateway.buscarPacientes(nome, limitar(limit), campos)
+            .orElseThrow(() -> new PacienteNotFoundException("Não encontramos resultados que satisfaçam os critérios de sua busca"));
+    }
+
+    // Acrescenta uma consulta ao histórico do paciente sem reescrever as consultas anteriores e retorna a consulta com a
+    // nova versão do paciente. Com uma versão esperada, a consulta só é incluída se o paciente ainda estiver nessa versão.
+    public HistoricoAdicionado adicionarHistorico(Long id, HistoricoMedico historico, Long versaoEsperada) {
+        var adicionado = gateway.adicionarHistorico(id, historico, versaoEsperada)
+            .orElseThrow(() -> new PacienteNotFoundException(id));
+        // O histórico faz parte do paciente: a alteração leva a versão gerada pela nova consulta
+        gatewayAlteracoes.publicar(TipoAlteracao.ATUALIZADO, id, adicionado.getVersaoPaciente());
+        return adicionado;
+    }
+
+    // Lista o histórico do paciente no período, da consulta mais recente para a mais antiga, página a página
+    public Pagina<HistoricoMedico> listarHistorico(Long id, LocalDate de, LocalDate ate, Long after, int limit) {
+        return gateway.listarHistorico(id, de, ate, after, limitar(limit))
+            .orElseThrow(() -> new PacienteNotFoundException(id));
+    }
+
+    // Busca um paciente por ID trazendo apenas as suas consultas mais recentes
+    public Paciente buscarPacienteComConsultasRecentes(Long id, int consultas) {
+        return gateway.buscarPacienteComConsultasRecentes(id, limitar(consultas))
+            .orElseThrow(() -> new PacienteNotFoundException("Paciente não encontrado"));
+    }
+
+    // Deleta um paciente pelo ID; a lista de removidos indica se ele existia
     public void deletarPaciente(Long id) {
-        // Verifica se o paciente existe, lançando exceção se não for encontrado
-        Paciente paciente = buscarPacientePorId(id);
+        if (gateway.deletarPacientes(List.of(id)).isEmpty()) {
+            throw new PacienteNotFoundException(id);
+        }
+        gatewayAlteracoes.publicar(TipoAlteracao.REMOVIDO, id, null);
+    }
+
+    // Deleta os pacientes informados, com contato, endereço e histórico, e retorna quantos foram removidos
+    public int deletarPacientes(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        var idsDistintos = ids.stream().distinct().toList();
+        var removidos = gateway.deletarPacientes(idsDistintos);
+        // Só os pacientes que existiam e foram removidos são publicados
+        removidos.forEach(id -> gatewayAlteracoes.publicar(TipoAlteracao.REMOVIDO, id, null));
+        return removidos.size();
+    }
+
+    // Variantes assíncronas: as consultas rodam no executor do gateway assíncrono e
+    // podem ser combinadas sem bloquear a thread de quem chamou
+
+    public CompletableFuture<Pagina<Paciente>> listarPacientesAsync(Long after, int limit) {
+        return gatewayAsync.listarPacientes(after, limitar(limit));
+    }
+
+    public CompletableFuture<Paciente> adicionarPacienteAsync(Paciente paciente) {
+        return gatewayAsync.adicionarPaciente(paciente)
+            .thenApply(p -> publicar(TipoAlteracao.ADICIONADO, p));
+    }
+
+    public CompletableFuture<Paciente> buscarPacientePorIdAsync(Long id) {
+        return gatewayAsync.buscarPacientePorId(id)
+            .thenApply(p -> p.orElseThrow(() -> new PacienteNotFoundException("Paciente não encontrado")));
+    }
+
+    public CompletableFuture<Paciente> atualizarPacienteAsync(Long id, Paciente paciente) {
+        // A existência e a versão são conferidas na própria gravação, sem ocupar a thread de quem chamou
+        paciente.setId(id);
+        return gatewayAsync.atualizarPaciente(paciente)
+            .thenApply(p -> publicar(TipoAlteracao.ATUALIZADO, p.orElseThrow(() -> new PacienteNotFoundException(id))));
+    }
+
+    public CompletableFuture<List<Paciente>> buscarPacientesAsync(String nome, int limit) {
+        return gatewayAsync.buscarPacientes(nome, limitar(limit))
+            .thenApply(p -> p.orElseThrow(() -> new PacienteNotFoundException("Não encontramos resultados que satisfaçam os critérios de sua busca")));
+    }
+
+    public CompletableFuture<Void> deletarPacienteAsync(Long id) {
+        return gatewayAsync.deletarPacientes(List.of(id)).thenAccept(removidos -> {
+            if (removidos.isEmpty()) {
+                throw new PacienteNotFoundException(id);
+            }
+            gatewayAlteracoes.publicar(TipoAlteracao.REMOVIDO, id, null);
+        });
+    }
+
+    // Publica a alteração do paciente gravado e o devolve
+    private Paciente publicar(TipoAlteracao tipo, Paciente paciente) {
+        gatewayAlteracoes.publicar(tipo, paciente.getId(), paciente.getVersao());
+        return paciente;
+    }
 
-        // Realiza a exclusão do paciente
-        gateway.deletarPaciente(paciente);
+    // Mantém o tamanho da página entre 1 e o limite máximo
+    private static int limitar(int limit) {
+        return Math.max(1, Math.min(limit, LIMITE_MAXIMO));
     }
 }
@@ -0,0 +1,63 @@
+package br.com.aygean.cleanarch.domain;
+
+import java.time.Instant;
+
+public class AlteracaoPaciente {
+    private long sequencia;
+    private TipoAlteracao tipo;
+    private Long pacienteId;
+    private Long versao;
+    private Instant momento;
+
+    public AlteracaoPaciente() {
+        // no args constructor
+    }
+
+    public AlteracaoPaciente(long sequencia, TipoAlteracao tipo, Long pacienteId, Long versao, Instant momento) {
+        this.sequencia = sequencia;
+        this.tipo = tipo;
+        this.pacienteId = pacienteId;
+        this.versao = versao;
+        this.momento = momento;
+    }
+
+    public long getSequencia() {
+        return sequencia;
+    }
+
+    public void setSequencia(long sequencia) {
+        this.sequencia = sequencia;
+    }
+
+    public TipoAlteracao getTipo() {
+        return tipo;
+    }
+
+    public void setTipo(TipoAlteracao tipo) {
+        this.tipo = tipo;
+    }
+
+    public Long getPacienteId() {
+        return pacienteId;
+    }
+
+    public void setPacienteId(Long pacienteId) {
+        this.pacienteId = pacienteId;
+    }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
+
+    public Instant getMomento() {
+        return momento;
+    }
+
+    public void setMomento(Instant momento) {
+        this.momento = momento;
+    }
+}
@@ -0,0 +1,34 @@
+package br.com.aygean.cleanarch.domain;
+
+import java.util.Optional;
+
+// Campos de Paciente que podem ser pedidos isoladamente em uma consulta
+public enum CampoPaciente {
+    ID("id"),
+    NOME("nome"),
+    DATA_NASCIMENTO("dataNascimento"),
+    GENERO("genero"),
+    CONTATO("contato"),
+    ENDERECO("endereco"),
+    HISTORICO_MEDICO("historicoMedico"),
+    VERSAO("versao");
+
+    private final String nome;
+
+    CampoPaciente(String nome) {
+        this.nome = nome;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public static Optional<CampoPaciente> porNome(String nome) {
+        for (CampoPaciente campo : values()) {
+            if (campo.nome.equals(nome)) {
+                return Optional.of(campo);
+            }
+        }
+        return Optional.empty();
+    }
+}
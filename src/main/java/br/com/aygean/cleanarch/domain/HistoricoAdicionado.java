@@ -0,0 +1,31 @@
+package br.com.aygean.cleanarch.domain;
+
+public class HistoricoAdicionado {
+    private HistoricoMedico historico;
+    private Long versaoPaciente;
+
+    public HistoricoAdicionado() {
+        // no args constructor
+    }
+
+    public HistoricoAdicionado(HistoricoMedico historico, Long versaoPaciente) {
+        this.historico = historico;
+        this.versaoPaciente = versaoPaciente;
+    }
+
+    public HistoricoMedico getHistorico() {
+        return historico;
+    }
+
+    public void setHistorico(HistoricoMedico historico) {
+        this.historico = historico;
+    }
+
+    public Long getVersaoPaciente() {
+        return versaoPaciente;
+    }
+
+    public void setVersaoPaciente(Long versaoPaciente) {
+        this.versaoPaciente = versaoPaciente;
+    }
+}
@@ -12,6 +12,8 @@ public class Paciente {
     private Contato contato;
     private Endereco endereco;
     private List<HistoricoMedico> historicoMedico;
+    // Versão da última gravação, usada no controle de concorrência otimista e como ETag
+    private Long versao;
 
     public Paciente() {
         // no args constructor
@@ -27,6 +29,11 @@ public class Paciente {
         this.historicoMedico = historicoMedico;
     }
 
+    public Paciente(Long id, String nome, LocalDate dataNascimento, String genero, Contato contato, Endereco endereco, List<HistoricoMedico> historicoMedico, Long versao) {
+        this(id, nome, dataNascimento, genero, contato, endereco, historicoMedico);
+        this.versao = versao;
+    }
+
     public Long getId() {
         return id;
     }
@@ -82,4 +89,12 @@ public class Paciente {
     public void setHistoricoMedico(List<HistoricoMedico> historicoMedico) {
         this.historicoMedico = historicoMedico;
     }
+
+    public Long getVersao() {
+        return versao;
+    }
+
+    public void setVersao(Long versao) {
+        this.versao = versao;
+    }
 }
@@ -0,0 +1,33 @@
+package br.com.aygean.cleanarch.domain;
+
+import java.util.List;
+
+public class PacientesPorIds {
+    private List<Paciente> pacientes;
+    private List<Long> naoEncontrados;
+
+    public PacientesPorIds() {
+        // no args constructor
+    }
+
+    public PacientesPorIds(List<Paciente> pacientes, List<Long> naoEncontrados) {
+        this.pacientes = pacientes;
+        this.naoEncontrados = naoEncontrados;
+    }
+
+    public List<Paciente> getPacientes() {
+        return pacientes;
+    }
+
+    public void setPacientes(List<Paciente> pacientes) {
+        this.pacientes = pacientes;
+    }
+
+    public List<Long> getNaoEncontrados() {
+        return naoEncontrados;
+    }
+
+    public void setNaoEncontrados(List<Long> naoEncontrados) {
+        this.naoEncontrados = naoEncontrados;
+    }
+}
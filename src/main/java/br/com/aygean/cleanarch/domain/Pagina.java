@@ -0,0 +1,33 @@
+package br.com.aygean.cleanarch.domain;
+
+import java.util.List;
+
+public class Pagina<T> {
+    private List<T> itens;
+    private Long proximoCursor;
+
+    public Pagina() {
+        // no args constructor
+    }
+
+    public Pagina(List<T> itens, Long proximoCursor) {
+        this.itens = itens;
+        this.proximoCursor = proximoCursor;
+    }
+
+    public List<T> getItens() {
+        return itens;
+    }
+
+    public void setItens(List<T> itens) {
+        this.itens = itens;
+    }
+
+    public Long getProximoCursor() {
+        return proximoCursor;
+    }
+
+    public void setProximoCursor(Long proximoCursor) {
+        this.proximoCursor = proximoCursor;
+    }
+}
@@ -0,0 +1,51 @@
+package br.com.aygean.cleanarch.domain;
+
+public class ResultadoLote {
+    private int lote;
+    private int quantidade;
+    private boolean sucesso;
+    private String erro;
+
+    public ResultadoLote() {
+        // no args constructor
+    }
+
+    public ResultadoLote(int lote, int quantidade, boolean sucesso, String erro) {
+        this.lote = lote;
+        this.quantidade = quantidade;
+        this.sucesso = sucesso;
+        this.erro = erro;
+    }
+
+    public int getLote() {
+        return lote;
+    }
+
+    public void setLote(int lote) {
+        this.lote = lote;
+    }
+
+    public int getQuantidade() {
+        return quantidade;
+    }
+
+    public void setQuantidade(int quantidade) {
+        this.quantidade = quantidade;
+    }
+
+    public boolean isSucesso() {
+        return sucesso;
+    }
+
+    public void setSucesso(boolean sucesso) {
+        this.sucesso = sucesso;
+    }
+
+    public String getErro() {
+        return erro;
+    }
+
+    public void setErro(String erro) {
+        this.erro = erro;
+    }
+}
@@ -0,0 +1,8 @@
+package br.com.aygean.cleanarch.domain;
+
+// Tipos de alteração de paciente publicados no feed de alterações
+public enum TipoAlteracao {
+    ADICIONADO,
+    ATUALIZADO,
+    REMOVIDO
+}
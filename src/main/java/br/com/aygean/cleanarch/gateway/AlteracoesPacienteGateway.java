@@ -0,0 +1,7 @@
+package br.com.aygean.cleanarch.gateway;
+
+import br.com.aygean.cleanarch.domain.TipoAlteracao;
+
+public interface AlteracoesPacienteGateway {
+    void publicar(TipoAlteracao tipo, Long pacienteId, Long versao);
+}
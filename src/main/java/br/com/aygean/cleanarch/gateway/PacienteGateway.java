@@ -1,15 +1,38 @@
 package br.com.aygean.cleanarch.gateway;
 
+import br.com.aygean.cleanarch.domain.CampoPaciente;
+import br.com.aygean.cleanarch.domain.HistoricoAdicionado;
+import br.com.aygean.cleanarch.domain.HistoricoMedico;
+import br.com.aygean.cleanarch.domain.Pagina;
 import br.com.aygean.cleanarch.domain.Paciente;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 public interface PacienteGateway {
-    List<Paciente> listarPacientes();
+    Pagina<Paciente> listarPacientes(Long after, int limit);
+    Pagina<Paciente> listarPacientes(Long after, int limit, Set<CampoPaciente> campos);
     Paciente adicionarPaciente(Paciente paciente);
+    List<Paciente> adicionarPacientes(List<Paciente> pacientes);
     Optional<Paciente> buscarPacientePorId(Long id);
+    Optional<Paciente> buscarPacientePorId(Long id, Set<CampoPaciente> campos);
+    List<Paciente> buscarPacientesPorIds(List<Long> ids);
+    List<Paciente> buscarPacientesPorIds(List<Long> ids, Set<CampoPaciente> campos);
     Optional<Paciente> atualizarPaciente(Paciente paciente);
-    Optional<List<Paciente>> buscarPacientes(String nome);
-    void deletarPaciente(Paciente paciente);
+    Optional<Paciente> atualizarPacienteParcialmente(Long id, Map<String, Object> alteracoes, Long versaoEsperada);
+    Optional<Long> buscarVersaoPaciente(Long id);
+    Optional<List<Paciente>> buscarPacientes(String nome, int limit);
+    Optional<List<Paciente>> buscarPacientes(String nome, int limit, Set<CampoPaciente> campos);
+    // Retorna os IDs dos pacientes removidos, entre os informados
+    List<Long> deletarPacientes(List<Long> ids);
+    // Retorna a consulta incluída e a nova versão do paciente; com uma versão esperada, só inclui se o paciente ainda
+    // estiver nela
+    Optional<HistoricoAdicionado> adicionarHistorico(Long pacienteId, HistoricoMedico historico, Long versaoEsperada);
+    Optional<Pagina<HistoricoMedico>> listarHistorico(Long pacienteId, LocalDate de, LocalDate ate, Long after, int limit);
+    Optional<Paciente> buscarPacienteComConsultasRecentes(Long id, int consultas);
+    void exportarPacientes(Consumer<Paciente> consumidor);
 }
@@ -0,0 +1,18 @@
+package br.com.aygean.cleanarch.gateway;
+
+import br.com.aygean.cleanarch.domain.Pagina;
+import br.com.aygean.cleanarch.domain.Paciente;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+public interface PacienteGatewayAsync {
+    CompletableFuture<Pagina<Paciente>> listarPacientes(Long after, int limit);
+    CompletableFuture<Paciente> adicionarPaciente(Paciente paciente);
+    CompletableFuture<Optional<Paciente>> buscarPacientePorId(Long id);
+    CompletableFuture<List<Paciente>> buscarPacientesPorIds(List<Long> ids);
+    CompletableFuture<Optional<Paciente>> atualizarPaciente(Paciente paciente);
+    CompletableFuture<Optional<List<Paciente>>> buscarPacientes(String nome, int limit);
+    CompletableFuture<List<Long>> deletarPacientes(List<Long> ids);
+}
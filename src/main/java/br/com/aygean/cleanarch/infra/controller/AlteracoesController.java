@@ -0,0 +1,67 @@
+package br.com.aygean.cleanarch.infra.controller;
+
+import br.com.aygean.cleanarch.domain.AlteracaoPaciente;
+import br.com.aygean.cleanarch.infra.dto.AlteracaoPacienteDTO;
+import br.com.aygean.cleanarch.infra.service.AlteracoesPacienteGatewayImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/pacientes")
+public class AlteracoesController {
+
+    // Evento enviado quando as alterações seguintes ao Last-Event-ID já não estão no buffer
+    static final String EVENTO_RESSINCRONIZAR = "ressincronizar";
+
+    private final AlteracoesPacienteGatewayImpl alteracoesPacienteGateway;
+    private final Duration timeout;
+
+    public AlteracoesController(AlteracoesPacienteGatewayImpl alteracoesPacienteGateway,
+                                @Value("${pacientes.alteracoes.timeout:30m}") Duration timeout) {
+        this.alteracoesPacienteGateway = alteracoesPacienteGateway;
+        this.timeout = timeout;
+    }
+
+    // Método para acompanhar as alterações de pacientes como Server-Sent Events. O id de cada evento identifica a
+    // instância e a sequência da alteração; ao reconectar, o cliente envia o último recebido em Last-Event-ID e continua
+    // de onde parou. Se ele já saiu do buffer ou é de antes de um reinício, o primeiro evento é "ressincronizar": o
+    // cliente deve recarregar os pacientes.
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter acompanharAlteracoes(@RequestHeader(value = "Last-Event-ID", required = false) String ultimoIdEvento) {
+        var emitter = new SseEmitter(timeout.toMillis());
+        var assinatura = alteracoesPacienteGateway.assinar(ultimoIdEvento, new AlteracoesPacienteGatewayImpl.Ouvinte() {
+            @Override
+            public void lacuna() throws IOException {
+                emitter.send(SseEmitter.event().name(EVENTO_RESSINCRONIZAR).data(Map.of()));
+            }
+
+            @Override
+            public void receber(AlteracaoPaciente alteracao) throws IOException {
+                emitter.send(SseEmitter.event()
+                    .id(alteracoesPacienteGateway.idEvento(alteracao))
+                    .name(alteracao.getTipo().name().toLowerCase(Locale.ROOT))
+                    .data(new AlteracaoPacienteDTO(alteracao.getSequencia(), alteracao.getTipo(),
+                        alteracao.getPacienteId(), alteracao.getVersao(), alteracao.getMomento()), MediaType.APPLICATION_JSON));
+            }
+
+            @Override
+            public void encerrada() {
+                emitter.complete();
+            }
+        });
+        emitter.onCompletion(assinatura::cancelar);
+        emitter.onTimeout(assinatura::cancelar);
+        emitter.onError(e -> assinatura.cancelar());
+        return emitter;
+    }
+}
@@ -0,0 +1,33 @@
+package br.com.aygean.cleanarch.infra.controller;
+
+import br.com.aygean.cleanarch.infra.dto.EstatisticasCacheDTO;
+import br.com.aygean.cleanarch.infra.service.PacienteGatewayCache;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/cache")
+public class CacheController {
+
+    private final PacienteGatewayCache pacienteGatewayCache;
+
+    public CacheController(PacienteGatewayCache pacienteGatewayCache) {
+        this.pacienteGatewayCache = pacienteGatewayCache;
+    }
+
+    // Método para consultar as estatísticas do cache de pacientes
+    @GetMapping("/pacientes")
+    public ResponseEntity<EstatisticasCacheDTO> estatisticasPacientes() {
+        var stats = pacienteGatewayCache.estatisticas();
+        return ResponseEntity.ok(new EstatisticasCacheDTO(
+            pacienteGatewayCache.tamanho(),
+            stats.hitCount(),
+            stats.missCount(),
+            stats.hitRate(),
+            stats.evictionCount(),
+            stats.loadCount(),
+            stats.averageLoadPenalty() / 1_000_000.0));
+    }
+}
@@ -0,0 +1,25 @@
+package br.com.aygean.cleanarch.infra.controller;
+
+import br.com.aygean.cleanarch.infra.dto.EstatisticasPacientesDTO;
+import br.com.aygean.cleanarch.infra.service.EstatisticasPacientes;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/pacientes")
+public class EstatisticasController {
+
+    private final EstatisticasPacientes estatisticasPacientes;
+
+    public EstatisticasController(EstatisticasPacientes estatisticasPacientes) {
+        this.estatisticasPacientes = estatisticasPacientes;
+    }
+
+    // Método para obter as contagens de pacientes por gênero, faixa etária, estado e cidade, mantidas em memória
+    @GetMapping("/stats")
+    public ResponseEntity<EstatisticasPacientesDTO> estatisticas() {
+        return ResponseEntity.ok(estatisticasPacientes.estatisticas());
+    }
+}
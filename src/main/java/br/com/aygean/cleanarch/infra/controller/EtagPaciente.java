@@ -0,0 +1,114 @@
+package br.com.aygean.cleanarch.infra.controller;
+
+import br.com.aygean.cleanarch.domain.CampoPaciente;
+import br.com.aygean.cleanarch.infra.converter.FormatosBinarios;
+import br.com.aygean.cleanarch.infra.exception.PrecondicaoFalhouException;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+// ETags fortes dos pacientes, derivadas da coluna de versão: "<versao>" para a representação completa em JSON,
+// "<versao>-<variante>" para representações parciais (?fields=, ?ultimasConsultas=), que têm conteúdo diferente, e o
+// sufixo "+cbor" ou "+smile" quando o Accept escolhe um formato binário, cujos bytes também são outros.
+// As respostas com essas ETags levam Vary: Accept.
+final class EtagPaciente {
+
+    private static final String CBOR = "cbor";
+    private static final String SMILE = "smile";
+
+    private EtagPaciente() {
+    }
+
+    static String gerar(Long versao, String variante, String formato) {
+        var etag = new StringBuilder("\"").append(versao);
+        if (variante != null) {
+            etag.append('-').append(variante);
+        }
+        if (formato != null) {
+            etag.append('+').append(formato);
+        }
+        return etag.append('"').toString();
+    }
+
+    // Formato negociado pelo Accept, do tipo mais específico ao menos específico, na mesma ordem dos conversores;
+    // null para o JSON, que fica com curingas e com a ausência do cabeçalho
+    static String formato(List<MediaType> accept) {
+        if (accept == null) {
+            return null;
+        }
+        List<MediaType> ordenados = new ArrayList<>(accept);
+        MimeTypeUtils.sortBySpecificity(ordenados);
+        for (MediaType aceito : ordenados) {
+            if (aceito.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+                return null;
+            }
+            if (aceito.isCompatibleWith(FormatosBinarios.APPLICATION_CBOR)) {
+                return CBOR;
+            }
+            if (aceito.isCompatibleWith(FormatosBinarios.APPLICATION_SMILE)) {
+                return SMILE;
+            }
+        }
+        return null;
+    }
+
+    // Variante da representação pedida; null para a representação completa
+    static String variante(Set<CampoPaciente> campos, Integer ultimasConsultas) {
+        if (ultimasConsultas != null) {
+            return "u" + ultimasConsultas;
+        }
+        if (campos == null) {
+            return null;
+        }
+        // A ordem do enum torna a variante independente da ordem em ?fields=; os nomes das constantes, ao contrário das
+        // posições, não mudam quando um campo é incluído no enum
+        return campos.stream().map(CampoPaciente::name).collect(Collectors.joining("."));
+    }
+
+    // If-None-Match usa a comparação fraca: o prefixo W/ é ignorado; "*" corresponde a qualquer versão
+    static boolean corresponde(String ifNoneMatch, String etag) {
+        for (String candidata : ifNoneMatch.split(",")) {
+            String tag = candidata.trim();
+            if (tag.equals("*")) {
+                return true;
+            }
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Versão esperada por um If-Match; null quando o cabeçalho está ausente ou é "*".
+    // If-Match usa a comparação forte, então ETags fracas ou que não foram geradas aqui nunca correspondem. A ETag da
+    // representação completa em qualquer formato identifica a mesma versão, então o sufixo do formato é aceito.
+    static Long versaoEsperada(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.contains(",")) {
+            throw new PrecondicaoFalhouException("If-Match deve conter uma única ETag");
+        }
+        if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+            throw new PrecondicaoFalhouException("ETag inválida em If-Match: " + tag);
+        }
+        String valor = tag.substring(1, tag.length() - 1);
+        if (valor.endsWith("+" + CBOR) || valor.endsWith("+" + SMILE)) {
+            valor = valor.substring(0, valor.lastIndexOf('+'));
+        }
+        try {
+            return Long.valueOf(valor);
+        } catch (NumberFormatException e) {
+            // ETags de representações parciais não identificam a representação completa que será alterada
+            throw new PrecondicaoFalhouException("ETag inválida em If-Match: " + tag);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package br.com.aygean.cleanarch.infra.controller;
+
+import br.com.aygean.cleanarch.application.exception.PacienteNotFoundException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+@RestControllerAdvice
+public class ExceptionHandlerController {
+
+    // Paciente inexistente é respondido com 404 em vez de erro interno
+    @ExceptionHandler(PacienteNotFoundException.class)
+    public ProblemDetail pacienteNaoEncontrado(PacienteNotFoundException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, e.getMessage());
+    }
+
+    // Versão esperada diferente da atual, ou gravação concorrente detectada pela coluna de versão
+    @ExceptionHandler(ObjectOptimisticLockingFailureException.class)
+    public ProblemDetail versaoDesatualizada(ObjectOptimisticLockingFailureException e) {
+        return ProblemDetail.forStatusAndDetail(HttpStatus.PRECONDITION_FAILED,
+            "O paciente foi alterado por outra requisição; busque a versão atual e tente novamente");
+    }
+}
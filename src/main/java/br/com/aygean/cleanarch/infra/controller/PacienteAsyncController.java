@@ -0,0 +1,87 @@
+package br.com.aygean.cleanarch.infra.controller;
+
+import br.com.aygean.cleanarch.application.PacienteUseCase;
+import br.com.aygean.cleanarch.application.exception.PacienteNotFoundException;
+import br.com.aygean.cleanarch.infra.converter.PacienteConverter;
+import br.com.aygean.cleanarch.infra.dto.PacienteDTO;
+import br.com.aygean.cleanarch.infra.dto.PaginaDTO;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+// Variantes assíncronas dos endpoints de pacientes: a thread do servlet é liberada enquanto a consulta
+// roda no executor do gateway assíncrono, e a resposta é enviada quando o CompletableFuture termina
+@RestController
+@RequestMapping("/async/pacientes")
+public class PacienteAsyncController {
+
+    private final PacienteUseCase pacienteUseCase;
+
+    public PacienteAsyncController(PacienteUseCase pacienteUseCase) {
+        this.pacienteUseCase = pacienteUseCase;
+    }
+
+    // Método para listar os pacientes paginados por cursor (?after=<id>&limit=N)
+    @GetMapping
+    public CompletableFuture<ResponseEntity<PaginaDTO<PacienteDTO>>> listarPacientes(@RequestParam(required = false) Long after,
+                                                                                    @RequestParam(defaultValue = "50") int limit) {
+        return pacienteUseCase.listarPacientesAsync(after, limit).thenApply(pagina -> {
+            List<PacienteDTO> pacientes = pagina.getItens()
+                .stream()
+                .map(PacienteConverter::fromDomainToDTO)
+                .collect(Collectors.toList());
+            return ResponseEntity.ok(new PaginaDTO<>(pacientes, pagina.getProximoCursor()));
+        });
+    }
+
+    // Método para buscar pacientes por trecho do nome
+    @GetMapping("/busca")
+    public CompletableFuture<ResponseEntity<List<PacienteDTO>>> buscarPacientes(@RequestParam String nome,
+                                                                                @RequestParam(defaultValue = "20") int limit) {
+        return pacienteUseCase.buscarPacientesAsync(nome, limit).thenApply(pacientes -> ResponseEntity.ok(pacientes
+            .stream()
+            .map(PacienteConverter::fromDomainToDTO)
+            .collect(Collectors.toList())));
+    }
+
+    // Método para buscar um paciente por ID
+    @GetMapping("/{id}")
+    public CompletableFuture<ResponseEntity<PacienteDTO>> buscarPacientePorId(@PathVariable Long id) {
+        return pacienteUseCase.buscarPacientePorIdAsync(id)
+            .thenApply(paciente -> ResponseEntity.ok(PacienteConverter.fromDomainToDTO(paciente)));
+    }
+
+    // Método para adicionar um novo paciente
+    @PostMapping
+    public CompletableFuture<ResponseEntity<PacienteDTO>> adicionarPaciente(@RequestBody PacienteDTO pacienteDTO) {
+        var paciente = PacienteConverter.fromDtoToDomain(pacienteDTO);
+        return pacienteUseCase.adicionarPacienteAsync(paciente)
+            .thenApply(pacienteSalvo -> ResponseEntity.ok(PacienteConverter.fromDomainToDTO(pacienteSalvo)));
+    }
+
+    // Método para atualizar um paciente existente
+    @PutMapping("/{id}")
+    public CompletableFuture<ResponseEntity<PacienteDTO>> atualizarPaciente(@PathVariable Long id, @RequestBody PacienteDTO pacienteDTO) {
+        var paciente = PacienteConverter.fromDtoToDomain(pacienteDTO);
+        return pacienteUseCase.atualizarPacienteAsync(id, paciente)
+            .thenApply(pacienteAtualizado -> ResponseEntity.ok(PacienteConverter.fromDomainToDTO(pacienteAtualizado)));
+    }
+
+    // Método para deletar um paciente por ID
+    @DeleteMapping("/{id}")
+    public CompletableFuture<ResponseEntity<Void>> deletarPaciente(@PathVariable Long id) {
+        return pacienteUseCase.deletarPacienteAsync(id)
+            .thenApply(v -> ResponseEntity.noContent().<Void>build())
+            .exceptionally(e -> {
+                Throwable causa = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                if (causa instanceof PacienteNotFoundException) {
+                    return ResponseEntity.notFound().build();
+                }
+                throw e instanceof CompletionException ce ? ce : new CompletionException(causa);
+            });
+    }
+}
@@ -1,13 +1,45 @@
 package br.com.aygean.cleanarch.infra.controller;
 
 import br.com.aygean.cleanarch.application.PacienteUseCase;
+import br.com.aygean.cleanarch.domain.CampoPaciente;
 import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.domain.PacientesPorIds;
+import br.com.aygean.cleanarch.infra.dto.ExclusaoLoteDTO;
+import br.com.aygean.cleanarch.infra.dto.HistoricoMedicoDTO;
 import br.com.aygean.cleanarch.infra.dto.PacienteDTO;
+import br.com.aygean.cleanarch.infra.dto.PacientesPorIdsDTO;
+import br.com.aygean.cleanarch.infra.dto.PaginaDTO;
+import br.com.aygean.cleanarch.infra.dto.ResultadoLoteDTO;
+import br.com.aygean.cleanarch.infra.converter.FormatosBinarios;
 import br.com.aygean.cleanarch.infra.converter.PacienteConverter;
+import br.com.aygean.cleanarch.infra.exception.ParametroInvalidoException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.util.MimeTypeUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
@@ -15,54 +47,298 @@ import java.util.stream.Collectors;
 public class PacienteController {
 
     private final PacienteUseCase pacienteUseCase;
+    private final ObjectMapper objectMapper;
+    private final ObjectMapper cborMapper;
+    private final ObjectMapper smileMapper;
 
-    public PacienteController(PacienteUseCase pacienteUseCase) {
+    public PacienteController(PacienteUseCase pacienteUseCase, ObjectMapper objectMapper) {
         this.pacienteUseCase = pacienteUseCase;
+        this.objectMapper = objectMapper;
+        this.cborMapper = FormatosBinarios.cbor(objectMapper);
+        this.smileMapper = FormatosBinarios.smile(objectMapper);
     }
 
-    // Método para listar todos os pacientes
+    // Método para listar os pacientes paginados por cursor (?after=<id>&limit=N); ?fields=nome,contato limita os campos
     @GetMapping
-    public ResponseEntity<List<PacienteDTO>> listarPacientes() {
-        List<PacienteDTO> pacientes = pacienteUseCase.listarPacientes()
+    public ResponseEntity<MappingJacksonValue> listarPacientes(@RequestParam(required = false) Long after,
+                                                               @RequestParam(defaultValue = "50") int limit,
+                                                               @RequestParam(required = false) List<String> fields) {
+        Set<CampoPaciente> campos = campos(fields);
+        var pagina = campos == null
+            ? pacienteUseCase.listarPacientes(after, limit)
+            : pacienteUseCase.listarPacientes(after, limit, campos);
+        List<PacienteDTO> pacientes = pagina.getItens()
             .stream()
             .map(PacienteConverter::fromDomainToDTO)
             .collect(Collectors.toList());
-        return ResponseEntity.ok(pacientes);
+        return ResponseEntity.ok(filtrar(new PaginaDTO<>(pacientes, pagina.getProximoCursor()), campos));
     }
 
-    // Método para buscar um paciente por ID
+    // Método para buscar vários pacientes pelos IDs (?ids=1,2,3), na ordem informada
+    @GetMapping(params = "ids")
+    public ResponseEntity<PacientesPorIdsDTO> buscarPacientesPorIds(@RequestParam List<Long> ids) {
+        return ResponseEntity.ok(toDTO(pacienteUseCase.buscarPacientesPorIds(ids)));
+    }
+
+    // Variante do método anterior para conjuntos grandes, recebendo os IDs como um array JSON no corpo
+    @PostMapping("/por-ids")
+    public ResponseEntity<PacientesPorIdsDTO> buscarPacientesPorIdsNoCorpo(@RequestBody List<Long> ids) {
+        return ResponseEntity.ok(toDTO(pacienteUseCase.buscarPacientesPorIds(ids)));
+    }
+
+    // Método para exportar todos os pacientes sem montar a lista em memória: em NDJSON, um paciente por linha (padrão),
+    // ou, conforme o Accept, numa sequência CBOR (RFC 8742) ou num único fluxo Smile com um paciente após o outro.
+    // No Smile os nomes dos campos são escritos uma vez e referenciados no restante do fluxo
+    @GetMapping(value = "/export", produces = {MediaType.APPLICATION_NDJSON_VALUE,
+        FormatosBinarios.APPLICATION_CBOR_SEQ_VALUE, FormatosBinarios.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<StreamingResponseBody> exportarPacientes(@RequestHeader(value = HttpHeaders.ACCEPT, required = false) List<MediaType> accept) {
+        MediaType tipo = formatoExportacao(accept);
+        StreamingResponseBody body;
+        if (tipo == MediaType.APPLICATION_NDJSON) {
+            body = out -> pacienteUseCase.exportarPacientes(paciente -> {
+                try {
+                    out.write(objectMapper.writeValueAsBytes(PacienteConverter.fromDomainToDTO(paciente)));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } else {
+            // Sem flush a cada paciente: o buffer da resposta decide quando enviar
+            ObjectWriter writer = (tipo == FormatosBinarios.APPLICATION_SMILE ? smileMapper : cborMapper)
+                .writerFor(PacienteDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+            body = out -> {
+                try (SequenceWriter sequencia = writer.writeValues(out)) {
+                    pacienteUseCase.exportarPacientes(paciente -> {
+                        try {
+                            sequencia.write(PacienteConverter.fromDomainToDTO(paciente));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            };
+        }
+        return ResponseEntity.ok().contentType(tipo).body(body);
+    }
+
+    // Método para buscar pacientes por trecho do nome, sem diferenciar maiúsculas nem acentos
+    @GetMapping("/busca")
+    public ResponseEntity<MappingJacksonValue> buscarPacientes(@RequestParam String nome,
+                                                               @RequestParam(defaultValue = "20") int limit,
+                                                               @RequestParam(required = false) List<String> fields) {
+        Set<CampoPaciente> campos = campos(fields);
+        List<PacienteDTO> pacientes = (campos == null
+            ? pacienteUseCase.buscarPacientes(nome, limit)
+            : pacienteUseCase.buscarPacientes(nome, limit, campos))
+            .stream()
+            .map(PacienteConverter::fromDomainToDTO)
+            .collect(Collectors.toList());
+        return ResponseEntity.ok(filtrar(pacientes, campos));
+    }
+
+    // Método para buscar um paciente por ID; com ?ultimasConsultas=N traz apenas as N consultas mais recentes.
+    // A resposta leva a ETag da versão; com If-None-Match, só a versão é consultada e uma versão igual responde 304
     @GetMapping("/{id}")
-    public ResponseEntity<PacienteDTO> buscarPacientePorId(@PathVariable Long id) {
-        Paciente paciente = pacienteUseCase.buscarPacientePorId(id);
+    public ResponseEntity<MappingJacksonValue> buscarPacientePorId(@PathVariable Long id,
+                                                                   @RequestParam(required = false) Integer ultimasConsultas,
+                                                                   @RequestParam(required = false) List<String> fields,
+                                                                   @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                                                   @RequestHeader(value = HttpHeaders.ACCEPT, required = false) List<MediaType> accept) {
+        Set<CampoPaciente> campos = campos(fields);
+        String variante = EtagPaciente.variante(campos, ultimasConsultas);
+        String formato = EtagPaciente.formato(accept);
+        if (ifNoneMatch != null) {
+            String etag = EtagPaciente.gerar(pacienteUseCase.buscarVersaoPaciente(id), variante, formato);
+            if (EtagPaciente.corresponde(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).varyBy(HttpHeaders.ACCEPT).build();
+            }
+        }
+
+        Paciente paciente;
+        if (ultimasConsultas != null) {
+            paciente = pacienteUseCase.buscarPacienteComConsultasRecentes(id, ultimasConsultas);
+        } else if (campos != null) {
+            paciente = pacienteUseCase.buscarPacientePorId(id, campos);
+        } else {
+            paciente = pacienteUseCase.buscarPacientePorId(id);
+        }
         var pacienteDto = PacienteConverter.fromDomainToDTO(paciente);
-        return ResponseEntity.ok(pacienteDto);
+        return ResponseEntity.ok()
+            .eTag(EtagPaciente.gerar(paciente.getVersao(), variante, formato))
+            .varyBy(HttpHeaders.ACCEPT)
+            .body(filtrar(pacienteDto, campos));
     }
 
     // Método para adicionar um novo paciente
     @PostMapping
-    public ResponseEntity<PacienteDTO> adicionarPaciente(@RequestBody PacienteDTO pacienteDTO) {
+    public ResponseEntity<PacienteDTO> adicionarPaciente(@RequestBody PacienteDTO pacienteDTO,
+                                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) List<MediaType> accept) {
         var paciente = PacienteConverter.fromDtoToDomain(pacienteDTO);
         var pacienteSalvo = pacienteUseCase.adicionarPaciente(paciente);
-        return ResponseEntity.ok(PacienteConverter.fromDomainToDTO(pacienteSalvo));
+        return ResponseEntity.ok()
+            .eTag(EtagPaciente.gerar(pacienteSalvo.getVersao(), null, EtagPaciente.formato(accept)))
+            .varyBy(HttpHeaders.ACCEPT)
+            .body(PacienteConverter.fromDomainToDTO(pacienteSalvo));
     }
 
-    // Método para atualizar um paciente existente
+    // Método para importar pacientes em lote, recebendo um array JSON, um fluxo NDJSON ou os equivalentes binários
+    // (sequência CBOR, Smile). Cada lote de tamanhoLote pacientes é gravado na própria transação, e o resultado de
+    // cada um é relatado: um lote que falha é desfeito sozinho e a importação continua nos seguintes
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE,
+        FormatosBinarios.APPLICATION_CBOR_VALUE, FormatosBinarios.APPLICATION_CBOR_SEQ_VALUE, FormatosBinarios.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<List<ResultadoLoteDTO>> importarPacientes(InputStream body,
+                                                                    @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                                    @RequestParam(defaultValue = "500") int tamanhoLote) throws IOException {
+        if (tamanhoLote < 1 || tamanhoLote > PacienteUseCase.TAMANHO_LOTE_MAXIMO) {
+            throw new ParametroInvalidoException("tamanhoLote deve estar entre 1 e " + PacienteUseCase.TAMANHO_LOTE_MAXIMO);
+        }
+        // Lê um paciente por vez; um array na raiz é percorrido elemento a elemento
+        try (MappingIterator<PacienteDTO> dtos = leitor(contentType).readerFor(PacienteDTO.class).readValues(body)) {
+            Iterator<Paciente> pacientes = new Iterator<>() {
+                @Override
+                public boolean hasNext() {
+                    return dtos.hasNext();
+                }
+
+                @Override
+                public Paciente next() {
+                    return PacienteConverter.fromDtoToDomain(dtos.next());
+                }
+            };
+
+            List<ResultadoLoteDTO> resultados = pacienteUseCase.importarPacientes(pacientes, tamanhoLote)
+                .stream()
+                .map(r -> new ResultadoLoteDTO(r.getLote(), r.getQuantidade(), r.isSucesso(), r.getErro()))
+                .collect(Collectors.toList());
+            return ResponseEntity.ok(resultados);
+        }
+    }
+
+    // Método para atualizar um paciente existente; com If-Match a atualização só ocorre se a versão ainda for a mesma (412 caso contrário)
     @PutMapping("/{id}")
-    public ResponseEntity<PacienteDTO> atualizarPaciente(@PathVariable Long id, @RequestBody PacienteDTO pacienteDTO) {
+    public ResponseEntity<PacienteDTO> atualizarPaciente(@PathVariable Long id, @RequestBody PacienteDTO pacienteDTO,
+                                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                         @RequestHeader(value = HttpHeaders.ACCEPT, required = false) List<MediaType> accept) {
         var paciente = PacienteConverter.fromDtoToDomain(pacienteDTO);
-        Paciente pacienteAtualizado = pacienteUseCase.atualizarPaciente(id, paciente);
+        Paciente pacienteAtualizado = pacienteUseCase.atualizarPaciente(id, paciente, EtagPaciente.versaoEsperada(ifMatch));
         var pacienteDto = PacienteConverter.fromDomainToDTO(pacienteAtualizado);
-        return ResponseEntity.ok(pacienteDto);
+        return ResponseEntity.ok()
+            .eTag(EtagPaciente.gerar(pacienteAtualizado.getVersao(), null, EtagPaciente.formato(accept)))
+            .varyBy(HttpHeaders.ACCEPT)
+            .body(pacienteDto);
+    }
+
+    // Método para atualizar parcialmente um paciente com um JSON merge patch (RFC 7396), aceitando If-Match como o PUT
+    @PatchMapping(value = "/{id}", consumes = {"application/merge-patch+json", MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<PacienteDTO> atualizarPacienteParcialmente(@PathVariable Long id, @RequestBody Map<String, Object> alteracoes,
+                                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                                                     @RequestHeader(value = HttpHeaders.ACCEPT, required = false) List<MediaType> accept) {
+        Paciente pacienteAtualizado = pacienteUseCase.atualizarPacienteParcialmente(id, alteracoes, EtagPaciente.versaoEsperada(ifMatch));
+        return ResponseEntity.ok()
+            .eTag(EtagPaciente.gerar(pacienteAtualizado.getVersao(), null, EtagPaciente.formato(accept)))
+            .varyBy(HttpHeaders.ACCEPT)
+            .body(PacienteConverter.fromDomainToDTO(pacienteAtualizado));
     }
 
-    // Método para deletar um paciente por ID
+    // Método para acrescentar uma consulta ao histórico médico de um paciente; a nova versão do paciente volta na ETag e,
+    // com If-Match, a consulta só é incluída se a versão ainda for a mesma (412 caso contrário)
+    @PostMapping("/{id}/historico")
+    public ResponseEntity<HistoricoMedicoDTO> adicionarHistorico(@PathVariable Long id, @RequestBody HistoricoMedicoDTO historicoDTO,
+                                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var adicionado = pacienteUseCase.adicionarHistorico(id, PacienteConverter.fromDtoToDomain(historicoDTO),
+            EtagPaciente.versaoEsperada(ifMatch));
+        return ResponseEntity.status(HttpStatus.CREATED)
+            .eTag(EtagPaciente.gerar(adicionado.getVersaoPaciente(), null, null))
+            .body(PacienteConverter.fromDomainToDTO(adicionado.getHistorico()));
+    }
+
+    // Método para listar o histórico médico de um paciente por período, paginado por cursor
+    @GetMapping("/{id}/historico")
+    public ResponseEntity<PaginaDTO<HistoricoMedicoDTO>> listarHistorico(@PathVariable Long id,
+                                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                                                        @RequestParam(required = false) Long after,
+                                                                        @RequestParam(defaultValue = "50") int limit) {
+        var pagina = pacienteUseCase.listarHistorico(id, from, to, after, limit);
+        List<HistoricoMedicoDTO> historico = pagina.getItens()
+            .stream()
+            .map(PacienteConverter::fromDomainToDTO)
+            .collect(Collectors.toList());
+        return ResponseEntity.ok(new PaginaDTO<>(historico, pagina.getProximoCursor()));
+    }
+
+    // Método para deletar vários pacientes de uma vez (?ids=1,2,3), com contato, endereço e histórico
+    @DeleteMapping(params = "ids")
+    public ResponseEntity<ExclusaoLoteDTO> deletarPacientes(@RequestParam List<Long> ids) {
+        int removidos = pacienteUseCase.deletarPacientes(ids);
+        return ResponseEntity.ok(new ExclusaoLoteDTO(ids.size(), removidos));
+    }
+
+    // Método para deletar um paciente por ID; inexistente, responde 404 pelo ExceptionHandlerController
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deletarPaciente(@PathVariable Long id) {
-        try {
-            pacienteUseCase.deletarPaciente(id);
-            return ResponseEntity.noContent().build();
-        } catch (Exception e) {
-            return ResponseEntity.notFound().build();
+        pacienteUseCase.deletarPaciente(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Converte ?fields= nos campos pedidos; o ID e a versão são sempre incluídos. Retorna null quando nenhum campo foi informado
+    private static Set<CampoPaciente> campos(List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return null;
+        }
+        Set<CampoPaciente> campos = EnumSet.of(CampoPaciente.ID, CampoPaciente.VERSAO);
+        for (String field : fields) {
+            campos.add(CampoPaciente.porNome(field.trim())
+                .orElseThrow(() -> new ParametroInvalidoException("Campo desconhecido em fields: " + field)));
+        }
+        return campos;
+    }
+
+    // Formato de exportação pelo Accept, do tipo mais específico ao menos específico; curingas e ausência do cabeçalho ficam com o NDJSON
+    private static MediaType formatoExportacao(List<MediaType> accept) {
+        if (accept == null) {
+            return MediaType.APPLICATION_NDJSON;
+        }
+        List<MediaType> ordenados = new ArrayList<>(accept);
+        MimeTypeUtils.sortBySpecificity(ordenados);
+        for (MediaType aceito : ordenados) {
+            for (MediaType tipo : List.of(MediaType.APPLICATION_NDJSON, FormatosBinarios.APPLICATION_CBOR_SEQ, FormatosBinarios.APPLICATION_SMILE)) {
+                if (aceito.isCompatibleWith(tipo)) {
+                    return tipo;
+                }
+            }
         }
+        return MediaType.APPLICATION_NDJSON;
+    }
+
+    private ObjectMapper leitor(MediaType contentType) {
+        if (FormatosBinarios.APPLICATION_SMILE.isCompatibleWith(contentType)) {
+            return smileMapper;
+        }
+        if (FormatosBinarios.APPLICATION_CBOR.isCompatibleWith(contentType) || FormatosBinarios.APPLICATION_CBOR_SEQ.isCompatibleWith(contentType)) {
+            return cborMapper;
+        }
+        return objectMapper;
+    }
+
+    // Restringe a serialização dos pacientes aos campos pedidos
+    private static MappingJacksonValue filtrar(Object corpo, Set<CampoPaciente> campos) {
+        var valor = new MappingJacksonValue(corpo);
+        if (campos != null) {
+            Set<String> nomes = campos.stream().map(CampoPaciente::getNome).collect(Collectors.toSet());
+            valor.setFilters(new SimpleFilterProvider()
+                .addFilter(PacienteDTO.FILTRO_CAMPOS, SimpleBeanPropertyFilter.filterOutAllExcept(nomes)));
+        }
+        return valor;
+    }
+
+    private static PacientesPorIdsDTO toDTO(PacientesPorIds resultado) {
+        List<PacienteDTO> pacientes = resultado.getPacientes()
+            .stream()
+            .map(PacienteConverter::fromDomainToDTO)
+            .collect(Collectors.toList());
+        return new PacientesPorIdsDTO(pacientes, resultado.getNaoEncontrados());
     }
 }
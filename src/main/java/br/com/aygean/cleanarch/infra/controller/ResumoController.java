@@ -0,0 +1,27 @@
+package br.com.aygean.cleanarch.infra.controller;
+
+import br.com.aygean.cleanarch.infra.dto.ReconstrucaoResumoDTO;
+import br.com.aygean.cleanarch.infra.service.PacienteGatewayResumo;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/resumo")
+public class ResumoController {
+
+    private final PacienteGatewayResumo pacienteGatewayResumo;
+
+    public ResumoController(PacienteGatewayResumo pacienteGatewayResumo) {
+        this.pacienteGatewayResumo = pacienteGatewayResumo;
+    }
+
+    // Método para reconstruir o modelo de leitura de pacientes a partir das tabelas normalizadas
+    @PostMapping("/pacientes/reconstrucao")
+    public ResponseEntity<ReconstrucaoResumoDTO> reconstruirPacientes() {
+        long inicio = System.nanoTime();
+        int pacientes = pacienteGatewayResumo.reconstruirResumo();
+        return ResponseEntity.ok(new ReconstrucaoResumoDTO(pacientes, (System.nanoTime() - inicio) / 1_000_000));
+    }
+}
@@ -0,0 +1,29 @@
+package br.com.aygean.cleanarch.infra.controller;
+
+import br.com.aygean.cleanarch.infra.dto.RebalanceamentoDTO;
+import br.com.aygean.cleanarch.infra.sharding.PacienteGatewayShards;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/shards")
+@ConditionalOnProperty(name = "pacientes.shards.ativo", havingValue = "true")
+public class ShardController {
+
+    private final PacienteGatewayShards pacienteGatewayShards;
+
+    public ShardController(PacienteGatewayShards pacienteGatewayShards) {
+        this.pacienteGatewayShards = pacienteGatewayShards;
+    }
+
+    // Método para mover aos seus shards de destino os pacientes que estão em outro banco, depois de acrescentar um shard
+    @PostMapping("/rebalanceamento")
+    public ResponseEntity<RebalanceamentoDTO> rebalancear() {
+        long inicio = System.nanoTime();
+        int movidos = pacienteGatewayShards.rebalancear();
+        return ResponseEntity.ok(new RebalanceamentoDTO(movidos, (System.nanoTime() - inicio) / 1_000_000));
+    }
+}
@@ -0,0 +1,36 @@
+package br.com.aygean.cleanarch.infra.converter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.http.MediaType;
+
+// Formatos binários aceitos além do JSON, negociados pelos cabeçalhos Accept e Content-Type.
+// Os mapeadores são cópias do ObjectMapper da aplicação (módulos, filtro de campos, datas) trocando apenas o formato.
+public final class FormatosBinarios {
+
+    public static final String APPLICATION_CBOR_VALUE = MediaType.APPLICATION_CBOR_VALUE;
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    // Sequência de itens CBOR (RFC 8742), o equivalente binário do NDJSON usado na exportação e na importação em lote
+    public static final String APPLICATION_CBOR_SEQ_VALUE = "application/cbor-seq";
+
+    public static final MediaType APPLICATION_CBOR = MediaType.APPLICATION_CBOR;
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+    public static final MediaType APPLICATION_CBOR_SEQ = MediaType.parseMediaType(APPLICATION_CBOR_SEQ_VALUE);
+
+    private FormatosBinarios() {
+    }
+
+    public static ObjectMapper cbor(ObjectMapper json) {
+        return json.copyWith(new CBORFactory());
+    }
+
+    // Além dos nomes de campos, o Smile passa a referenciar valores curtos repetidos (estado, cidade, tratamento)
+    // já escritos no mesmo documento, em vez de repeti-los
+    public static ObjectMapper smile(ObjectMapper json) {
+        return json.copyWith(SmileFactory.builder()
+            .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+            .build());
+    }
+}
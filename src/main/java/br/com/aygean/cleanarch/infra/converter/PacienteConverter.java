@@ -1,5 +1,6 @@
 package br.com.aygean.cleanarch.infra.converter;
 
+import br.com.aygean.cleanarch.domain.CampoPaciente;
 import br.com.aygean.cleanarch.domain.Contato;
 import br.com.aygean.cleanarch.domain.Endereco;
 import br.com.aygean.cleanarch.domain.HistoricoMedico;
@@ -12,117 +13,251 @@ import br.com.aygean.cleanarch.infra.entity.ContatoEntity;
 import br.com.aygean.cleanarch.infra.entity.EnderecoEntity;
 import br.com.aygean.cleanarch.infra.entity.HistoricoMedicoEntity;
 import br.com.aygean.cleanarch.infra.entity.PacienteEntity;
-import org.springframework.beans.BeanUtils;
+import jakarta.persistence.Tuple;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
-
+import java.util.Set;
 
+// Conversões campo a campo, sem reflexão, entre DTO, domínio e entidade
 public class PacienteConverter {
 
     public static Paciente fromDtoToDomain(PacienteDTO dto) {
-
-        var contato = new Contato();
-        BeanUtils.copyProperties(dto.contato(), contato);
-        var endereco = new Endereco();
-        BeanUtils.copyProperties(dto.endereco(), endereco);
-        var historicoMedico = dto.historicoMedico().stream().map((h) -> {
-            var historicoMedicoDomain = new HistoricoMedico();
-            BeanUtils.copyProperties(h, historicoMedicoDomain);
-            return historicoMedicoDomain;
-        }).toList();
-        return new Paciente(dto.id(), dto.nome(), dto.dataNascimento(), dto.genero(), contato, endereco, historicoMedico);
+        return new Paciente(
+            dto.id(),
+            dto.nome(),
+            dto.dataNascimento(),
+            dto.genero(),
+            toDomain(dto.contato()),
+            toDomain(dto.endereco()),
+            historicoFromDtoToDomain(dto.historicoMedico()),
+            dto.versao());
     }
 
     public static PacienteEntity fromDtoToEntity(PacienteDTO dto) {
-
-        var contatoEntity = new ContatoEntity();
-        BeanUtils.copyProperties(dto.contato(), contatoEntity);
-        var enderecoEntity = new EnderecoEntity();
-        BeanUtils.copyProperties(dto.endereco(), enderecoEntity);
-        var historicoMedicoEntity = dto.historicoMedico().stream().map((h) -> {
-            var historicoMedicoInnerEntity = new HistoricoMedicoEntity();
-            BeanUtils.copyProperties(h, historicoMedicoInnerEntity);
-            return historicoMedicoInnerEntity;
-        }).toList();
         return new PacienteEntity(
             dto.nome(),
             dto.dataNascimento(),
             dto.genero(),
-            contatoEntity,
-            enderecoEntity,
-            historicoMedicoEntity);
+            toEntity(dto.contato()),
+            toEntity(dto.endereco()),
+            historicoFromDtoToEntity(dto.historicoMedico()));
     }
 
     public static PacienteDTO fromDomainToDTO(Paciente domain) {
-        var contatoDTO = new ContatoDTO(domain.getContato().getTelefone(),
-            domain.getContato().getEmail());
-        var enderecoDTO = new EnderecoDTO(domain.getEndereco().getRua(),
-            domain.getEndereco().getNumero(),
-            domain.getEndereco().getCidade(),
-            domain.getEndereco().getEstado(),
-            domain.getEndereco().getCep());
-        var historicoMedicoDTO = domain.getHistoricoMedico().stream().map((h) -> new HistoricoMedicoDTO(
-                h.getDataConsulta(),
-                h.getDiagnostico(),
-                h.getTratamento(),
-                h.getObservacoes()))
-            .toList();
-
-        return new br.com.aygean.cleanarch.infra.dto.PacienteDTO(
+        return new PacienteDTO(
             domain.getId(),
             domain.getNome(),
             domain.getDataNascimento(),
             domain.getGenero(),
-            contatoDTO,
-            enderecoDTO,
-            historicoMedicoDTO);
+            toDTO(domain.getContato()),
+            toDTO(domain.getEndereco()),
+            historicoFromDomainToDTO(domain.getHistoricoMedico()),
+            domain.getVersao());
     }
 
-
     public static Paciente fromEntityToDomain(PacienteEntity entity) {
-        var contato = new Contato();
-        BeanUtils.copyProperties(entity.getContato(), contato);
-        var endereco = new Endereco();
-        BeanUtils.copyProperties(entity.getEndereco(), endereco);
-
-        var historicoMedico = entity.getHistoricoMedico().stream().map((h) -> new HistoricoMedico(
-                h.getDataConsulta(),
-                h.getDiagnostico(),
-                h.getTratamento(),
-                h.getObservacoes()))
-            .toList();
+        return new Paciente(
+            entity.getId(),
+            entity.getNome(),
+            entity.getDataNascimento(),
+            entity.getGenero(),
+            toDomain(entity.getContato()),
+            toDomain(entity.getEndereco()),
+            historicoFromEntityToDomain(entity.getHistoricoMedico()),
+            entity.getVersao());
+    }
 
+    // Converte o paciente usando apenas as consultas informadas, sem acessar a coleção completa da entidade
+    public static Paciente fromEntityToDomain(PacienteEntity entity, List<HistoricoMedicoEntity> historicoMedico) {
         return new Paciente(
             entity.getId(),
             entity.getNome(),
             entity.getDataNascimento(),
             entity.getGenero(),
+            toDomain(entity.getContato()),
+            toDomain(entity.getEndereco()),
+            historicoFromEntityToDomain(historicoMedico),
+            entity.getVersao());
+    }
+
+    // Converte uma tupla de projeção; os campos não pedidos ficam nulos
+    public static Paciente fromTupleToDomain(Tuple tuple, Set<CampoPaciente> campos, List<HistoricoMedicoEntity> historicoMedico) {
+        Contato contato = null;
+        if (campos.contains(CampoPaciente.CONTATO) && tuple.get("contatoId") != null) {
+            contato = new Contato(tuple.get("telefone", String.class), tuple.get("email", String.class));
+        }
+        Endereco endereco = null;
+        if (campos.contains(CampoPaciente.ENDERECO) && tuple.get("enderecoId") != null) {
+            endereco = new Endereco(tuple.get("rua", String.class), tuple.get("numero", Integer.class),
+                tuple.get("cidade", String.class), tuple.get("estado", String.class), tuple.get("cep", String.class));
+        }
+        return new Paciente(
+            tuple.get("id", Long.class),
+            campos.contains(CampoPaciente.NOME) ? tuple.get("nome", String.class) : null,
+            campos.contains(CampoPaciente.DATA_NASCIMENTO) ? tuple.get("dataNascimento", LocalDate.class) : null,
+            campos.contains(CampoPaciente.GENERO) ? tuple.get("genero", String.class) : null,
             contato,
             endereco,
-            historicoMedico);
+            campos.contains(CampoPaciente.HISTORICO_MEDICO) ? historicoFromEntityToDomain(historicoMedico) : null,
+            campos.contains(CampoPaciente.VERSAO) ? tuple.get("versao", Long.class) : null);
+    }
+
+    public static HistoricoMedico fromEntityToDomain(HistoricoMedicoEntity entity) {
+        return new HistoricoMedico(entity.getDataConsulta(), entity.getDiagnostico(), entity.getTratamento(), entity.getObservacoes());
+    }
+
+    public static HistoricoMedico fromDtoToDomain(HistoricoMedicoDTO dto) {
+        return new HistoricoMedico(dto.dataConsulta(), dto.diagnostico(), dto.tratamento(), dto.observacoes());
+    }
+
+    public static HistoricoMedicoDTO fromDomainToDTO(HistoricoMedico domain) {
+        return new HistoricoMedicoDTO(domain.getDataConsulta(), domain.getDiagnostico(), domain.getTratamento(), domain.getObservacoes());
     }
 
     public static PacienteEntity fromDomainToEntity(Paciente domain) {
-        var contatoEntity = new ContatoEntity();
-        BeanUtils.copyProperties(domain.getContato(), contatoEntity);
-        var enderecoEntity = new EnderecoEntity();
-        BeanUtils.copyProperties(domain.getEndereco(), enderecoEntity);
-        List<HistoricoMedicoEntity> historicoMedicoEntity = new ArrayList<>();
-        List<HistoricoMedico> listaHistoricoMedico = domain.getHistoricoMedico();
-        for (HistoricoMedico h : listaHistoricoMedico) {
-            var historicoMedico = new HistoricoMedicoEntity(h.getDataConsulta(), h.getDiagnostico(), h.getTratamento(), h.getObservacoes());
-            historicoMedicoEntity.add(historicoMedico);
-        }
-        return new PacienteEntity(
+        var entity = new PacienteEntity(
             domain.getId(),
             domain.getNome(),
             domain.getDataNascimento(),
             domain.getGenero(),
-            contatoEntity,
-            enderecoEntity,
-            historicoMedicoEntity);
+            toEntity(domain.getContato()),
+            toEntity(domain.getEndereco()),
+            historicoFromDomainToEntity(domain.getHistoricoMedico()));
+        entity.setVersao(domain.getVersao());
+        return entity;
+    }
+
+    public static PacienteDTO fromEntityToDTO(PacienteEntity entity) {
+        return new PacienteDTO(
+            entity.getId(),
+            entity.getNome(),
+            entity.getDataNascimento(),
+            entity.getGenero(),
+            toDTO(entity.getContato()),
+            toDTO(entity.getEndereco()),
+            historicoFromEntityToDTO(entity.getHistoricoMedico()),
+            entity.getVersao());
+    }
+
+    // Contato
+
+    private static Contato toDomain(ContatoDTO dto) {
+        return dto == null ? null : new Contato(dto.telefone(), dto.email());
+    }
+
+    private static Contato toDomain(ContatoEntity entity) {
+        return entity == null ? null : new Contato(entity.getTelefone(), entity.getEmail());
+    }
+
+    private static ContatoEntity toEntity(ContatoDTO dto) {
+        return dto == null ? null : new ContatoEntity(null, dto.telefone(), dto.email());
+    }
+
+    private static ContatoEntity toEntity(Contato domain) {
+        return domain == null ? null : new ContatoEntity(null, domain.getTelefone(), domain.getEmail());
+    }
+
+    private static ContatoDTO toDTO(Contato domain) {
+        return domain == null ? null : new ContatoDTO(domain.getTelefone(), domain.getEmail());
+    }
+
+    private static ContatoDTO toDTO(ContatoEntity entity) {
+        return entity == null ? null : new ContatoDTO(entity.getTelefone(), entity.getEmail());
+    }
+
+    // Endereco
+
+    private static Endereco toDomain(EnderecoDTO dto) {
+        return dto == null ? null : new Endereco(dto.rua(), dto.numero(), dto.cidade(), dto.estado(), dto.cep());
+    }
+
+    private static Endereco toDomain(EnderecoEntity entity) {
+        return entity == null ? null : new Endereco(entity.getRua(), entity.getNumero(), entity.getCidade(), entity.getEstado(), entity.getCep());
+    }
+
+    private static EnderecoEntity toEntity(EnderecoDTO dto) {
+        return dto == null ? null : new EnderecoEntity(null, dto.rua(), dto.numero(), dto.cidade(), dto.estado(), dto.cep());
+    }
+
+    private static EnderecoEntity toEntity(Endereco domain) {
+        return domain == null ? null : new EnderecoEntity(null, domain.getRua(), domain.getNumero(), domain.getCidade(), domain.getEstado(), domain.getCep());
+    }
+
+    private static EnderecoDTO toDTO(Endereco domain) {
+        return domain == null ? null : new EnderecoDTO(domain.getRua(), domain.getNumero(), domain.getCidade(), domain.getEstado(), domain.getCep());
+    }
+
+    private static EnderecoDTO toDTO(EnderecoEntity entity) {
+        return entity == null ? null : new EnderecoDTO(entity.getRua(), entity.getNumero(), entity.getCidade(), entity.getEstado(), entity.getCep());
+    }
+
+    // HistoricoMedico: as listas são criadas já com a capacidade final
+
+    private static List<HistoricoMedico> historicoFromDtoToDomain(List<HistoricoMedicoDTO> dtos) {
+        if (dtos == null) {
+            return new ArrayList<>();
+        }
+        var lista = new ArrayList<HistoricoMedico>(dtos.size());
+        for (HistoricoMedicoDTO h : dtos) {
+            lista.add(new HistoricoMedico(h.dataConsulta(), h.diagnostico(), h.tratamento(), h.observacoes()));
+        }
+        return lista;
+    }
+
+    private static List<HistoricoMedicoEntity> historicoFromDtoToEntity(List<HistoricoMedicoDTO> dtos) {
+        if (dtos == null) {
+            return new ArrayList<>();
+        }
+        var lista = new ArrayList<HistoricoMedicoEntity>(dtos.size());
+        for (HistoricoMedicoDTO h : dtos) {
+            lista.add(new HistoricoMedicoEntity(h.dataConsulta(), h.diagnostico(), h.tratamento(), h.observacoes()));
+        }
+        return lista;
+    }
+
+    private static List<HistoricoMedicoDTO> historicoFromDomainToDTO(List<HistoricoMedico> historico) {
+        if (historico == null) {
+            return new ArrayList<>();
+        }
+        var lista = new ArrayList<HistoricoMedicoDTO>(historico.size());
+        for (HistoricoMedico h : historico) {
+            lista.add(new HistoricoMedicoDTO(h.getDataConsulta(), h.getDiagnostico(), h.getTratamento(), h.getObservacoes()));
+        }
+        return lista;
+    }
+
+    private static List<HistoricoMedico> historicoFromEntityToDomain(List<HistoricoMedicoEntity> entities) {
+        if (entities == null) {
+            return new ArrayList<>();
+        }
+        var lista = new ArrayList<HistoricoMedico>(entities.size());
+        for (HistoricoMedicoEntity h : entities) {
+            lista.add(new HistoricoMedico(h.getDataConsulta(), h.getDiagnostico(), h.getTratamento(), h.getObservacoes()));
+        }
+        return lista;
+    }
+
+    private static List<HistoricoMedicoEntity> historicoFromDomainToEntity(List<HistoricoMedico> historico) {
+        if (historico == null) {
+            return new ArrayList<>();
+        }
+        var lista = new ArrayList<HistoricoMedicoEntity>(historico.size());
+        for (HistoricoMedico h : historico) {
+            lista.add(new HistoricoMedicoEntity(h.getDataConsulta(), h.getDiagnostico(), h.getTratamento(), h.getObservacoes()));
+        }
+        return lista;
+    }
+
+    private static List<HistoricoMedicoDTO> historicoFromEntityToDTO(List<HistoricoMedicoEntity> entities) {
+        if (entities == null) {
+            return new ArrayList<>();
+        }
+        var lista = new ArrayList<HistoricoMedicoDTO>(entities.size());
+        for (HistoricoMedicoEntity h : entities) {
+            lista.add(new HistoricoMedicoDTO(h.getDataConsulta(), h.getDiagnostico(), h.getTratamento(), h.getObservacoes()));
+        }
+        return lista;
     }
 }
@@ -0,0 +1,178 @@
+package br.com.aygean.cleanarch.infra.converter;
+
+import br.com.aygean.cleanarch.infra.entity.ContatoEntity;
+import br.com.aygean.cleanarch.infra.entity.EnderecoEntity;
+import br.com.aygean.cleanarch.infra.entity.HistoricoMedicoEntity;
+import br.com.aygean.cleanarch.infra.entity.PacienteEntity;
+import br.com.aygean.cleanarch.infra.exception.AlteracaoInvalidaException;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Aplica um JSON merge patch (RFC 7396) diretamente sobre a entidade gerenciada.
+// Só os atributos que mudam de valor são alterados, e contato, endereço e histórico são atualizados
+// nas linhas existentes, de modo que o dirty checking gere UPDATEs apenas das colunas modificadas.
+public class PacienteMergePatch {
+
+    // Retorna se algum valor mudou, no paciente ou nos dados associados
+    public static boolean aplicar(PacienteEntity entity, Map<String, Object> patch) {
+        boolean alterado = false;
+        for (var alteracao : patch.entrySet()) {
+            String campo = alteracao.getKey();
+            Object valor = alteracao.getValue();
+            alterado |= switch (campo) {
+                // O ID vem da URL e a versão é controlada pelo banco (a versão esperada vai no If-Match)
+                case "id", "versao" -> false;
+                case "nome" -> definir(entity::getNome, entity::setNome, texto(campo, valor));
+                case "dataNascimento" -> definir(entity::getDataNascimento, entity::setDataNascimento, data(campo, valor));
+                case "genero" -> definir(entity::getGenero, entity::setGenero, texto(campo, valor));
+                case "contato" -> aplicarContato(entity, valor);
+                case "endereco" -> aplicarEndereco(entity, valor);
+                case "historicoMedico" -> aplicarHistorico(entity, valor);
+                default -> throw new AlteracaoInvalidaException("Campo desconhecido: " + campo);
+            };
+        }
+        return alterado;
+    }
+
+    private static boolean aplicarContato(PacienteEntity entity, Object valor) {
+        if (valor == null) {
+            return definir(entity::getContato, entity::setContato, null);
+        }
+        Map<String, Object> patch = objeto("contato", valor);
+        boolean alterado = false;
+        if (entity.getContato() == null) {
+            entity.setContato(new ContatoEntity());
+            alterado = true;
+        }
+        var contato = entity.getContato();
+        for (var alteracao : patch.entrySet()) {
+            String campo = alteracao.getKey();
+            Object v = alteracao.getValue();
+            alterado |= switch (campo) {
+                case "telefone" -> definir(contato::getTelefone, contato::setTelefone, texto(campo, v));
+                case "email" -> definir(contato::getEmail, contato::setEmail, texto(campo, v));
+                default -> throw new AlteracaoInvalidaException("Campo desconhecido: contato." + campo);
+            };
+        }
+        return alterado;
+    }
+
+    private static boolean aplicarEndereco(PacienteEntity entity, Object valor) {
+        if (valor == null) {
+            return definir(entity::getEndereco, entity::setEndereco, null);
+        }
+        Map<String, Object> patch = objeto("endereco", valor);
+        boolean alterado = false;
+        if (entity.getEndereco() == null) {
+            entity.setEndereco(new EnderecoEntity());
+            alterado = true;
+        }
+        var endereco = entity.getEndereco();
+        for (var alteracao : patch.entrySet()) {
+            String campo = alteracao.getKey();
+            Object v = alteracao.getValue();
+            alterado |= switch (campo) {
+                case "rua" -> definir(endereco::getRua, endereco::setRua, texto(campo, v));
+                case "numero" -> definir(endereco::getNumero, endereco::setNumero, inteiro(campo, v));
+                case "cidade" -> definir(endereco::getCidade, endereco::setCidade, texto(campo, v));
+                case "estado" -> definir(endereco::getEstado, endereco::setEstado, texto(campo, v));
+                case "cep" -> definir(endereco::getCep, endereco::setCep, texto(campo, v));
+                default -> throw new AlteracaoInvalidaException("Campo desconhecido: endereco." + campo);
+            };
+        }
+        return alterado;
+    }
+
+    // Pela RFC 7396 um array substitui o anterior; aqui a substituição é feita posição a posição, na ordem de inclusão
+    // das consultas (a da coleção e a das leituras), reaproveitando as linhas existentes e inserindo ou removendo apenas
+    // a diferença de tamanho
+    private static boolean aplicarHistorico(PacienteEntity entity, Object valor) {
+        List<?> novos = valor == null ? List.of() : lista("historicoMedico", valor);
+        List<HistoricoMedicoEntity> atuais = entity.getHistoricoMedico();
+        boolean alterado = atuais.size() != novos.size();
+
+        for (int i = 0; i < novos.size(); i++) {
+            Map<String, Object> item = objeto("historicoMedico[" + i + "]", novos.get(i));
+            HistoricoMedicoEntity historico;
+            if (i < atuais.size()) {
+                historico = atuais.get(i);
+            } else {
+                historico = new HistoricoMedicoEntity();
+                historico.setPaciente(entity);
+                atuais.add(historico);
+            }
+            alterado |= definir(historico::getDataConsulta, historico::setDataConsulta, data("dataConsulta", item.get("dataConsulta")));
+            alterado |= definir(historico::getDiagnostico, historico::setDiagnostico, texto("diagnostico", item.get("diagnostico")));
+            alterado |= definir(historico::getTratamento, historico::setTratamento, texto("tratamento", item.get("tratamento")));
+            alterado |= definir(historico::getObservacoes, historico::setObservacoes, texto("observacoes", item.get("observacoes")));
+        }
+        while (atuais.size() > novos.size()) {
+            atuais.remove(atuais.size() - 1);
+        }
+        return alterado;
+    }
+
+    // Só chama o setter quando o valor muda, evitando marcar a entidade como alterada sem necessidade
+    private static <T> boolean definir(Supplier<T> getter, Consumer<T> setter, T valor) {
+        if (Objects.equals(getter.get(), valor)) {
+            return false;
+        }
+        setter.accept(valor);
+        return true;
+    }
+
+    private static String texto(String campo, Object valor) {
+        if (valor == null || valor instanceof String) {
+            return (String) valor;
+        }
+        throw new AlteracaoInvalidaException("O campo " + campo + " deve ser um texto");
+    }
+
+    private static Integer inteiro(String campo, Object valor) {
+        if (valor == null) {
+            return null;
+        }
+        if (valor instanceof Number numero) {
+            // Recusa frações e valores fora do intervalo de int, em vez de truncá-los
+            try {
+                return new BigDecimal(numero.toString()).intValueExact();
+            } catch (ArithmeticException | NumberFormatException e) {
+                throw new AlteracaoInvalidaException("O campo " + campo + " deve ser um número inteiro");
+            }
+        }
+        throw new AlteracaoInvalidaException("O campo " + campo + " deve ser um número inteiro");
+    }
+
+    private static LocalDate data(String campo, Object valor) {
+        if (valor == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(texto(campo, valor));
+        } catch (DateTimeParseException e) {
+            throw new AlteracaoInvalidaException("O campo " + campo + " deve ser uma data no formato AAAA-MM-DD");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> objeto(String campo, Object valor) {
+        if (valor instanceof Map<?, ?> mapa) {
+            return (Map<String, Object>) mapa;
+        }
+        throw new AlteracaoInvalidaException("O campo " + campo + " deve ser um objeto");
+    }
+
+    private static List<?> lista(String campo, Object valor) {
+        if (valor instanceof List<?> itens) {
+            return itens;
+        }
+        throw new AlteracaoInvalidaException("O campo " + campo + " deve ser uma lista");
+    }
+}
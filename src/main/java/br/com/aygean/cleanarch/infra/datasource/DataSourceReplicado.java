@@ -0,0 +1,44 @@
+package br.com.aygean.cleanarch.infra.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+// DataSource da aplicação com réplica de leitura. A conexão física só é obtida no primeiro comando, quando
+// já se sabe se a transação é somente leitura: as transações @Transactional(readOnly = true) do gateway vão
+// para a réplica e as demais (gravações, e leituras feitas dentro delas) para o banco principal.
+// Leituras marcadas com LeituraPrincipal e as feitas com a réplica indisponível também vão para o principal.
+public class DataSourceReplicado extends LazyConnectionDataSourceProxy {
+
+    public DataSourceReplicado(DataSource principal, VerificadorReplica verificador) {
+        super(principal);
+        setReadOnlyDataSource(new Leitura(principal, verificador));
+    }
+
+    private static final class Leitura extends DelegatingDataSource {
+
+        private final VerificadorReplica verificador;
+
+        private Leitura(DataSource principal, VerificadorReplica verificador) {
+            super(principal);
+            this.verificador = verificador;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            if (!verificador.isDisponivel() || LeituraPrincipal.ativa()) {
+                return super.getConnection();
+            }
+            try {
+                return verificador.getReplica().getConnection();
+            } catch (SQLException e) {
+                // Não espera a próxima verificação: esta e as próximas leituras seguem para o principal
+                verificador.falhou(e);
+                return super.getConnection();
+            }
+        }
+    }
+}
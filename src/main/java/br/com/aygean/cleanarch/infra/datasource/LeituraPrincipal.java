@@ -0,0 +1,29 @@
+package br.com.aygean.cleanarch.infra.datasource;
+
+import java.util.function.Supplier;
+
+// Marca, na thread atual, as leituras que precisam ver as últimas gravações e por isso não podem ir para a réplica,
+// que pode estar atrasada. Sem réplica configurada não tem efeito.
+public final class LeituraPrincipal {
+
+    private static final ThreadLocal<Boolean> ATIVA = new ThreadLocal<>();
+
+    private LeituraPrincipal() {
+    }
+
+    public static <T> T executar(Supplier<T> leitura) {
+        if (ativa()) {
+            return leitura.get();
+        }
+        ATIVA.set(Boolean.TRUE);
+        try {
+            return leitura.get();
+        } finally {
+            ATIVA.remove();
+        }
+    }
+
+    static boolean ativa() {
+        return ATIVA.get() != null;
+    }
+}
@@ -0,0 +1,80 @@
+package br.com.aygean.cleanarch.infra.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Acompanha a saúde da réplica de leitura: valida uma conexão periodicamente e também é avisado quando uma
+// leitura não consegue conexão. Enquanto a réplica estiver indisponível as leituras vão para o banco principal;
+// a verificação seguinte que tiver sucesso devolve as leituras à réplica.
+public class VerificadorReplica implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(VerificadorReplica.class);
+
+    private final DataSource replica;
+    private final int timeoutSegundos;
+    private final ScheduledExecutorService agendador;
+    private volatile boolean disponivel = true;
+
+    public VerificadorReplica(DataSource replica, Duration intervalo, Duration timeout) {
+        this.replica = replica;
+        this.timeoutSegundos = (int) Math.max(1, timeout.toSeconds());
+        this.agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            var thread = new Thread(r, "replica-verificacao");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleWithFixedDelay(this::verificar, intervalo.toMillis(), intervalo.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isDisponivel() {
+        return disponivel;
+    }
+
+    DataSource getReplica() {
+        return replica;
+    }
+
+    // Valida uma conexão da réplica e atualiza o estado
+    public boolean verificar() {
+        try (Connection connection = replica.getConnection()) {
+            if (connection.isValid(timeoutSegundos)) {
+                alterar(true, null);
+            } else {
+                alterar(false, null);
+            }
+        } catch (SQLException | RuntimeException e) {
+            alterar(false, e);
+        }
+        return disponivel;
+    }
+
+    void falhou(SQLException e) {
+        alterar(false, e);
+    }
+
+    @Override
+    public void close() {
+        agendador.shutdownNow();
+    }
+
+    private synchronized void alterar(boolean disponivel, Exception causa) {
+        if (this.disponivel == disponivel) {
+            return;
+        }
+        this.disponivel = disponivel;
+        if (disponivel) {
+            log.info("Réplica de leitura disponível; leituras voltam para a réplica");
+        } else {
+            log.warn("Réplica de leitura indisponível; leituras seguem para o banco principal: {}",
+                causa != null ? causa.getMessage() : "conexão inválida");
+        }
+    }
+}
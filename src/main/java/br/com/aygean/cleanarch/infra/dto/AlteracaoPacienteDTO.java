@@ -0,0 +1,12 @@
+package br.com.aygean.cleanarch.infra.dto;
+
+import br.com.aygean.cleanarch.domain.TipoAlteracao;
+
+import java.time.Instant;
+
+public record AlteracaoPacienteDTO(long sequencia,
+                                   TipoAlteracao tipo,
+                                   Long pacienteId,
+                                   Long versao,
+                                   Instant momento) {
+}
@@ -0,0 +1,10 @@
+package br.com.aygean.cleanarch.infra.dto;
+
+public record EstatisticasCacheDTO(long tamanho,
+                                   long acertos,
+                                   long falhas,
+                                   double taxaAcerto,
+                                   long remocoes,
+                                   long carregamentos,
+                                   double tempoMedioCarregamentoMs) {
+}
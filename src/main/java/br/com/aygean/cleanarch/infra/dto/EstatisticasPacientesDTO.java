@@ -0,0 +1,10 @@
+package br.com.aygean.cleanarch.infra.dto;
+
+import java.util.Map;
+
+public record EstatisticasPacientesDTO(long total,
+                                       Map<String, Long> porGenero,
+                                       Map<String, Long> porFaixaEtaria,
+                                       Map<String, Long> porEstado,
+                                       Map<String, Map<String, Long>> porCidade) {
+}
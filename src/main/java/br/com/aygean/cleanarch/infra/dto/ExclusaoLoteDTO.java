@@ -0,0 +1,5 @@
+package br.com.aygean.cleanarch.infra.dto;
+
+public record ExclusaoLoteDTO(int solicitados,
+                              int removidos) {
+}
@@ -1,13 +1,20 @@
 package br.com.aygean.cleanarch.infra.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+
 import java.time.LocalDate;
 import java.util.List;
 
+// O filtro permite serializar apenas os campos pedidos em ?fields=; sem filtro na resposta, todos os campos são escritos
+@JsonFilter(PacienteDTO.FILTRO_CAMPOS)
 public record PacienteDTO(Long id,
                           String nome,
                           LocalDate dataNascimento,
                           String genero,
                           ContatoDTO contato,
                           EnderecoDTO endereco,
-                          List<HistoricoMedicoDTO> historicoMedico) {
+                          List<HistoricoMedicoDTO> historicoMedico,
+                          Long versao) {
+
+    public static final String FILTRO_CAMPOS = "camposPaciente";
 }
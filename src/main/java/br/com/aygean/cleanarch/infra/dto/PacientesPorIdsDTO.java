@@ -0,0 +1,7 @@
+package br.com.aygean.cleanarch.infra.dto;
+
+import java.util.List;
+
+public record PacientesPorIdsDTO(List<PacienteDTO> pacientes,
+                                 List<Long> naoEncontrados) {
+}
@@ -0,0 +1,7 @@
+package br.com.aygean.cleanarch.infra.dto;
+
+public record ResultadoLoteDTO(int lote,
+                               int quantidade,
+                               boolean sucesso,
+                               String erro) {
+}
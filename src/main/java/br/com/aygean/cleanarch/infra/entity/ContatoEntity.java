@@ -4,8 +4,10 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate
 @Table(name = "contatos")
 @Data
 @NoArgsConstructor
@@ -13,7 +15,8 @@ import lombok.AllArgsConstructor;
 public class ContatoEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "contatos_seq")
+    @SequenceGenerator(name = "contatos_seq", sequenceName = "contatos_seq", allocationSize = 50)
     private Long id;
 
     private String telefone;
@@ -4,8 +4,10 @@ import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
 
 @Entity
+@DynamicUpdate
 @Table(name = "enderecos")
 @Data
 @NoArgsConstructor
@@ -13,7 +15,8 @@ import lombok.AllArgsConstructor;
 public class EnderecoEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "enderecos_seq")
+    @SequenceGenerator(name = "enderecos_seq", sequenceName = "enderecos_seq", allocationSize = 50)
     private Long id;
 
     private String rua;
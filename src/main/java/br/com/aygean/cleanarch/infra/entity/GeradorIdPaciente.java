@@ -0,0 +1,43 @@
+package br.com.aygean.cleanarch.infra.entity;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.config.spi.StandardConverters;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.util.Properties;
+
+// IDs de pacientes gerados pela sequência do banco. Nas unidades de persistência configuradas com IDS_ATRIBUIDOS
+// (os shards) o ID já vem definido pela aplicação e é mantido; sem ele, a sequência é usada normalmente.
+public class GeradorIdPaciente extends SequenceStyleGenerator {
+
+    public static final String IDS_ATRIBUIDOS = "pacientes.ids-atribuidos";
+
+    private boolean idsAtribuidos;
+
+    @Override
+    public void configure(Type type, Properties parameters, ServiceRegistry serviceRegistry) throws MappingException {
+        super.configure(type, parameters, serviceRegistry);
+        idsAtribuidos = serviceRegistry.requireService(ConfigurationService.class)
+            .getSetting(IDS_ATRIBUIDOS, StandardConverters.BOOLEAN, false);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object object) {
+        if (idsAtribuidos) {
+            Object id = session.getEntityPersister(null, object).getIdentifier(object, session);
+            if (id != null) {
+                return id;
+            }
+        }
+        return super.generate(session, object);
+    }
+
+    @Override
+    public boolean allowAssignedIdentifiers() {
+        return idsAtribuidos;
+    }
+}
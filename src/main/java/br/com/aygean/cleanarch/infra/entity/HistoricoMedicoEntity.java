@@ -2,20 +2,28 @@ package br.com.aygean.cleanarch.infra.entity;
 
 import jakarta.persistence.*;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "historicos_medicos_paciente")
+@DynamicUpdate
+@Table(name = "historicos_medicos_paciente",
+    indexes = @Index(name = "idx_historicos_medicos_paciente_data", columnList = "paciente_id, dataConsulta, id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class HistoricoMedicoEntity {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "historicos_medicos_paciente_seq")
+    @SequenceGenerator(name = "historicos_medicos_paciente_seq", sequenceName = "historicos_medicos_paciente_seq", allocationSize = 50)
     private Long id;
 
     private LocalDate dataConsulta;
@@ -23,6 +31,15 @@ public class HistoricoMedicoEntity {
     private String tratamento;
     private String observacoes;
 
+    // Chave estrangeira direta para o paciente, sem tabela de junção; o banco remove as consultas
+    // junto com o paciente, dispensando um DELETE à parte nas exclusões em massa
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "paciente_id", nullable = false)
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private PacienteEntity paciente;
+
     public HistoricoMedicoEntity(LocalDate dataConsulta, String diagnostico, String tratamento, String observacoes) {
         this.dataConsulta = dataConsulta;
         this.diagnostico = diagnostico;
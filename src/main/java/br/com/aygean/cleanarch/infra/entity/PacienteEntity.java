@@ -2,6 +2,11 @@ package br.com.aygean.cleanarch.infra.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 import org.hibernate.proxy.HibernateProxy;
 
 import java.time.LocalDate;
@@ -9,38 +14,56 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 
+// Os UPDATEs incluem apenas as colunas alteradas, o que mantém pequenas as alterações parciais
 @Entity
+@DynamicUpdate
 @Table(name = "pacientes")
 @Getter
 @Setter
 @ToString
 @NoArgsConstructor
-@AllArgsConstructor
 public class PacienteEntity {
 
+    // Sequência com alocação em blocos; nos shards o ID é atribuído pela aplicação (ver GeradorIdPaciente)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = "pacientes_seq")
+    @GenericGenerator(name = "pacientes_seq", type = GeradorIdPaciente.class, parameters = {
+        @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "pacientes_seq"),
+        @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50")})
     private Long id;
 
     private String nome;
     private LocalDate dataNascimento;
     private String genero;
 
+    // Incrementada a cada alteração do paciente ou de seus dados associados; os UPDATEs a conferem na cláusula WHERE
+    @Version
+    private Long versao;
+
     // Relacionamento um-para-um com Contato
-    @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "contato_id", referencedColumnName = "id")
     private ContatoEntity contato;
 
     // Relacionamento um-para-um com Endereco
-    @OneToOne(cascade = CascadeType.ALL, orphanRemoval = true)
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
     @JoinColumn(name = "endereco_id", referencedColumnName = "id")
     private EnderecoEntity endereco;
 
-    // Relacionamento um-para-muitos com HistoricoMedico
-    @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
+    // Relacionamento um-para-muitos com HistoricoMedico, mapeado pela chave estrangeira paciente_id.
+    // Os históricos de vários pacientes são carregados juntos, em uma única consulta por lote.
+    // Na ordem de inclusão, a mesma das leituras em lote: o merge patch casa as consultas pela posição
+    @OneToMany(mappedBy = "paciente", cascade = CascadeType.ALL, orphanRemoval = true)
+    @OrderBy("id")
+    @BatchSize(size = 500)
     @ToString.Exclude
     private List<HistoricoMedicoEntity> historicoMedico = new ArrayList<>();
 
+    public PacienteEntity(Long id, String nome, LocalDate dataNascimento, String genero, ContatoEntity contato, EnderecoEntity endereco, List<HistoricoMedicoEntity> historicoMedico) {
+        this(nome, dataNascimento, genero, contato, endereco, historicoMedico);
+        this.id = id;
+    }
+
     // Construtor sem ID para facilitar a criação de instâncias sem definir ID
     public PacienteEntity(String nome, LocalDate dataNascimento, String genero, ContatoEntity contato, EnderecoEntity endereco, List<HistoricoMedicoEntity> historicoMedico) {
         this.nome = nome;
@@ -49,6 +72,8 @@ public class PacienteEntity {
         this.contato = contato;
         this.endereco = endereco;
         this.historicoMedico = historicoMedico != null ? historicoMedico : new ArrayList<>();
+        // Mantém o lado dono do relacionamento apontando para este paciente
+        this.historicoMedico.forEach(h -> h.setPaciente(this));
     }
 
     @Override
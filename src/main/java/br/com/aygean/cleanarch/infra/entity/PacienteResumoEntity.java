@@ -0,0 +1,53 @@
+package br.com.aygean.cleanarch.infra.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+// Modelo de leitura desnormalizado: uma linha por paciente com o paciente completo em JSON,
+// de modo que as leituras não precisem juntar pacientes, contatos, endereços e histórico
+@Entity
+@Table(name = "pacientes_resumo")
+@Data
+@NoArgsConstructor
+public class PacienteResumoEntity implements Persistable<Long> {
+
+    // Mesmo ID do paciente, atribuído pela aplicação
+    @Id
+    private Long id;
+
+    private String nome;
+
+    @Column(columnDefinition = "text")
+    private String documento;
+
+    // Versão do paciente; acompanha as consultas incluídas mesmo enquanto o documento está desatualizado
+    private Long versao;
+
+    // Consultas foram incluídas depois da última gravação do documento, que precisa ser remontado
+    private boolean desatualizado;
+
+    // Indica se a linha ainda não existe, evitando o SELECT que o merge faria antes de cada INSERT
+    @Transient
+    private boolean novo;
+
+    public PacienteResumoEntity(Long id, String nome, String documento, Long versao, boolean novo) {
+        this.id = id;
+        this.nome = nome;
+        this.documento = documento;
+        this.versao = versao;
+        this.novo = novo;
+    }
+
+    @Override
+    public boolean isNew() {
+        return novo;
+    }
+
+    @PostLoad
+    @PostPersist
+    void marcarPersistido() {
+        this.novo = false;
+    }
+}
@@ -0,0 +1,13 @@
+package br.com.aygean.cleanarch.infra.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Lançada quando um documento de alteração parcial (JSON merge patch) não pode ser aplicado
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class AlteracaoInvalidaException extends RuntimeException {
+
+    public AlteracaoInvalidaException(String message) {
+        super(message);
+    }
+}
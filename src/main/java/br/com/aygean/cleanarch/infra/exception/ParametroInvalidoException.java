@@ -0,0 +1,13 @@
+package br.com.aygean.cleanarch.infra.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Lançada quando um parâmetro da requisição tem um valor não reconhecido
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ParametroInvalidoException extends RuntimeException {
+
+    public ParametroInvalidoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package br.com.aygean.cleanarch.infra.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Lançada quando a pré-condição de uma requisição condicional (If-Match) não pode ser atendida
+@ResponseStatus(HttpStatus.PRECONDITION_FAILED)
+public class PrecondicaoFalhouException extends RuntimeException {
+
+    public PrecondicaoFalhouException(String message) {
+        super(message);
+    }
+}
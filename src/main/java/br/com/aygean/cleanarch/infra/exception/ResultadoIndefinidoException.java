@@ -0,0 +1,14 @@
+package br.com.aygean.cleanarch.infra.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Lançada quando a operação já foi iniciada mas não terminou no tempo esperado: ela pode ter sido concluída ou não,
+// e quem chamou precisa consultar o estado antes de repetir
+@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+public class ResultadoIndefinidoException extends RuntimeException {
+
+    public ResultadoIndefinidoException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,13 @@
+package br.com.aygean.cleanarch.infra.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// Lançada quando o serviço não tem capacidade para atender a requisição no momento
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SobrecargaException extends RuntimeException {
+
+    public SobrecargaException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,326 @@
+package br.com.aygean.cleanarch.infra.index;
+
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Contagens de pacientes por estado, cidade, gênero e data de nascimento, mantidas em memória com um LongAdder por
+// grupo, para que gravações simultâneas não disputem o mesmo contador. Nada é guardado por paciente: cada gravação
+// informa o perfil anterior e o novo, e a memória cresce com o número de grupos, não com o de pacientes.
+// As faixas etárias saem das datas de nascimento no momento da leitura, já que a idade muda com o tempo.
+public class ContagensPacientes {
+
+    public static final String NAO_INFORMADO = "não informado";
+
+    // Campos contados de um paciente
+    public record Perfil(String estado, String cidade, String genero, LocalDate dataNascimento) {
+    }
+
+    private record Cidade(String estado, String cidade) {
+    }
+
+    // Data usada como chave dos pacientes sem data de nascimento
+    private static final LocalDate SEM_DATA = LocalDate.MIN;
+
+    // As gravações contam sob a trava de leitura, compartilhada entre elas; só a troca pelos grupos reconciliados
+    // usa a trava de escrita
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+    private volatile Grupos grupos = new Grupos();
+    // Reconciliação em andamento, que anota as gravações feitas durante a leitura do banco; null fora dela
+    private volatile Reconciliacao reconciliacao;
+    // Gravações anunciadas cujas transações ainda não terminaram
+    private final Set<Gravacao> gravacoesEmAndamento = ConcurrentHashMap.newKeySet();
+
+    // Desconta o perfil anterior e conta o novo; sem perfil anterior é uma inclusão, sem o novo, uma remoção
+    public void alterar(long id, Perfil antes, Perfil depois) {
+        trava.readLock().lock();
+        try {
+            contar(id, antes, depois);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    // Anuncia, antes do commit, a gravação de um paciente feita numa transação; as contagens só mudam quando ela é
+    // confirmada. Enquanto a transação não termina, uma leitura do banco pode ou não ver o perfil novo, e o anúncio
+    // faz a reconciliação ignorar o que leu desse paciente e seguir o que as gravações informarem.
+    public Gravacao anunciar(long id, Perfil antes) {
+        var gravacao = new Gravacao(id, antes);
+        trava.readLock().lock();
+        try {
+            gravacoesEmAndamento.add(gravacao);
+            var emAndamento = reconciliacao;
+            if (emAndamento != null) {
+                emAndamento.anunciar(id, antes);
+            }
+        } finally {
+            trava.readLock().unlock();
+        }
+        return gravacao;
+    }
+
+    // Chamado sob a trava de leitura
+    private void contar(long id, Perfil antes, Perfil depois) {
+        var atuais = grupos;
+        if (antes != null) {
+            atuais.contar(antes, -1);
+        }
+        if (depois != null) {
+            atuais.contar(depois, 1);
+        }
+        var emAndamento = reconciliacao;
+        if (emAndamento != null) {
+            emAndamento.anotar(id, antes, depois);
+        }
+    }
+
+    public long total() {
+        return grupos.total.sum();
+    }
+
+    public Map<String, Long> porEstado() {
+        return copiar(grupos.porEstado);
+    }
+
+    public Map<String, Map<String, Long>> porCidade() {
+        var copia = new TreeMap<String, Map<String, Long>>();
+        grupos.porCidade.forEach((cidade, contador) -> {
+            long valor = contador.sum();
+            if (valor > 0) {
+                copia.computeIfAbsent(cidade.estado(), e -> new TreeMap<>()).put(cidade.cidade(), valor);
+            }
+        });
+        return copia;
+    }
+
+    public Map<String, Long> porGenero() {
+        return copiar(grupos.porGenero);
+    }
+
+    // Pacientes por faixa etária; cada faixa começa na idade indicada e vai até o início da seguinte
+    public Map<String, Long> porFaixaEtaria(LocalDate hoje, int... iniciosFaixas) {
+        long[] quantidades = new long[iniciosFaixas.length];
+        long[] semData = {0};
+        grupos.porDataNascimento.forEach((data, contador) -> {
+            long valor = contador.sum();
+            if (data.equals(SEM_DATA)) {
+                semData[0] += valor;
+                return;
+            }
+            int idade = Period.between(data, hoje).getYears();
+            for (int i = iniciosFaixas.length - 1; i >= 0; i--) {
+                if (idade >= iniciosFaixas[i]) {
+                    quantidades[i] += valor;
+                    break;
+                }
+            }
+        });
+
+        var faixas = new LinkedHashMap<String, Long>();
+        for (int i = 0; i < iniciosFaixas.length; i++) {
+            String nome = i + 1 < iniciosFaixas.length
+                ? iniciosFaixas[i] + "-" + (iniciosFaixas[i + 1] - 1)
+                : iniciosFaixas[i] + "+";
+            faixas.put(nome, quantidades[i]);
+        }
+        if (semData[0] > 0) {
+            faixas.put(NAO_INFORMADO, semData[0]);
+        }
+        return faixas;
+    }
+
+    // Começa a recontar a partir do banco; as gravações feitas até a conclusão ficam anotadas na reconciliação, e as
+    // que já estavam em andamento entram anunciadas
+    public Reconciliacao iniciarReconciliacao() {
+        var nova = new Reconciliacao();
+        trava.writeLock().lock();
+        try {
+            gravacoesEmAndamento.forEach(gravacao -> nova.anunciar(gravacao.id, gravacao.antes));
+            reconciliacao = nova;
+        } finally {
+            trava.writeLock().unlock();
+        }
+        return nova;
+    }
+
+    // Gravação anunciada antes do commit, concluída depois dele por confirmar ou, se a transação foi desfeita, desfazer
+    public final class Gravacao {
+
+        private final long id;
+        private final Perfil antes;
+
+        private Gravacao(long id, Perfil antes) {
+            this.id = id;
+            this.antes = antes;
+        }
+
+        public void confirmar(Perfil depois) {
+            trava.readLock().lock();
+            try {
+                contar(id, antes, depois);
+                gravacoesEmAndamento.remove(this);
+            } finally {
+                trava.readLock().unlock();
+            }
+        }
+
+        public void desfazer() {
+            gravacoesEmAndamento.remove(this);
+        }
+    }
+
+    // Contagem refeita a partir do banco, lida em blocos de pacientes com IDs consecutivos. Um paciente com gravação
+    // anunciada até a contagem do bloco fica de fora dele, já que a leitura pode ter visto o perfil anterior ou o novo,
+    // e entra pelo perfil deixado pelas gravações: o da última confirmada ou, sem nenhuma, o anterior à primeira. Se o
+    // anúncio veio depois da contagem, o commit também veio, a leitura viu o perfil anterior e ele é descontado na
+    // conclusão. Só as anotações são guardadas por paciente, e elas se limitam às gravações feitas durante a leitura.
+    public final class Reconciliacao {
+
+        private record Anotacao(long marca, Perfil antes, Perfil depois) {
+        }
+
+        private record Bloco(long primeiroId, long ultimoId, long marca) {
+        }
+
+        private final Grupos lidos = new Grupos();
+        private final Map<Long, Anotacao> anotacoes = new ConcurrentHashMap<>();
+        private final Queue<Bloco> blocos = new ConcurrentLinkedQueue<>();
+        private final AtomicLong relogio = new AtomicLong();
+
+        private Reconciliacao() {
+        }
+
+        // Conta os perfis lidos de um bloco com os pacientes de IDs entre primeiroId e ultimoId; chamado depois da
+        // leitura. Gravações anotadas depois da marca do bloco foram anunciadas depois da leitura e são tratadas como
+        // posteriores a ela, mesmo que cheguem durante a contagem
+        public void contarBloco(long primeiroId, long ultimoId, Map<Long, Perfil> perfis) {
+            long marca = relogio.get();
+            perfis.forEach((id, perfil) -> {
+                var anotacao = anotacoes.get(id);
+                if (anotacao == null || anotacao.marca() > marca) {
+                    lidos.contar(perfil, 1);
+                }
+            });
+            blocos.add(new Bloco(primeiroId, ultimoId, marca));
+        }
+
+        // Troca as contagens pelas lidas do banco somadas às gravações anotadas; devolve quantos grupos estavam
+        // com a contagem errada. Uma gravação ainda em andamento fica com o perfil anterior e, confirmada depois da
+        // troca, ajusta as novas contagens como qualquer outra
+        public int concluir() {
+            trava.writeLock().lock();
+            try {
+                anotacoes.forEach((id, anotacao) -> {
+                    if (anotacao.antes() != null && contadoNaLeitura(id, anotacao.marca())) {
+                        lidos.contar(anotacao.antes(), -1);
+                    }
+                    if (anotacao.depois() != null) {
+                        lidos.contar(anotacao.depois(), 1);
+                    }
+                });
+                int corrigidos = grupos.divergencias(lidos);
+                grupos = lidos;
+                return corrigidos;
+            } finally {
+                cancelar();
+                trava.writeLock().unlock();
+            }
+        }
+
+        // Encerra a reconciliação sem alterar as contagens
+        public void cancelar() {
+            if (reconciliacao == this) {
+                reconciliacao = null;
+            }
+        }
+
+        // Sem gravação confirmada, o perfil do paciente continua o anterior
+        private void anunciar(long id, Perfil antes) {
+            anotacoes.computeIfAbsent(id, chave -> new Anotacao(relogio.incrementAndGet(), antes, antes));
+        }
+
+        private void anotar(long id, Perfil antes, Perfil depois) {
+            anotacoes.compute(id, (chave, anterior) -> anterior == null
+                ? new Anotacao(relogio.incrementAndGet(), antes, depois)
+                : new Anotacao(anterior.marca(), anterior.antes(), depois));
+        }
+
+        private boolean contadoNaLeitura(long id, long marcaAnotacao) {
+            for (Bloco bloco : blocos) {
+                if (id >= bloco.primeiroId() && id <= bloco.ultimoId()) {
+                    return marcaAnotacao > bloco.marca();
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Grupos {
+
+        private final LongAdder total = new LongAdder();
+        private final Map<String, LongAdder> porEstado = new ConcurrentHashMap<>();
+        private final Map<Cidade, LongAdder> porCidade = new ConcurrentHashMap<>();
+        private final Map<String, LongAdder> porGenero = new ConcurrentHashMap<>();
+        private final Map<LocalDate, LongAdder> porDataNascimento = new ConcurrentHashMap<>();
+
+        private void contar(Perfil perfil, int delta) {
+            String estado = texto(perfil.estado());
+            total.add(delta);
+            porEstado.computeIfAbsent(estado, e -> new LongAdder()).add(delta);
+            porCidade.computeIfAbsent(new Cidade(estado, texto(perfil.cidade())), c -> new LongAdder()).add(delta);
+            porGenero.computeIfAbsent(texto(perfil.genero()), g -> new LongAdder()).add(delta);
+            porDataNascimento.computeIfAbsent(perfil.dataNascimento() != null ? perfil.dataNascimento() : SEM_DATA,
+                d -> new LongAdder()).add(delta);
+        }
+
+        private int divergencias(Grupos outros) {
+            return divergencias(porEstado, outros.porEstado)
+                + divergencias(porCidade, outros.porCidade)
+                + divergencias(porGenero, outros.porGenero)
+                + divergencias(porDataNascimento, outros.porDataNascimento);
+        }
+
+        private static <K> int divergencias(Map<K, LongAdder> contadores, Map<K, LongAdder> outros) {
+            var chaves = new HashSet<>(contadores.keySet());
+            chaves.addAll(outros.keySet());
+            int divergentes = 0;
+            for (K chave : chaves) {
+                if (valor(contadores, chave) != valor(outros, chave)) {
+                    divergentes++;
+                }
+            }
+            return divergentes;
+        }
+
+        private static <K> long valor(Map<K, LongAdder> contadores, K chave) {
+            var contador = contadores.get(chave);
+            return contador != null ? contador.sum() : 0;
+        }
+    }
+
+    private static String texto(String valor) {
+        return valor == null || valor.isBlank() ? NAO_INFORMADO : valor;
+    }
+
+    private static <K extends Comparable<K>> Map<K, Long> copiar(Map<K, LongAdder> contadores) {
+        var copia = new TreeMap<K, Long>();
+        contadores.forEach((chave, contador) -> {
+            long valor = contador.sum();
+            if (valor > 0) {
+                copia.put(chave, valor);
+            }
+        });
+        return copia;
+    }
+}
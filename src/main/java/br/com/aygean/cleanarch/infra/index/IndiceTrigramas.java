@@ -0,0 +1,259 @@
+package br.com.aygean.cleanarch.infra.index;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.IntStream;
+
+// Índice invertido de trigramas em memória para buscas por trecho de texto.
+// Os textos são normalizados (sem acentos e em minúsculas); cada trigrama aponta para a lista
+// ordenada dos IDs que o contêm. Uma busca cruza as listas dos trigramas da consulta e confirma
+// cada candidato comparando com o texto normalizado.
+public class IndiceTrigramas {
+
+    private static final Pattern MARCAS_DIACRITICAS = Pattern.compile("\\p{M}+");
+
+    private final Map<Long, ListaIds> postings = new HashMap<>();
+    private final Map<Long, String> textos = new HashMap<>();
+    private final ListaIds todos = new ListaIds();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Reconstrói o índice a partir de IDs em ordem crescente, dividindo o trabalho entre os processadores
+    public void reconstruir(long[] ids, String[] valores) {
+        int blocos = Math.max(1, Math.min(ids.length / 10_000 + 1, Runtime.getRuntime().availableProcessors() * 4));
+        int tamanhoBloco = (ids.length + blocos - 1) / Math.max(1, blocos);
+
+        String[] normalizados = new String[ids.length];
+        List<Map<Long, ListaIds>> parciais = IntStream.range(0, blocos)
+            .parallel()
+            .mapToObj(b -> {
+                Map<Long, ListaIds> parcial = new HashMap<>();
+                int fim = Math.min(ids.length, (b + 1) * tamanhoBloco);
+                for (int i = b * tamanhoBloco; i < fim; i++) {
+                    normalizados[i] = normalizar(valores[i]);
+                    for (long trigrama : trigramas(normalizados[i])) {
+                        parcial.computeIfAbsent(trigrama, t -> new ListaIds()).adicionarNoFim(ids[i]);
+                    }
+                }
+                return parcial;
+            })
+            .toList();
+
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            textos.clear();
+            todos.limpar();
+            // Os blocos cobrem faixas crescentes de IDs, então basta concatená-los em ordem
+            for (Map<Long, ListaIds> parcial : parciais) {
+                parcial.forEach((trigrama, lista) ->
+                    postings.computeIfAbsent(trigrama, t -> new ListaIds()).adicionarTodosNoFim(lista));
+            }
+            for (int i = 0; i < ids.length; i++) {
+                textos.put(ids[i], normalizados[i]);
+                todos.adicionarNoFim(ids[i]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Adiciona ou substitui o texto associado a um ID
+    public void adicionar(long id, String valor) {
+        String normalizado = normalizar(valor);
+        lock.writeLock().lock();
+        try {
+            removerSemLock(id);
+            textos.put(id, normalizado);
+            todos.adicionar(id);
+            for (long trigrama : trigramas(normalizado)) {
+                postings.computeIfAbsent(trigrama, t -> new ListaIds()).adicionar(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remover(long id) {
+        lock.writeLock().lock();
+        try {
+            removerSemLock(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Retorna, em ordem crescente, até 'limite' IDs cujo texto contém a consulta
+    public List<Long> buscar(String consulta, int limite) {
+        String normalizada = normalizar(consulta);
+        lock.readLock().lock();
+        try {
+            long[] trigramasConsulta = trigramas(normalizada);
+            if (trigramasConsulta.length == 0) {
+                // Consultas com menos de três caracteres: percorre os IDs em ordem até atingir o limite
+                return filtrar(todos, normalizada, limite);
+            }
+
+            ListaIds[] listas = new ListaIds[trigramasConsulta.length];
+            for (int i = 0; i < trigramasConsulta.length; i++) {
+                listas[i] = postings.get(trigramasConsulta[i]);
+                if (listas[i] == null) {
+                    return List.of();
+                }
+            }
+            // Começa pela lista mais curta para reduzir o número de comparações
+            Arrays.sort(listas, (a, b) -> Integer.compare(a.tamanho, b.tamanho));
+
+            var resultado = new ArrayList<Long>(Math.min(limite, listas[0].tamanho));
+            for (int i = 0; i < listas[0].tamanho && resultado.size() < limite; i++) {
+                long id = listas[0].ids[i];
+                if (contidoEmTodas(listas, id) && textos.get(id).contains(normalizada)) {
+                    resultado.add(id);
+                }
+            }
+            return resultado;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int tamanho() {
+        lock.readLock().lock();
+        try {
+            return textos.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Remove acentos e converte para minúsculas, tornando a busca insensível a ambos
+    public static String normalizar(String valor) {
+        if (valor == null) {
+            return "";
+        }
+        String semAcentos = MARCAS_DIACRITICAS.matcher(Normalizer.normalize(valor, Normalizer.Form.NFD)).replaceAll("");
+        return semAcentos.toLowerCase(Locale.ROOT).trim();
+    }
+
+    private void removerSemLock(long id) {
+        String anterior = textos.remove(id);
+        if (anterior == null) {
+            return;
+        }
+        todos.remover(id);
+        for (long trigrama : trigramas(anterior)) {
+            ListaIds lista = postings.get(trigrama);
+            if (lista != null) {
+                lista.remover(id);
+                if (lista.tamanho == 0) {
+                    postings.remove(trigrama);
+                }
+            }
+        }
+    }
+
+    private List<Long> filtrar(ListaIds lista, String normalizada, int limite) {
+        var resultado = new ArrayList<Long>(Math.min(limite, lista.tamanho));
+        for (int i = 0; i < lista.tamanho && resultado.size() < limite; i++) {
+            long id = lista.ids[i];
+            if (textos.get(id).contains(normalizada)) {
+                resultado.add(id);
+            }
+        }
+        return resultado;
+    }
+
+    private static boolean contidoEmTodas(ListaIds[] listas, long id) {
+        for (int i = 1; i < listas.length; i++) {
+            if (!listas[i].contem(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Trigramas distintos do texto, cada um codificado em um long (três caracteres de 16 bits)
+    private static long[] trigramas(String texto) {
+        if (texto.length() < 3) {
+            return new long[0];
+        }
+        long[] resultado = new long[texto.length() - 2];
+        for (int i = 0; i < resultado.length; i++) {
+            resultado[i] = ((long) texto.charAt(i) << 32) | ((long) texto.charAt(i + 1) << 16) | texto.charAt(i + 2);
+        }
+        Arrays.sort(resultado);
+        int distintos = 0;
+        for (int i = 0; i < resultado.length; i++) {
+            if (i == 0 || resultado[i] != resultado[i - 1]) {
+                resultado[distintos++] = resultado[i];
+            }
+        }
+        return Arrays.copyOf(resultado, distintos);
+    }
+
+    // Lista ordenada de IDs sobre um array de long, sem objetos por elemento
+    private static final class ListaIds {
+        private long[] ids = new long[4];
+        private int tamanho;
+
+        void adicionarNoFim(long id) {
+            if (tamanho > 0 && ids[tamanho - 1] == id) {
+                return;
+            }
+            garantirCapacidade(tamanho + 1);
+            ids[tamanho++] = id;
+        }
+
+        void adicionarTodosNoFim(ListaIds outra) {
+            garantirCapacidade(tamanho + outra.tamanho);
+            System.arraycopy(outra.ids, 0, ids, tamanho, outra.tamanho);
+            tamanho += outra.tamanho;
+        }
+
+        void adicionar(long id) {
+            if (tamanho == 0 || ids[tamanho - 1] < id) {
+                adicionarNoFim(id);
+                return;
+            }
+            int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+            if (posicao >= 0) {
+                return;
+            }
+            posicao = -posicao - 1;
+            garantirCapacidade(tamanho + 1);
+            System.arraycopy(ids, posicao, ids, posicao + 1, tamanho - posicao);
+            ids[posicao] = id;
+            tamanho++;
+        }
+
+        void remover(long id) {
+            int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+            if (posicao >= 0) {
+                System.arraycopy(ids, posicao + 1, ids, posicao, tamanho - posicao - 1);
+                tamanho--;
+            }
+        }
+
+        boolean contem(long id) {
+            return Arrays.binarySearch(ids, 0, tamanho, id) >= 0;
+        }
+
+        void limpar() {
+            ids = new long[4];
+            tamanho = 0;
+        }
+
+        private void garantirCapacidade(int capacidade) {
+            if (capacidade > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(capacidade, ids.length * 2));
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package br.com.aygean.cleanarch.infra.metrics;
+
+// Comandos SQL, linhas e tempo de banco acumulados na thread da requisição atual.
+// Fora de uma requisição (tarefas de inicialização, executores próprios) não há estatísticas ativas
+// e os comandos não são contabilizados.
+public final class EstatisticasSql {
+
+    private static final ThreadLocal<EstatisticasSql> ATUAL = new ThreadLocal<>();
+
+    private int comandos;
+    private long linhas;
+    private long tempoNanos;
+    private long inicioComando;
+
+    private EstatisticasSql() {
+    }
+
+    public static EstatisticasSql iniciar() {
+        var estatisticas = new EstatisticasSql();
+        ATUAL.set(estatisticas);
+        return estatisticas;
+    }
+
+    public static EstatisticasSql atual() {
+        return ATUAL.get();
+    }
+
+    public static void encerrar() {
+        ATUAL.remove();
+    }
+
+    void inicioComando() {
+        inicioComando = System.nanoTime();
+    }
+
+    void fimComando(long linhasAfetadas) {
+        comandos++;
+        linhas += linhasAfetadas;
+        tempoNanos += System.nanoTime() - inicioComando;
+    }
+
+    void linhaLida() {
+        linhas++;
+    }
+
+    public int getComandos() {
+        return comandos;
+    }
+
+    public long getLinhas() {
+        return linhas;
+    }
+
+    public long getTempoNanos() {
+        return tempoNanos;
+    }
+}
@@ -0,0 +1,81 @@
+package br.com.aygean.cleanarch.infra.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.support.AopUtils;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Timers por método do caso de uso e por chamada ao gateway.
+// No gateway a tag "camada" identifica o decorador (cache, índice, limite, resumo, acesso ao banco);
+// cada camada mede o próprio tempo somado ao das camadas abaixo dela.
+// Os timers ficam em um mapa próprio para evitar a montagem das tags a cada chamada.
+@Aspect
+public class MetricasAspect {
+
+    private static final String SEM_EXCECAO = "none";
+
+    private final MeterRegistry registry;
+    private final Map<Chave, Timer> timers = new ConcurrentHashMap<>();
+
+    public MetricasAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * br.com.aygean.cleanarch.application.PacienteUseCase.*(..))")
+    public Object medirUseCase(ProceedingJoinPoint joinPoint) throws Throwable {
+        return medir(joinPoint, "pacientes.usecase", null);
+    }
+
+    @Around("execution(* br.com.aygean.cleanarch.gateway.PacienteGateway.*(..))"
+        + " || execution(* br.com.aygean.cleanarch.gateway.PacienteGatewayAsync.*(..))")
+    public Object medirGateway(ProceedingJoinPoint joinPoint) throws Throwable {
+        return medir(joinPoint, "pacientes.gateway", AopUtils.getTargetClass(joinPoint.getTarget()).getSimpleName());
+    }
+
+    private Object medir(ProceedingJoinPoint joinPoint, String nome, String camada) throws Throwable {
+        String metodo = joinPoint.getSignature().getName();
+        long inicio = System.nanoTime();
+        Object resultado;
+        try {
+            resultado = joinPoint.proceed();
+        } catch (Throwable e) {
+            timer(nome, camada, metodo, e).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        // Chamadas assíncronas são medidas até a conclusão do CompletableFuture
+        if (resultado instanceof CompletableFuture<?> futuro) {
+            futuro.whenComplete((valor, erro) ->
+                timer(nome, camada, metodo, erro).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS));
+        } else {
+            timer(nome, camada, metodo, null).record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+        return resultado;
+    }
+
+    private Timer timer(String nome, String camada, String metodo, Throwable erro) {
+        if (erro instanceof CompletionException && erro.getCause() != null) {
+            erro = erro.getCause();
+        }
+        String excecao = erro == null ? SEM_EXCECAO : erro.getClass().getSimpleName();
+        return timers.computeIfAbsent(new Chave(nome, camada, metodo, excecao), chave -> {
+            var builder = Timer.builder(chave.nome())
+                .tag("metodo", chave.metodo())
+                .tag("excecao", chave.excecao());
+            if (chave.camada() != null) {
+                builder.tag("camada", chave.camada());
+            }
+            return builder.register(registry);
+        });
+    }
+
+    private record Chave(String nome, String camada, String metodo, String excecao) {
+    }
+}
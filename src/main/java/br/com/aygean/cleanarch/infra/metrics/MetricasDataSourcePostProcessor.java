@@ -0,0 +1,35 @@
+package br.com.aygean.cleanarch.infra.metrics;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+
+// Envolve o DataSource da aplicação em um proxy JDBC que repassa cada comando ao MetricasSqlListener
+// e, com o perfil de SQL ativo, ao PerfilSqlListener.
+// O proxy delega unwrap/isWrapperFor, então as métricas e o health check do Hikari continuam funcionando.
+// DataSources que só repassam a conexão a outros (como o DataSourceReplicado) não são envolvidos: os seus
+// destinos já são, e cada comando é contado uma única vez.
+public class MetricasDataSourcePostProcessor implements BeanPostProcessor {
+
+    private final ObjectProvider<PerfilSqlListener> perfilSqlListener;
+
+    public MetricasDataSourcePostProcessor(ObjectProvider<PerfilSqlListener> perfilSqlListener) {
+        this.perfilSqlListener = perfilSqlListener;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource) && !(bean instanceof DelegatingDataSource)) {
+            var builder = ProxyDataSourceBuilder.create(beanName, dataSource)
+                .listener(new MetricasSqlListener())
+                .proxyResultSet();
+            perfilSqlListener.ifAvailable(builder::listener);
+            return builder.build();
+        }
+        return bean;
+    }
+}
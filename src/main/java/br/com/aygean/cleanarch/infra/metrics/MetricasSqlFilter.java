@@ -0,0 +1,132 @@
+package br.com.aygean.cleanarch.infra.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// Registra, por rota, quantos comandos SQL e quantas linhas cada requisição usou e o tempo gasto no banco.
+// Só são contados os comandos executados na thread da requisição; o trabalho entregue a outros
+// executores (endpoints /async, exportação) aparece apenas nos timers do gateway.
+// No modo de depuração o resumo também vai nos cabeçalhos da resposta (X-Sql-Comandos, X-Sql-Linhas, X-Sql-Tempo-Ms),
+// preenchidos quando a escrita do corpo começa.
+public class MetricasSqlFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry registry;
+    private final boolean cabecalhos;
+
+    public MetricasSqlFilter(MeterRegistry registry, boolean cabecalhos) {
+        this.registry = registry;
+        this.cabecalhos = cabecalhos;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        var estatisticas = EstatisticasSql.iniciar();
+        try {
+            if (cabecalhos) {
+                var resposta = new RespostaComResumoSql(response, estatisticas);
+                filterChain.doFilter(request, resposta);
+                resposta.adicionarCabecalhos();
+            } else {
+                filterChain.doFilter(request, response);
+            }
+        } finally {
+            EstatisticasSql.encerrar();
+            registrar(request, estatisticas);
+        }
+    }
+
+    private void registrar(HttpServletRequest request, EstatisticasSql estatisticas) {
+        // Usa o padrão da rota (/pacientes/{id}) e não a URI, para não criar uma série por paciente
+        var padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = padrao != null ? padrao.toString() : "UNKNOWN";
+        String metodo = request.getMethod();
+
+        DistributionSummary.builder("pacientes.requisicao.sql.comandos")
+            .description("Comandos SQL executados por requisição")
+            .tags("metodo", metodo, "uri", uri)
+            .register(registry)
+            .record(estatisticas.getComandos());
+        DistributionSummary.builder("pacientes.requisicao.sql.linhas")
+            .description("Linhas lidas ou alteradas por requisição")
+            .tags("metodo", metodo, "uri", uri)
+            .register(registry)
+            .record(estatisticas.getLinhas());
+        Timer.builder("pacientes.requisicao.sql.tempo")
+            .description("Tempo gasto em comandos SQL por requisição")
+            .tags("metodo", metodo, "uri", uri)
+            .register(registry)
+            .record(estatisticas.getTempoNanos(), TimeUnit.NANOSECONDS);
+    }
+
+    // Acrescenta o resumo de SQL antes que a resposta seja confirmada, quando os cabeçalhos ainda podem ser alterados
+    private static final class RespostaComResumoSql extends HttpServletResponseWrapper {
+
+        private final EstatisticasSql estatisticas;
+        private boolean adicionados;
+
+        private RespostaComResumoSql(HttpServletResponse response, EstatisticasSql estatisticas) {
+            super(response);
+            this.estatisticas = estatisticas;
+        }
+
+        void adicionarCabecalhos() {
+            if (adicionados || isCommitted()) {
+                return;
+            }
+            adicionados = true;
+            setHeader("X-Sql-Comandos", Integer.toString(estatisticas.getComandos()));
+            setHeader("X-Sql-Linhas", Long.toString(estatisticas.getLinhas()));
+            setHeader("X-Sql-Tempo-Ms", String.format(Locale.ROOT, "%.3f", estatisticas.getTempoNanos() / 1_000_000.0));
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            adicionarCabecalhos();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            adicionarCabecalhos();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            adicionarCabecalhos();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            adicionarCabecalhos();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            adicionarCabecalhos();
+            super.sendError(sc);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package br.com.aygean.cleanarch.infra.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.lifecycle.JdbcLifecycleEventListenerAdapter;
+
+import java.util.List;
+
+// Contabiliza nas estatísticas da requisição cada comando executado pelo DataSource:
+// as linhas alteradas vêm do retorno do comando e as linhas lidas de cada ResultSet.next() com resultado
+public class MetricasSqlListener extends JdbcLifecycleEventListenerAdapter {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        var estatisticas = EstatisticasSql.atual();
+        if (estatisticas != null) {
+            estatisticas.inicioComando();
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        var estatisticas = EstatisticasSql.atual();
+        if (estatisticas != null) {
+            estatisticas.fimComando(linhasAfetadas(execInfo.getResult()));
+        }
+    }
+
+    @Override
+    public void afterNext(MethodExecutionContext executionContext) {
+        var estatisticas = EstatisticasSql.atual();
+        if (estatisticas != null && Boolean.TRUE.equals(executionContext.getResult())) {
+            estatisticas.linhaLida();
+        }
+    }
+
+    // executeUpdate retorna um int e executeBatch um int[]; consultas retornam o ResultSet, contado à parte
+    static long linhasAfetadas(Object resultado) {
+        if (resultado instanceof Integer linhas) {
+            return Math.max(0, linhas);
+        }
+        if (resultado instanceof int[] lote) {
+            long linhas = 0;
+            for (int l : lote) {
+                // Statement.SUCCESS_NO_INFO (-2) não informa a quantidade
+                linhas += Math.max(0, l);
+            }
+            return linhas;
+        }
+        return 0;
+    }
+}
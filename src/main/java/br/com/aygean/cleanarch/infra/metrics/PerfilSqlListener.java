@@ -0,0 +1,149 @@
+package br.com.aygean.cleanarch.infra.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.lifecycle.JdbcLifecycleEventListenerAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Perfil de comandos SQL, no lugar do spring.jpa.show-sql: registra texto, quantidade de parâmetros,
+// duração e linhas apenas dos comandos acima do limite de lentidão ou de uma fração amostrada.
+// A escrita no log é feita por uma thread própria; com a fila cheia os registros são descartados,
+// para que o log nunca atrase as consultas.
+public class PerfilSqlListener extends JdbcLifecycleEventListenerAdapter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PerfilSqlListener.class);
+
+    private final long limiteLentoNanos;
+    private final double amostragem;
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<Estado> estado = ThreadLocal.withInitial(Estado::new);
+
+    public PerfilSqlListener(Duration limiteLento, double amostragem, int fila) {
+        this.limiteLentoNanos = limiteLento.toNanos();
+        this.amostragem = amostragem;
+        this.executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(fila),
+            r -> {
+                var thread = new Thread(r, "perfil-sql");
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        var atual = estado.get();
+        publicarPendente(atual);
+        atual.inicio = System.nanoTime();
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        var atual = estado.get();
+        long duracao = System.nanoTime() - atual.inicio;
+        String motivo;
+        if (duracao >= limiteLentoNanos) {
+            motivo = "lento";
+        } else if (amostragem > 0 && ThreadLocalRandom.current().nextDouble() < amostragem) {
+            motivo = "amostra";
+        } else {
+            return;
+        }
+
+        var registro = new Registro(motivo, texto(queryInfoList), parametros(queryInfoList), duracao);
+        if (execInfo.getResult() instanceof ResultSet) {
+            // Consultas: as linhas são contadas enquanto o ResultSet é lido e o registro sai quando ele é fechado
+            atual.pendente = registro;
+        } else {
+            registro.linhas = MetricasSqlListener.linhasAfetadas(execInfo.getResult());
+            publicar(registro);
+        }
+    }
+
+    @Override
+    public void afterNext(MethodExecutionContext executionContext) {
+        var pendente = estado.get().pendente;
+        if (pendente != null && Boolean.TRUE.equals(executionContext.getResult())) {
+            pendente.linhas++;
+        }
+    }
+
+    @Override
+    public void afterClose(MethodExecutionContext executionContext) {
+        publicarPendente(estado.get());
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+
+    private void publicarPendente(Estado atual) {
+        if (atual.pendente != null) {
+            publicar(atual.pendente);
+            atual.pendente = null;
+        }
+    }
+
+    private void publicar(Registro registro) {
+        executor.execute(() -> log.info("SQL {} {} ms, {} parâmetros, {} linhas: {}", registro.motivo,
+            String.format(Locale.ROOT, "%.3f", registro.duracaoNanos / 1_000_000.0), registro.parametros, registro.linhas, registro.sql));
+    }
+
+    private static String texto(List<QueryInfo> queryInfoList) {
+        if (queryInfoList.size() == 1) {
+            return queryInfoList.get(0).getQuery();
+        }
+        var texto = new StringBuilder();
+        for (QueryInfo queryInfo : queryInfoList) {
+            if (!texto.isEmpty()) {
+                texto.append("; ");
+            }
+            texto.append(queryInfo.getQuery());
+        }
+        return texto.toString();
+    }
+
+    // Parâmetros vinculados somados de todas as execuções do comando (uma por item em lotes)
+    private static int parametros(List<QueryInfo> queryInfoList) {
+        int parametros = 0;
+        for (QueryInfo queryInfo : queryInfoList) {
+            for (var execucao : queryInfo.getParametersList()) {
+                parametros += execucao.size();
+            }
+        }
+        return parametros;
+    }
+
+    private static final class Estado {
+        private long inicio;
+        private Registro pendente;
+    }
+
+    private static final class Registro {
+        private final String motivo;
+        private final String sql;
+        private final int parametros;
+        private final long duracaoNanos;
+        private long linhas;
+
+        private Registro(String motivo, String sql, int parametros, long duracaoNanos) {
+            this.motivo = motivo;
+            this.sql = sql;
+            this.parametros = parametros;
+            this.duracaoNanos = duracaoNanos;
+        }
+    }
+}
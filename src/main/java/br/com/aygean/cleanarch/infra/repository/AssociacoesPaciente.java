@@ -0,0 +1,14 @@
+package br.com.aygean.cleanarch.infra.repository;
+
+import java.time.LocalDate;
+
+// Projeção com os IDs das linhas de contato e endereço de um paciente e os campos contados nas estatísticas
+public interface AssociacoesPaciente {
+    Long getId();
+    Long getContatoId();
+    Long getEnderecoId();
+    String getGenero();
+    LocalDate getDataNascimento();
+    String getEstado();
+    String getCidade();
+}
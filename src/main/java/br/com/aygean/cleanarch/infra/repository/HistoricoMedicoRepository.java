@@ -0,0 +1,48 @@
+package br.com.aygean.cleanarch.infra.repository;
+
+import br.com.aygean.cleanarch.infra.entity.HistoricoMedicoEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface HistoricoMedicoRepository extends CrudRepository<HistoricoMedicoEntity, Long> {
+
+    // Consultas de vários pacientes em uma única consulta, agrupáveis pelo paciente
+    @Query("select h from HistoricoMedicoEntity h where h.paciente.id in ?1 order by h.paciente.id, h.id")
+    List<HistoricoMedicoEntity> findByPacienteIdIn(Collection<Long> pacienteIds);
+
+    // Consulta usada como cursor, desde que seja do paciente informado
+    @Query("select h from HistoricoMedicoEntity h where h.id = ?1 and h.paciente.id = ?2")
+    Optional<HistoricoMedicoEntity> findByIdAndPacienteId(Long id, Long pacienteId);
+
+    // Primeira página do histórico no período, da consulta mais recente para a mais antiga
+    @Query("""
+        select h from HistoricoMedicoEntity h
+        where h.paciente.id = :pacienteId and h.dataConsulta between :de and :ate
+        order by h.dataConsulta desc, h.id desc""")
+    List<HistoricoMedicoEntity> findPagina(@Param("pacienteId") Long pacienteId,
+                                           @Param("de") LocalDate de,
+                                           @Param("ate") LocalDate ate,
+                                           Limit limit);
+
+    // Páginas seguintes: busca pelo índice (paciente_id, dataConsulta, id) a partir da última consulta lida
+    @Query("""
+        select h from HistoricoMedicoEntity h
+        where h.paciente.id = :pacienteId and h.dataConsulta between :de and :ate
+          and (h.dataConsulta < :data or (h.dataConsulta = :data and h.id < :id))
+        order by h.dataConsulta desc, h.id desc""")
+    List<HistoricoMedicoEntity> findPaginaApos(@Param("pacienteId") Long pacienteId,
+                                               @Param("de") LocalDate de,
+                                               @Param("ate") LocalDate ate,
+                                               @Param("data") LocalDate data,
+                                               @Param("id") Long id,
+                                               Limit limit);
+}
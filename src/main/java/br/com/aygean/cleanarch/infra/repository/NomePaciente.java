@@ -0,0 +1,7 @@
+package br.com.aygean.cleanarch.infra.repository;
+
+// Projeção com apenas o ID e o nome do paciente
+public interface NomePaciente {
+    Long getId();
+    String getNome();
+}
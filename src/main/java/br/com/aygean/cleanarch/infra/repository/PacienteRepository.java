@@ -1,14 +1,77 @@
 package br.com.aygean.cleanarch.infra.repository;
 
 import br.com.aygean.cleanarch.infra.entity.PacienteEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface PacienteRepository extends CrudRepository<PacienteEntity, Long> {
-    @Query("select p from PacienteEntity p where upper(p.nome) like upper(?1)")
-    List<PacienteEntity> findByNome(String nome);
+public interface PacienteRepository extends CrudRepository<PacienteEntity, Long>, PacienteRepositoryProjecao {
+    // Contato e endereço vêm na mesma consulta; o histórico é carregado em lote
+    @EntityGraph(attributePaths = {"contato", "endereco"})
+    @Query("select p from PacienteEntity p where upper(p.nome) like upper(?1) order by p.id")
+    List<PacienteEntity> findByNome(String nome, Limit limit);
+
+    // Pacientes com os IDs informados, com contato e endereço na mesma consulta
+    @EntityGraph(attributePaths = {"contato", "endereco"})
+    @Query("select p from PacienteEntity p where p.id in ?1 order by p.id")
+    List<PacienteEntity> findByIdIn(Collection<Long> ids);
+
+    // Apenas ID e nome, em páginas por keyset, para montar o índice de nomes
+    @Query("select p.id as id, p.nome as nome from PacienteEntity p where p.id > ?1 order by p.id")
+    List<NomePaciente> findNomes(Long after, Limit limit);
+
+    // Paginação por keyset: busca pelo índice da chave primária a partir do cursor, sem OFFSET
+    @EntityGraph(attributePaths = {"contato", "endereco"})
+    List<PacienteEntity> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    // Carrega o paciente com contato e endereço, sem o histórico
+    @EntityGraph(attributePaths = {"contato", "endereco"})
+    @Query("select p from PacienteEntity p where p.id = ?1")
+    Optional<PacienteEntity> findSemHistoricoById(Long id);
+
+    // Apenas a versão do paciente, para responder If-None-Match sem carregar o paciente
+    @Query("select p.versao from PacienteEntity p where p.id = ?1")
+    Optional<Long> findVersaoById(Long id);
+
+    // Incrementa a versão sem carregar o paciente; retorna 0 quando o paciente não existe
+    @Modifying
+    @Query("update PacienteEntity p set p.versao = p.versao + 1 where p.id = ?1")
+    int incrementarVersao(Long id);
+
+    // Incrementa a versão somente se ainda for a esperada; retorna 0 quando outra gravação a alterou antes
+    @Modifying
+    @Query("update PacienteEntity p set p.versao = p.versao + 1 where p.id = ?1 and p.versao = ?2")
+    int incrementarVersao(Long id, Long versaoEsperada);
+
+    // IDs do contato e do endereço dos pacientes, necessários para removê-los depois dos pacientes, e os campos
+    // contados nas estatísticas, que saem das contagens com a remoção
+    @Query("select p.id as id, c.id as contatoId, e.id as enderecoId, p.genero as genero, p.dataNascimento as dataNascimento, "
+        + "e.estado as estado, e.cidade as cidade from PacienteEntity p left join p.contato c left join p.endereco e where p.id in ?1")
+    List<AssociacoesPaciente> findAssociacoes(Collection<Long> ids);
+
+    // Exclusões em massa, sem carregar as entidades; o histórico é removido pelo ON DELETE CASCADE
+    @Modifying
+    @Query("delete from PacienteEntity p where p.id in ?1")
+    int deleteByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from ContatoEntity c where c.id in ?1")
+    int deleteContatosByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from EnderecoEntity e where e.id in ?1")
+    int deleteEnderecosByIdIn(Collection<Long> ids);
+
+    // Carrega o paciente com todas as associações em uma única consulta
+    @Override
+    @EntityGraph(attributePaths = {"contato", "endereco", "historicoMedico"})
+    Optional<PacienteEntity> findById(Long id);
 }
@@ -0,0 +1,17 @@
+package br.com.aygean.cleanarch.infra.repository;
+
+import br.com.aygean.cleanarch.domain.CampoPaciente;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Limit;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+// Consultas que selecionam apenas as colunas dos campos pedidos. Cada tupla traz sempre o alias "id";
+// os demais aliases são os das colunas selecionadas, e contato e endereço trazem também "contatoId" e "enderecoId".
+public interface PacienteRepositoryProjecao {
+    List<Tuple> findProjecaoApos(Set<CampoPaciente> campos, Long after, Limit limit);
+    List<Tuple> findProjecaoPorNome(Set<CampoPaciente> campos, String nome, Limit limit);
+    List<Tuple> findProjecaoPorIds(Set<CampoPaciente> campos, Collection<Long> ids);
+}
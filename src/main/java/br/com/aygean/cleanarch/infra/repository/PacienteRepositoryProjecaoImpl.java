@@ -0,0 +1,79 @@
+package br.com.aygean.cleanarch.infra.repository;
+
+import br.com.aygean.cleanarch.domain.CampoPaciente;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import org.springframework.data.domain.Limit;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.StringJoiner;
+
+// Monta o JPQL a partir dos campos pedidos: só entram as colunas necessárias,
+// e as junções com contatos e enderecos só são feitas quando esses campos são pedidos
+public class PacienteRepositoryProjecaoImpl implements PacienteRepositoryProjecao {
+
+    private final EntityManager entityManager;
+
+    public PacienteRepositoryProjecaoImpl(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<Tuple> findProjecaoApos(Set<CampoPaciente> campos, Long after, Limit limit) {
+        return consulta(campos, "p.id > :after", limit)
+            .setParameter("after", after)
+            .getResultList();
+    }
+
+    @Override
+    public List<Tuple> findProjecaoPorNome(Set<CampoPaciente> campos, String nome, Limit limit) {
+        return consulta(campos, "upper(p.nome) like upper(:nome)", limit)
+            .setParameter("nome", nome)
+            .getResultList();
+    }
+
+    @Override
+    public List<Tuple> findProjecaoPorIds(Set<CampoPaciente> campos, Collection<Long> ids) {
+        return consulta(campos, "p.id in :ids", Limit.unlimited())
+            .setParameter("ids", ids)
+            .getResultList();
+    }
+
+    private TypedQuery<Tuple> consulta(Set<CampoPaciente> campos, String condicao, Limit limit) {
+        var colunas = new StringJoiner(", ");
+        var juncoes = new StringBuilder();
+
+        colunas.add("p.id as id");
+        if (campos.contains(CampoPaciente.VERSAO)) {
+            colunas.add("p.versao as versao");
+        }
+        if (campos.contains(CampoPaciente.NOME)) {
+            colunas.add("p.nome as nome");
+        }
+        if (campos.contains(CampoPaciente.DATA_NASCIMENTO)) {
+            colunas.add("p.dataNascimento as dataNascimento");
+        }
+        if (campos.contains(CampoPaciente.GENERO)) {
+            colunas.add("p.genero as genero");
+        }
+        if (campos.contains(CampoPaciente.CONTATO)) {
+            colunas.add("c.id as contatoId").add("c.telefone as telefone").add("c.email as email");
+            juncoes.append(" left join p.contato c");
+        }
+        if (campos.contains(CampoPaciente.ENDERECO)) {
+            colunas.add("e.id as enderecoId").add("e.rua as rua").add("e.numero as numero")
+                .add("e.cidade as cidade").add("e.estado as estado").add("e.cep as cep");
+            juncoes.append(" left join p.endereco e");
+        }
+
+        String jpql = "select " + colunas + " from PacienteEntity p" + juncoes + " where " + condicao + " order by p.id";
+        TypedQuery<Tuple> query = entityManager.createQuery(jpql, Tuple.class);
+        if (limit.isLimited()) {
+            query.setMaxResults(limit.max());
+        }
+        return query;
+    }
+}
@@ -0,0 +1,44 @@
+package br.com.aygean.cleanarch.infra.repository;
+
+import br.com.aygean.cleanarch.infra.entity.PacienteResumoEntity;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface PacienteResumoRepository extends CrudRepository<PacienteResumoEntity, Long> {
+    // Paginação por keyset sobre a chave primária, sem junções
+    List<PacienteResumoEntity> findByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    @Query("select r from PacienteResumoEntity r where r.id in ?1 order by r.id")
+    List<PacienteResumoEntity> findByIdIn(Collection<Long> ids);
+
+    // IDs que já têm resumo, para decidir entre INSERT e UPDATE na reconstrução
+    @Query("select r.id from PacienteResumoEntity r where r.id in ?1")
+    List<Long> findIdsByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from PacienteResumoEntity r where r.id in ?1")
+    int deleteByIdIn(Collection<Long> ids);
+
+    // Marca o documento como desatualizado sem reescrevê-lo
+    @Modifying
+    @Query("update PacienteResumoEntity r set r.desatualizado = true, r.versao = ?2 where r.id = ?1")
+    int marcarDesatualizado(Long id, Long versao);
+
+    // Grava o documento remontado só se nenhuma escrita o alterou ou marcou de novo depois da versão lida
+    @Modifying
+    @Query("update PacienteResumoEntity r set r.documento = ?2, r.desatualizado = false "
+        + "where r.id = ?1 and r.versao = ?3 and r.desatualizado = true")
+    int gravarRemontado(Long id, String documento, Long versao);
+
+    // Remove resumos de pacientes que não existem mais
+    @Modifying
+    @Query("delete from PacienteResumoEntity r where not exists (select p.id from PacienteEntity p where p.id = r.id)")
+    int deleteOrfaos();
+}
@@ -0,0 +1,257 @@
+package br.com.aygean.cleanarch.infra.service;
+
+import br.com.aygean.cleanarch.domain.AlteracaoPaciente;
+import br.com.aygean.cleanarch.domain.TipoAlteracao;
+import br.com.aygean.cleanarch.gateway.AlteracoesPacienteGateway;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+// Feed das alterações de pacientes. Cada alteração recebe um número de sequência e fica num buffer circular com as
+// últimas alterações, de onde cada assinante lê a partir da própria posição, e de onde um assinante que reconecta
+// recebe o que perdeu desde a última alteração recebida.
+// Quem grava não trava nada nem percorre os assinantes: reserva a sequência com um incremento atômico, escreve a
+// alteração na posição dela e acorda a thread de despacho, que agenda o envio aos assinantes num executor próprio.
+// Um assinante que fica mais atrasado que o limite é desligado e, ao reconectar, continua do buffer.
+// O id dos eventos junta um identificador desta instância à sequência: depois de um reinício o identificador muda, e
+// quem reconecta com um id da instância anterior é avisado da lacuna.
+public class AlteracoesPacienteGatewayImpl implements AlteracoesPacienteGateway, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(AlteracoesPacienteGatewayImpl.class);
+
+    // Quem recebe as alterações de uma assinatura; os métodos rodam nas threads do executor de envio
+    public interface Ouvinte {
+        // Parte das alterações seguintes à última recebida já saiu do buffer: o assinante precisa recarregar tudo
+        void lacuna() throws IOException;
+
+        void receber(AlteracaoPaciente alteracao) throws IOException;
+
+        // A assinatura foi desligada pelo feed (atraso acima do limite ou falha de envio)
+        void encerrada();
+    }
+
+    private final String instancia = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final AtomicReferenceArray<AlteracaoPaciente> buffer;
+    // Alterações publicadas e ainda não enviadas que um assinante pode acumular, além das reenviadas ao reconectar,
+    // antes de ser desligado
+    private final int capacidadeFilaAssinante;
+    private final AtomicLong ultimaSequencia = new AtomicLong();
+    private final ExecutorService envio;
+    private final Thread despacho;
+    private volatile boolean encerrado;
+    private final List<Assinatura> assinaturas = new CopyOnWriteArrayList<>();
+    private final Counter desligados;
+
+    public AlteracoesPacienteGatewayImpl(int tamanhoBuffer, int capacidadeFilaAssinante, int threadsEnvio,
+                                         MeterRegistry registry) {
+        this.buffer = new AtomicReferenceArray<>(tamanhoBuffer);
+        this.capacidadeFilaAssinante = capacidadeFilaAssinante;
+        var contador = new AtomicInteger();
+        this.envio = Executors.newFixedThreadPool(threadsEnvio, r -> {
+            var thread = new Thread(r, "paciente-alteracoes-" + contador.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.desligados = Counter.builder("pacientes.alteracoes.desligados")
+            .description("Assinantes do feed de alterações desligados por não acompanharem as alterações")
+            .register(registry);
+        Gauge.builder("pacientes.alteracoes.assinantes", assinaturas, List::size)
+            .description("Assinantes conectados ao feed de alterações")
+            .register(registry);
+        this.despacho = new Thread(this::despachar, "paciente-alteracoes-despacho");
+        despacho.setDaemon(true);
+        despacho.start();
+    }
+
+    @Override
+    public void publicar(TipoAlteracao tipo, Long pacienteId, Long versao) {
+        long sequencia = ultimaSequencia.incrementAndGet();
+        buffer.set(posicao(sequencia), new AlteracaoPaciente(sequencia, tipo, pacienteId, versao, Instant.now()));
+        LockSupport.unpark(despacho);
+    }
+
+    // Id do evento de uma alteração, informado pelo assinante ao reconectar
+    public String idEvento(AlteracaoPaciente alteracao) {
+        return instancia + "-" + alteracao.getSequencia();
+    }
+
+    // Assina as alterações seguintes à do id de evento informado (ou, sem ele, as próximas alterações). Um id de outra
+    // instância, inválido ou cuja alteração seguinte já saiu do buffer é avisado como lacuna.
+    public Assinatura assinar(String ultimoIdEvento, Ouvinte ouvinte) {
+        long ultima = ultimaSequencia.get();
+        long primeiraNoBuffer = Math.max(1, ultima - buffer.length() + 1);
+        Long ultimaRecebida = ultimoIdEvento != null ? sequenciaDesta(ultimoIdEvento) : null;
+        boolean lacuna = ultimoIdEvento != null
+            && (ultimaRecebida == null || ultimaRecebida > ultima || ultimaRecebida + 1 < primeiraNoBuffer);
+
+        long proxima = ultimoIdEvento == null || lacuna ? ultima + 1 : ultimaRecebida + 1;
+        var assinatura = new Assinatura(ouvinte, proxima, capacidadeFilaAssinante + ultima - proxima + 1, lacuna);
+        assinaturas.add(assinatura);
+        agendar(assinatura);
+        return assinatura;
+    }
+
+    public int assinantes() {
+        return assinaturas.size();
+    }
+
+    @Override
+    public void close() {
+        encerrado = true;
+        despacho.interrupt();
+        envio.shutdownNow();
+    }
+
+    private int posicao(long sequencia) {
+        return (int) Math.floorMod(sequencia, (long) buffer.length());
+    }
+
+    // Sequência de um id de evento desta instância; null para ids de outra instância ou inválidos
+    private Long sequenciaDesta(String idEvento) {
+        int separador = idEvento.lastIndexOf('-');
+        if (separador < 0 || !idEvento.substring(0, separador).equals(instancia)) {
+            return null;
+        }
+        try {
+            return Long.parseLong(idEvento.substring(separador + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Acordada a cada publicação; publicações seguidas acordam uma vez só e são enviadas juntas
+    private void despachar() {
+        while (!encerrado) {
+            LockSupport.park(this);
+            long ultima = ultimaSequencia.get();
+            for (Assinatura assinatura : assinaturas) {
+                try {
+                    if (ultima - assinatura.proxima >= assinatura.atrasoMaximo) {
+                        // Assinante lento: desliga em vez de acumular alterações para ele
+                        desligarAtrasada(assinatura);
+                    } else {
+                        agendar(assinatura);
+                    }
+                } catch (RuntimeException e) {
+                    // O despacho atende todos os assinantes; a falha de um não pode interrompê-lo
+                    log.warn("Falha ao despachar alterações de pacientes a um assinante: {}", e.getMessage());
+                }
+            }
+        }
+    }
+
+    private boolean pendente(Assinatura assinatura) {
+        if (assinatura.lacuna) {
+            return true;
+        }
+        var alteracao = buffer.get(posicao(assinatura.proxima));
+        return alteracao != null && alteracao.getSequencia() >= assinatura.proxima;
+    }
+
+    private void agendar(Assinatura assinatura) {
+        if (assinatura.ativa && pendente(assinatura) && assinatura.agendada.compareAndSet(false, true)) {
+            try {
+                envio.execute(() -> enviar(assinatura));
+            } catch (RejectedExecutionException e) {
+                assinatura.agendada.set(false);
+            }
+        }
+    }
+
+    // Envia as alterações a partir da posição do assinante até a primeira ainda não escrita no buffer (uma sequência
+    // reservada por uma gravação que ainda não terminou de escrevê-la)
+    private void enviar(Assinatura assinatura) {
+        try {
+            if (assinatura.lacuna) {
+                assinatura.lacuna = false;
+                assinatura.ouvinte.lacuna();
+            }
+            while (assinatura.ativa) {
+                var alteracao = buffer.get(posicao(assinatura.proxima));
+                if (alteracao == null || alteracao.getSequencia() < assinatura.proxima) {
+                    break;
+                }
+                if (alteracao.getSequencia() > assinatura.proxima) {
+                    // A posição já foi reescrita: o assinante ficou para trás do buffer inteiro
+                    desligarAtrasada(assinatura);
+                    break;
+                }
+                assinatura.ouvinte.receber(alteracao);
+                assinatura.proxima++;
+            }
+        } catch (IOException | RuntimeException e) {
+            log.debug("Falha ao enviar alterações de pacientes a um assinante: {}", e.getMessage());
+            desligar(assinatura);
+        } finally {
+            // Uma alteração escrita depois da última leitura acima encontra a assinatura já livre para agendar
+            assinatura.agendada.set(false);
+            agendar(assinatura);
+        }
+    }
+
+    private void desligarAtrasada(Assinatura assinatura) {
+        if (desligar(assinatura)) {
+            desligados.increment();
+        }
+    }
+
+    private boolean desligar(Assinatura assinatura) {
+        if (!assinatura.encerrar()) {
+            return false;
+        }
+        try {
+            envio.execute(assinatura.ouvinte::encerrada);
+        } catch (RejectedExecutionException e) {
+            assinatura.ouvinte.encerrada();
+        }
+        return true;
+    }
+
+    public final class Assinatura {
+
+        private final Ouvinte ouvinte;
+        private final AtomicBoolean agendada = new AtomicBoolean();
+        private final long atrasoMaximo;
+        // Próxima sequência a enviar; só o envio em andamento (um por vez) a altera
+        private volatile long proxima;
+        private volatile boolean lacuna;
+        private volatile boolean ativa = true;
+
+        private Assinatura(Ouvinte ouvinte, long proxima, long atrasoMaximo, boolean lacuna) {
+            this.ouvinte = ouvinte;
+            this.proxima = proxima;
+            this.atrasoMaximo = atrasoMaximo;
+            this.lacuna = lacuna;
+        }
+
+        // Encerrada pelo assinante (desconexão, timeout): apenas deixa de receber
+        public void cancelar() {
+            encerrar();
+        }
+
+        private synchronized boolean encerrar() {
+            if (!ativa) {
+                return false;
+            }
+            ativa = false;
+            assinaturas.remove(this);
+            return true;
+        }
+    }
+}
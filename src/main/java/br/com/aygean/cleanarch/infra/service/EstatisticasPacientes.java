@@ -0,0 +1,140 @@
+package br.com.aygean.cleanarch.infra.service;
+
+import br.com.aygean.cleanarch.domain.CampoPaciente;
+import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import br.com.aygean.cleanarch.infra.datasource.LeituraPrincipal;
+import br.com.aygean.cleanarch.infra.dto.EstatisticasPacientesDTO;
+import br.com.aygean.cleanarch.infra.index.ContagensPacientes;
+import br.com.aygean.cleanarch.infra.index.ContagensPacientes.Perfil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Contagens de pacientes por estado, cidade, gênero e faixa etária. As gravações ajustam as contagens no
+// PacienteGatewayImpl, que já carrega o perfil anterior de cada paciente; aqui elas são montadas na inicialização e
+// reconciliadas periodicamente com o banco, para corrigir desvios (gravações feitas por fora, falhas no meio).
+public class EstatisticasPacientes implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(EstatisticasPacientes.class);
+    private static final int TAMANHO_BLOCO = 1_000;
+    private static final Set<CampoPaciente> CAMPOS_CONTADOS =
+        EnumSet.of(CampoPaciente.ID, CampoPaciente.GENERO, CampoPaciente.DATA_NASCIMENTO, CampoPaciente.ENDERECO);
+    private static final int[] INICIOS_FAIXAS_ETARIAS = {0, 18, 30, 45, 60};
+
+    private final PacienteGateway pacienteGateway;
+    private final ContagensPacientes contagens;
+    private final int threadsLeitura;
+    private final ScheduledExecutorService agendador;
+
+    public EstatisticasPacientes(PacienteGateway pacienteGateway, ContagensPacientes contagens, int threadsLeitura,
+                                 Duration intervaloReconciliacao) {
+        this.pacienteGateway = pacienteGateway;
+        this.contagens = contagens;
+        this.threadsLeitura = threadsLeitura;
+        this.agendador = Executors.newSingleThreadScheduledExecutor(r -> {
+            var thread = new Thread(r, "paciente-estatisticas");
+            thread.setDaemon(true);
+            return thread;
+        });
+        agendador.scheduleWithFixedDelay(this::reconciliarAgendado, intervaloReconciliacao.toMillis(),
+            intervaloReconciliacao.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public EstatisticasPacientesDTO estatisticas() {
+        return new EstatisticasPacientesDTO(
+            contagens.total(),
+            contagens.porGenero(),
+            contagens.porFaixaEtaria(LocalDate.now(), INICIOS_FAIXAS_ETARIAS),
+            contagens.porEstado(),
+            contagens.porCidade());
+    }
+
+    // Lê do banco os campos contados de todos os pacientes, em blocos paralelos, e troca as contagens em memória pelas
+    // lidas; devolve quantos grupos estavam errados. Na inicialização as contagens estão vazias e todos os grupos entram
+    // como correção. A leitura é feita no banco principal: uma réplica atrasada desfaria nas contagens as gravações
+    // ainda não replicadas.
+    public synchronized int reconciliar() {
+        long inicio = System.nanoTime();
+        var reconciliacao = contagens.iniciarReconciliacao();
+        var contador = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threadsLeitura,
+            r -> new Thread(r, "paciente-estatisticas-leitura-" + contador.incrementAndGet()));
+        try {
+            var blocos = new ArrayList<Future<?>>();
+            Long cursor = null;
+            do {
+                Long after = cursor;
+                var pagina = LeituraPrincipal.executar(
+                    () -> pacienteGateway.listarPacientes(after, TAMANHO_BLOCO, EnumSet.of(CampoPaciente.ID)));
+                var ids = pagina.getItens().stream().map(Paciente::getId).toList();
+                if (!ids.isEmpty()) {
+                    blocos.add(executor.submit(() -> {
+                        var pacientes = LeituraPrincipal.executar(
+                            () -> pacienteGateway.buscarPacientesPorIds(ids, CAMPOS_CONTADOS));
+                        reconciliacao.contarBloco(ids.get(0), ids.get(ids.size() - 1), perfis(pacientes));
+                    }));
+                }
+                cursor = pagina.getProximoCursor();
+            } while (cursor != null);
+            for (Future<?> bloco : blocos) {
+                bloco.get();
+            }
+
+            int corrigidos = reconciliacao.concluir();
+            log.info("Estatísticas de pacientes reconciliadas com {} pacientes em {} ms ({} grupos corrigidos)",
+                contagens.total(), (System.nanoTime() - inicio) / 1_000_000, corrigidos);
+            return corrigidos;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconciliação das estatísticas de pacientes interrompida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha ao reconciliar as estatísticas de pacientes", e.getCause());
+        } finally {
+            reconciliacao.cancelar();
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public void close() {
+        agendador.shutdownNow();
+    }
+
+    private void reconciliarAgendado() {
+        try {
+            reconciliar();
+        } catch (RuntimeException e) {
+            // Mantém o agendamento; a próxima reconciliação tenta de novo
+            log.warn("Falha na reconciliação das estatísticas de pacientes: {}", e.getMessage());
+        }
+    }
+
+    private static Map<Long, Perfil> perfis(List<Paciente> pacientes) {
+        var perfis = new HashMap<Long, Perfil>(pacientes.size() * 2);
+        for (Paciente paciente : pacientes) {
+            var endereco = paciente.getEndereco();
+            perfis.put(paciente.getId(), new Perfil(
+                endereco != null ? endereco.getEstado() : null,
+                endereco != null ? endereco.getCidade() : null,
+                paciente.getGenero(),
+                paciente.getDataNascimento()));
+        }
+        return perfis;
+    }
+}
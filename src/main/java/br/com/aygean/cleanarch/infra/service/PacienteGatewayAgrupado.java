@@ -0,0 +1,300 @@
+package br.com.aygean.cleanarch.infra.service;
+
+import br.com.aygean.cleanarch.domain.CampoPaciente;
+import br.com.aygean.cleanarch.domain.HistoricoAdicionado;
+import br.com.aygean.cleanarch.domain.HistoricoMedico;
+import br.com.aygean.cleanarch.domain.Pagina;
+import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import br.com.aygean.cleanarch.infra.exception.ResultadoIndefinidoException;
+import br.com.aygean.cleanarch.infra.exception.SobrecargaException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+// Decorador de PacienteGateway que agrupa os cadastros simultâneos de pacientes.
+// Cada adicionarPaciente entra numa fila limitada; uma thread gravadora junta os pedidos até completar um lote
+// ou até a espera máxima vencer desde o primeiro pedido, e grava o lote com adicionarPacientes, numa única
+// transação e em lote JDBC. Quem chamou recebe o próprio paciente gravado.
+// Com a fila cheia o cadastro é recusado (503) em vez de acumular requisições esperando. Um pedido que continua na fila
+// depois da espera do lote mais o tempo de gravação é retirado dela e recusado (503); um pedido que a gravadora já pegou
+// é aguardado até o fim do lote, e só depois de um limite maior o resultado é dado como indefinido (504), já que o
+// paciente pode ter sido gravado. Se a gravadora parar, os pedidos pendentes falham em vez de esperar.
+public class PacienteGatewayAgrupado implements PacienteGateway, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PacienteGatewayAgrupado.class);
+
+    private final PacienteGateway delegate;
+    private final int tamanhoLote;
+    private final long esperaMaximaNanos;
+    private final long esperaRespostaNanos;
+    private final long esperaLoteNanos;
+    private final BlockingQueue<Pedido> fila;
+    private final Thread gravadora;
+    private final DistributionSummary tamanhoLotes;
+    private final Counter recusados;
+    private volatile boolean encerrado;
+
+    public PacienteGatewayAgrupado(PacienteGateway delegate, int tamanhoLote, Duration esperaMaxima, int capacidadeFila,
+                                   Duration timeoutGravacao, Duration timeoutResultado, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.tamanhoLote = tamanhoLote;
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+        this.esperaRespostaNanos = esperaMaxima.plus(timeoutGravacao).toNanos();
+        this.esperaLoteNanos = timeoutResultado.toNanos();
+        this.fila = new ArrayBlockingQueue<>(capacidadeFila);
+        this.tamanhoLotes = DistributionSummary.builder("pacientes.agrupamento.lote")
+            .description("Pacientes gravados por lote agrupado")
+            .register(registry);
+        this.recusados = Counter.builder("pacientes.agrupamento.recusados")
+            .description("Cadastros recusados com a fila de agrupamento cheia")
+            .register(registry);
+        Gauge.builder("pacientes.agrupamento.fila", fila, BlockingQueue::size)
+            .description("Cadastros aguardando gravação")
+            .register(registry);
+        this.gravadora = new Thread(this::gravar, "paciente-agrupamento");
+        this.gravadora.setDaemon(true);
+        this.gravadora.start();
+    }
+
+    @Override
+    public Paciente adicionarPaciente(Paciente paciente) {
+        var pedido = enfileirarPedido(paciente);
+        try {
+            try {
+                return pedido.resultado().get(esperaRespostaNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                // Ainda na fila, o pedido é retirado e não será gravado
+                if (fila.remove(pedido)) {
+                    throw new SobrecargaException("Cadastro de paciente não iniciado no tempo esperado");
+                }
+            }
+            // A gravadora já pegou o pedido: a gravação termina com ou sem quem chamou, que espera pelo resultado dela
+            try {
+                return pedido.resultado().get(esperaLoteNanos, TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                throw new ResultadoIndefinidoException(
+                    "Gravação do cadastro de paciente em andamento além do tempo esperado; consulte antes de repetir");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            if (fila.remove(pedido)) {
+                throw new SobrecargaException("Requisição interrompida enquanto aguardava o cadastro do paciente");
+            }
+            throw new ResultadoIndefinidoException("Requisição interrompida durante a gravação do cadastro do paciente");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw new IllegalStateException("Falha ao cadastrar o paciente", e.getCause());
+        }
+    }
+
+    // Coloca o paciente na fila de gravação; o futuro é completado com o paciente gravado
+    public CompletableFuture<Paciente> enfileirar(Paciente paciente) {
+        return enfileirarPedido(paciente).resultado();
+    }
+
+    private Pedido enfileirarPedido(Paciente paciente) {
+        var pedido = new Pedido(paciente, new CompletableFuture<>());
+        if (encerrado || !fila.offer(pedido)) {
+            recusados.increment();
+            throw new SobrecargaException("Fila de cadastro de pacientes cheia no momento");
+        }
+        // A gravadora pode ter parado entre a verificação e a inclusão, depois de falhar os pendentes
+        if (encerrado && fila.remove(pedido)) {
+            throw new SobrecargaException("Cadastro de pacientes encerrado");
+        }
+        return pedido;
+    }
+
+    @Override
+    public void close() {
+        encerrado = true;
+        gravadora.interrupt();
+        try {
+            gravadora.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Pedidos que chegaram depois do último lote
+        falharPendentes(List.of(), "Aplicação em encerramento");
+    }
+
+    private void gravar() {
+        List<Pedido> lote = new ArrayList<>(tamanhoLote);
+        try {
+            gravarLotes(lote);
+        } finally {
+            // Encerramento ou erro inesperado na gravadora: ninguém mais gravará os pedidos pendentes
+            if (!encerrado) {
+                log.error("Gravadora de cadastros de pacientes parou; os cadastros passam a ser recusados");
+            }
+            encerrado = true;
+            falharPendentes(lote, "Gravação de cadastros de pacientes encerrada");
+        }
+    }
+
+    private void falharPendentes(List<Pedido> lote, String mensagem) {
+        var erro = new SobrecargaException(mensagem);
+        lote.forEach(pedido -> pedido.resultado().completeExceptionally(erro));
+        Pedido pedido;
+        while ((pedido = fila.poll()) != null) {
+            pedido.resultado().completeExceptionally(erro);
+        }
+    }
+
+    private void gravarLotes(List<Pedido> lote) {
+        while (!encerrado) {
+            try {
+                lote.add(fila.take());
+                long limite = System.nanoTime() + esperaMaximaNanos;
+                while (lote.size() < tamanhoLote) {
+                    // Pega de uma vez o que já está na fila e só espera quando ela esvazia
+                    if (fila.drainTo(lote, tamanhoLote - lote.size()) > 0) {
+                        continue;
+                    }
+                    long restante = limite - System.nanoTime();
+                    Pedido proximo = restante > 0 ? fila.poll(restante, TimeUnit.NANOSECONDS) : null;
+                    if (proximo == null) {
+                        break;
+                    }
+                    lote.add(proximo);
+                }
+            } catch (InterruptedException e) {
+                // Encerramento: grava o que já foi retirado da fila
+                encerrado = true;
+            }
+            if (!lote.isEmpty()) {
+                gravarLote(lote);
+                lote.clear();
+            }
+        }
+    }
+
+    private void gravarLote(List<Pedido> lote) {
+        tamanhoLotes.record(lote.size());
+        try {
+            List<Paciente> salvos = delegate.adicionarPacientes(lote.stream().map(Pedido::paciente).toList());
+            for (int i = 0; i < lote.size(); i++) {
+                lote.get(i).resultado().complete(salvos.get(i));
+            }
+        } catch (RuntimeException e) {
+            // Um paciente inválido desfaz o lote inteiro: grava um a um para que só ele receba o erro
+            log.warn("Falha ao gravar lote de {} pacientes; gravando individualmente", lote.size(), e);
+            for (Pedido pedido : lote) {
+                try {
+                    pedido.resultado().complete(delegate.adicionarPaciente(pedido.paciente()));
+                } catch (RuntimeException erro) {
+                    pedido.resultado().completeExceptionally(erro);
+                }
+            }
+        }
+    }
+
+    @Override
+    public Pagina<Paciente> listarPacientes(Long after, int limit) {
+        return delegate.listarPacientes(after, limit);
+    }
+
+    @Override
+    public Pagina<Paciente> listarPacientes(Long after, int limit, Set<CampoPaciente> campos) {
+        return delegate.listarPacientes(after, limit, campos);
+    }
+
+    @Override
+    public List<Paciente> adicionarPacientes(List<Paciente> pacientes) {
+        return delegate.adicionarPacientes(pacientes);
+    }
+
+    @Override
+    public Optional<Paciente> buscarPacientePorId(Long id) {
+        return delegate.buscarPacientePorId(id);
+    }
+
+    @Override
+    public Optional<Paciente> buscarPacientePorId(Long id, Set<CampoPaciente> campos) {
+        return delegate.buscarPacientePorId(id, campos);
+    }
+
+    @Override
+    public List<Paciente> buscarPacientesPorIds(List<Long> ids) {
+        return delegate.buscarPacientesPorIds(ids);
+    }
+
+    @Override
+    public List<Paciente> buscarPacientesPorIds(List<Long> ids, Set<CampoPaciente> campos) {
+        return delegate.buscarPacientesPorIds(ids, campos);
+    }
+
+    @Override
+    public Optional<Paciente> atualizarPaciente(Paciente paciente) {
+        return delegate.atualizarPaciente(paciente);
+    }
+
+    @Override
+    public Optional<Paciente> atualizarPacienteParcialmente(Long id, Map<String, Object> alteracoes, Long versaoEsperada) {
+        return delegate.atualizarPacienteParcialmente(id, alteracoes, versaoEsperada);
+    }
+
+    @Override
+    public Optional<Long> buscarVersaoPaciente(Long id) {
+        return delegate.buscarVersaoPaciente(id);
+    }
+
+    @Override
+    public Optional<List<Paciente>> buscarPacientes(String nome, int limit) {
+        return delegate.buscarPacientes(nome, limit);
+    }
+
+    @Override
+    public Optional<List<Paciente>> buscarPacientes(String nome, int limit, Set<CampoPaciente> campos) {
+        return delegate.buscarPacientes(nome, limit, campos);
+    }
+
+    @Override
+    public List<Long> deletarPacientes(List<Long> ids) {
+        return delegate.deletarPacientes(ids);
+    }
+
+    @Override
+    public Optional<HistoricoAdicionado> adicionarHistorico(Long pacienteId, HistoricoMedico historico, Long versaoEsperada) {
+        return delegate.adicionarHistorico(pacienteId, historico, versaoEsperada);
+    }
+
+    @Override
+    public Optional<Pagina<HistoricoMedico>> listarHistorico(Long pacienteId, LocalDate de, LocalDate ate, Long after, int limit) {
+        return delegate.listarHistorico(pacienteId, de, ate, after, limit);
+    }
+
+    @Override
+    public Optional<Paciente> buscarPacienteComConsultasRecentes(Long id, int consultas) {
+        return delegate.buscarPacienteComConsultasRecentes(id, consultas);
+    }
+
+    @Override
+    public void exportarPacientes(Consumer<Paciente> consumidor) {
+        delegate.exportarPacientes(consumidor);
+    }
+
+    private record Pedido(Paciente paciente, CompletableFuture<Paciente> resultado) {
+    }
+}
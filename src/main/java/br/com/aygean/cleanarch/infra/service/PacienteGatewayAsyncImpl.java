@@ -0,0 +1,85 @@
+package br.com.aygean.cleanarch.infra.service;
+
+import br.com.aygean.cleanarch.domain.Pagina;
+import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import br.com.aygean.cleanarch.gateway.PacienteGatewayAsync;
+import br.com.aygean.cleanarch.infra.exception.SobrecargaException;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Implementação assíncrona de PacienteGatewayAsync: cada chamada ao gateway síncrono roda em um
+// executor dedicado e limitado, liberando a thread de quem chamou enquanto a consulta é executada.
+public class PacienteGatewayAsyncImpl implements PacienteGatewayAsync, AutoCloseable {
+
+    private final PacienteGateway gateway;
+    private final ThreadPoolExecutor executor;
+
+    public PacienteGatewayAsyncImpl(PacienteGateway gateway, int threads, int fila) {
+        this.gateway = gateway;
+        var contador = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(fila),
+            r -> new Thread(r, "paciente-async-" + contador.incrementAndGet()),
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public CompletableFuture<Pagina<Paciente>> listarPacientes(Long after, int limit) {
+        return executar(() -> gateway.listarPacientes(after, limit));
+    }
+
+    @Override
+    public CompletableFuture<Paciente> adicionarPaciente(Paciente paciente) {
+        return executar(() -> gateway.adicionarPaciente(paciente));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Paciente>> buscarPacientePorId(Long id) {
+        return executar(() -> gateway.buscarPacientePorId(id));
+    }
+
+    @Override
+    public CompletableFuture<List<Paciente>> buscarPacientesPorIds(List<Long> ids) {
+        return executar(() -> gateway.buscarPacientesPorIds(ids));
+    }
+
+    @Override
+    public CompletableFuture<Optional<Paciente>> atualizarPaciente(Paciente paciente) {
+        return executar(() -> gateway.atualizarPaciente(paciente));
+    }
+
+    @Override
+    public CompletableFuture<Optional<List<Paciente>>> buscarPacientes(String nome, int limit) {
+        return executar(() -> gateway.buscarPacientes(nome, limit));
+    }
+
+    @Override
+    public CompletableFuture<List<Long>> deletarPacientes(List<Long> ids) {
+        return executar(() -> gateway.deletarPacientes(ids));
+    }
+
+    // Encerra o executor aguardando as operações em andamento
+    @Override
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private <T> CompletableFuture<T> executar(Supplier<T> chamada) {
+        try {
+            return CompletableFuture.supplyAsync(chamada, executor);
+        } catch (RejectedExecutionException e) {
+            // Fila do executor cheia: falha imediatamente em vez de bloquear quem chamou
+            return CompletableFuture.failedFuture(new SobrecargaException("Fila de operações assíncronas cheia"));
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package br.com.aygean.cleanarch.infra.service;
+
+import br.com.aygean.cleanarch.domain.CampoPaciente;
+import br.com.aygean.cleanarch.domain.HistoricoAdicionado;
+import br.com.aygean.cleanarch.domain.HistoricoMedico;
+import br.com.aygean.cleanarch.domain.Pagina;
+import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import br.com.aygean.cleanarch.infra.datasource.LeituraPrincipal;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Decorador de PacienteGateway que mantém em memória os pacientes buscados por ID.
+// O Caffeine usa a política W-TinyLFU para remoção e garante uma única carga por chave
+// quando várias requisições procuram o mesmo paciente ao mesmo tempo.
+// Pacientes alterados há menos que a janela de leitura própria são recarregados do banco principal, e não da
+// réplica de leitura, para que quem gravou leia a própria gravação e o cache não guarde uma versão atrasada.
+public class PacienteGatewayCache implements PacienteGateway {
+
+    private final PacienteGateway delegate;
+    private final Cache<Long, Paciente> cache;
+    private final Cache<Long, Boolean> alteradosRecentemente;
+
+    public PacienteGatewayCache(PacienteGateway delegate, long tamanhoMaximo, Duration ttl, Duration janelaLeituraPropria) {
+        this.delegate = delegate;
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(tamanhoMaximo)
+            .expireAfterWrite(ttl)
+            .recordStats()
+            .build();
+        this.alteradosRecentemente = Caffeine.newBuilder()
+            .maximumSize(tamanhoMaximo)
+            .expireAfterWrite(janelaLeituraPropria)
+            .build();
+    }
+
+    @Override
+    public Pagina<Paciente> listarPacientes(Long after, int limit) {
+        return delegate.listarPacientes(after, limit);
+    }
+
+    @Override
+    public Pagina<Paciente> listarPacientes(Long after, int limit, Set<CampoPaciente> campos) {
+        return delegate.listarPacientes(after, limit, campos);
+    }
+
+    @Override
+    public Paciente adicionarPaciente(Paciente paciente) {
+        var pacienteSalvo = delegate.adicionarPaciente(paciente);
+        invalidar(pacienteSalvo.getId());
+        return pacienteSalvo;
+    }
+
+    @Override
+    public List<Paciente> adicionarPacientes(List<Paciente> pacientes) {
+        var pacientesSalvos = delegate.adicionarPacientes(pacientes);
+        pacientesSalvos.forEach(paciente -> invalidar(paciente.getId()));
+        return pacientesSalvos;
+    }
+
+    @Override
+    public Optional<Paciente> buscarPacientePorId(Long id) {
+        // Pacientes inexistentes não são guardados: o carregamento devolve null
+        return Optional.ofNullable(cache.get(id, chave -> ler(List.of(chave), () -> delegate.buscarPacientePorId(chave)).orElse(null)));
+    }
+
+    @Override
+    public Optional<Paciente> buscarPacientePorId(Long id, Set<CampoPaciente> campos) {
+        return delegate.buscarPacientePorId(id, campos);
+    }
+
+    @Override
+    public List<Paciente> buscarPacientesPorIds(List<Long> ids, Set<CampoPaciente> campos) {
+        return delegate.buscarPacientesPorIds(ids, campos);
+    }
+
+    @Override
+    public List<Paciente> buscarPacientesPorIds(List<Long> ids) {
+        // Os pacientes já em cache são reaproveitados e os demais são carregados juntos em uma única chamada
+        return List.copyOf(cache.getAll(ids, faltantes -> {
+            var carregados = new HashMap<Long, Paciente>();
+            List<Long> idsFaltantes = List.copyOf(faltantes);
+            for (Paciente paciente : ler(idsFaltantes, () -> delegate.buscarPacientesPorIds(idsFaltantes))) {
+                carregados.put(paciente.getId(), paciente);
+            }
+            return carregados;
+        }).values());
+    }
+
+    @Override
+    public Optional<Paciente> atualizarPaciente(Paciente paciente) {
+        marcarAlterado(paciente.getId());
+        try {
+            return delegate.atualizarPaciente(paciente);
+        } finally {
+            invalidar(paciente.getId());
+        }
+    }
+
+    @Override
+    public Optional<Paciente> atualizarPacienteParcialmente(Long id, Map<String, Object> alteracoes, Long versaoEsperada) {
+        marcarAlterado(id);
+        try {
+            return delegate.atualizarPacienteParcialmente(id, alteracoes, versaoEsperada);
+        } finally {
+            invalidar(id);
+        }
+    }
+
+    @Override
+    public Optional<List<Paciente>> buscarPacientes(String nome, int limit, Set<CampoPaciente> campos) {
+        return delegate.buscarPacientes(nome, limit, campos);
+    }
+
+    @Override
+    public Optional<List<Paciente>> buscarPacientes(String nome, int limit) {
+        return delegate.buscarPacientes(nome, limit);
+    }
+
+    @Override
+    public List<Long> deletarPacientes(List<Long> ids) {
+        ids.forEach(this::marcarAlterado);
+        try {
+            return delegate.deletarPacientes(ids);
+        } finally {
+            ids.forEach(this::invalidar);
+        }
+    }
+
+    @Override
+    public Optional<Long> buscarVersaoPaciente(Long id) {
+        // Com o paciente em cache a versão vem da memória, sem consulta ao banco
+        Paciente emCache = cache.getIfPresent(id);
+        if (emCache != null) {
+            return Optional.ofNullable(emCache.getVersao());
+        }
+        return ler(List.of(id), () -> delegate.buscarVersaoPaciente(id));
+    }
+
+    @Override
+    public Optional<HistoricoAdicionado> adicionarHistorico(Long pacienteId, HistoricoMedico historico, Long versaoEsperada) {
+        marcarAlterado(pacienteId);
+        try {
+            return delegate.adicionarHistorico(pacienteId, historico, versaoEsperada);
+        } finally {
+            invalidar(pacienteId);
+        }
+    }
+
+    @Override
+    public Optional<Pagina<HistoricoMedico>> listarHistorico(Long pacienteId, LocalDate de, LocalDate ate, Long after, int limit) {
+        return delegate.listarHistorico(pacienteId, de, ate, after, limit);
+    }
+
+    @Override
+    public Optional<Paciente> buscarPacienteComConsultasRecentes(Long id, int consultas) {
+        return delegate.buscarPacienteComConsultasRecentes(id, consultas);
+    }
+
+    @Override
+    public void exportarPacientes(Consumer<Paciente> consumidor) {
+        delegate.exportarPacientes(consumidor);
+    }
+
+    // A marca vem antes da gravação e da remoção do cache: uma leitura que carregue o paciente nesse meio tempo já
+    // vai ao banco principal, e não guarda no cache uma versão da réplica anterior à gravação
+    private void marcarAlterado(Long id) {
+        alteradosRecentemente.put(id, Boolean.TRUE);
+    }
+
+    // Depois da gravação: renova a janela de leitura própria a partir do fim dela e remove a versão anterior do cache
+    private void invalidar(Long id) {
+        marcarAlterado(id);
+        cache.invalidate(id);
+    }
+
+    // Lê do banco principal quando algum dos pacientes foi alterado dentro da janela de leitura própria
+    private <T> T ler(List<Long> ids, Supplier<T> leitura) {
+        for (Long id : ids) {
+            if (alteradosRecentemente.getIfPresent(id) != null) {
+                return LeituraPrincipal.executar(leitura);
+            }
+        }
+        return leitura.get();
+    }
+
+    // Estatísticas de acertos, falhas e remoções do cache
+    public CacheStats estatisticas() {
+        return cache.stats();
+    }
+
+    public long tamanho() {
+        return cache.estimatedSize();
+    }
+}
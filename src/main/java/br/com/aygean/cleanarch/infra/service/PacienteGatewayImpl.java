@@ -1,75 +1,467 @@
 package br.com.aygean.cleanarch.infra.service;
 
+import br.com.aygean.cleanarch.domain.CampoPaciente;
+import br.com.aygean.cleanarch.domain.HistoricoAdicionado;
+import br.com.aygean.cleanarch.domain.HistoricoMedico;
+import br.com.aygean.cleanarch.domain.Pagina;
 import br.com.aygean.cleanarch.domain.Paciente;
 import br.com.aygean.cleanarch.gateway.PacienteGateway;
 import br.com.aygean.cleanarch.infra.converter.PacienteConverter;
+import br.com.aygean.cleanarch.infra.converter.PacienteMergePatch;
+import br.com.aygean.cleanarch.infra.entity.HistoricoMedicoEntity;
 import br.com.aygean.cleanarch.infra.entity.PacienteEntity;
+import br.com.aygean.cleanarch.infra.exception.ParametroInvalidoException;
+import br.com.aygean.cleanarch.infra.index.ContagensPacientes;
+import br.com.aygean.cleanarch.infra.index.ContagensPacientes.Perfil;
+import br.com.aygean.cleanarch.infra.repository.AssociacoesPaciente;
+import br.com.aygean.cleanarch.infra.repository.HistoricoMedicoRepository;
 import br.com.aygean.cleanarch.infra.repository.PacienteRepository;
-import org.springframework.stereotype.Service;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
-@Service
 public class PacienteGatewayImpl implements PacienteGateway {
 
+    // Limites usados quando o período do histórico não é informado
+    private static final LocalDate DATA_MINIMA = LocalDate.of(1, 1, 1);
+    private static final LocalDate DATA_MAXIMA = LocalDate.of(9999, 12, 31);
+
+    // Quantidade máxima de IDs por lista IN em uma única consulta
+    private static final int TAMANHO_BLOCO_IN = 1000;
+
+    // Pacientes lidos e convertidos por vez na exportação
+    private static final int TAMANHO_BLOCO_EXPORTACAO = 500;
+
     private final PacienteRepository pacienteRepository;
+    private final HistoricoMedicoRepository historicoMedicoRepository;
+    private final EntityManager entityManager;
+    // Contagens das estatísticas, ajustadas com o perfil anterior e o novo de cada paciente gravado
+    private final ContagensPacientes contagens;
+    // Tempo das conversões de paciente, medido uma vez por chamada (ou por bloco) e não a cada paciente convertido
+    private final Timer entidadeParaDominio;
+    private final Timer tuplaParaDominio;
+    private final Timer dominioParaEntidade;
 
-    public PacienteGatewayImpl(PacienteRepository pacienteRepository) {
+    public PacienteGatewayImpl(PacienteRepository pacienteRepository, HistoricoMedicoRepository historicoMedicoRepository,
+                               EntityManager entityManager, ContagensPacientes contagens, MeterRegistry registry) {
         this.pacienteRepository = pacienteRepository;
+        this.historicoMedicoRepository = historicoMedicoRepository;
+        this.entityManager = entityManager;
+        this.contagens = contagens;
+        this.entidadeParaDominio = timerConversao("entidade-dominio", registry);
+        this.tuplaParaDominio = timerConversao("tupla-dominio", registry);
+        this.dominioParaEntidade = timerConversao("dominio-entidade", registry);
     }
 
     @Override
-    public List<Paciente> listarPacientes() {
-        var entityList = pacienteRepository.findAll();
-        var pacienteList = new ArrayList<Paciente>();
-        entityList.forEach(e -> {
-            pacienteList.add(PacienteConverter.fromEntityToDomain(e));
-        });
-        return pacienteList;
+    @Transactional(readOnly = true)
+    public Pagina<Paciente> listarPacientes(Long after, int limit) {
+        // Busca um registro a mais que o limite para saber se existe uma próxima página
+        var entityList = pacienteRepository.findByIdGreaterThanOrderByIdAsc(
+            after != null ? after : 0L, Limit.of(limit + 1));
+        boolean temProxima = entityList.size() > limit;
+
+        var pacienteList = fromEntityToDomain(temProxima ? entityList.subList(0, limit) : entityList);
+
+        Long proximoCursor = temProxima ? pacienteList.get(pacienteList.size() - 1).getId() : null;
+        return new Pagina<>(pacienteList, proximoCursor);
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public Pagina<Paciente> listarPacientes(Long after, int limit, Set<CampoPaciente> campos) {
+        var tuplas = pacienteRepository.findProjecaoApos(campos, after != null ? after : 0L, Limit.of(limit + 1));
+        boolean temProxima = tuplas.size() > limit;
+        var pacienteList = fromProjecaoToDomain(temProxima ? tuplas.subList(0, limit) : tuplas, campos);
+
+        Long proximoCursor = temProxima ? pacienteList.get(pacienteList.size() - 1).getId() : null;
+        return new Pagina<>(pacienteList, proximoCursor);
+    }
+
+    @Override
+    @Transactional
     public Paciente adicionarPaciente(Paciente paciente) {
-        var pacienteEntity = PacienteConverter.fromDomainToEntity(paciente);
+        var pacienteEntity = dominioParaEntidade.record(() -> PacienteConverter.fromDomainToEntity(paciente));
         var pacienteEntityPersisted = pacienteRepository.save(pacienteEntity);
-        return PacienteConverter.fromEntityToDomain(pacienteEntityPersisted);
+        contar(pacienteEntityPersisted.getId(), null, perfil(pacienteEntityPersisted));
+        return entidadeParaDominio.record(() -> PacienteConverter.fromEntityToDomain(pacienteEntityPersisted));
     }
 
     @Override
+    @Transactional
+    public List<Paciente> adicionarPacientes(List<Paciente> pacientes) {
+        var entityList = dominioParaEntidade.record(() -> {
+            var entidades = new ArrayList<PacienteEntity>(pacientes.size());
+            for (Paciente paciente : pacientes) {
+                entidades.add(PacienteConverter.fromDomainToEntity(paciente));
+            }
+            return entidades;
+        });
+
+        // Os IDs vêm de sequências com alocação em blocos, permitindo que os inserts saiam em lotes JDBC
+        pacienteRepository.saveAll(entityList);
+        entityManager.flush();
+        for (PacienteEntity entity : entityList) {
+            contar(entity.getId(), null, perfil(entity));
+        }
+
+        var pacienteList = fromEntityToDomain(entityList);
+
+        // Libera as entidades do contexto de persistência para que o próximo lote comece vazio
+        entityManager.clear();
+        return pacienteList;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<Paciente> buscarPacientePorId(Long id) {
         Optional<PacienteEntity> optionalPacienteEntity = pacienteRepository.findById(id);
-        return optionalPacienteEntity.map(PacienteConverter::fromEntityToDomain);
+        return optionalPacienteEntity.map(e -> entidadeParaDominio.record(() -> PacienteConverter.fromEntityToDomain(e)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Paciente> buscarPacientePorId(Long id, Set<CampoPaciente> campos) {
+        var tuplas = pacienteRepository.findProjecaoPorIds(campos, List.of(id));
+        return fromProjecaoToDomain(tuplas, campos).stream().findFirst();
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<Paciente> buscarPacientesPorIds(List<Long> ids, Set<CampoPaciente> campos) {
+        var pacienteList = new ArrayList<Paciente>(ids.size());
+        for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_BLOCO_IN) {
+            var bloco = ids.subList(inicio, Math.min(ids.size(), inicio + TAMANHO_BLOCO_IN));
+            pacienteList.addAll(fromProjecaoToDomain(pacienteRepository.findProjecaoPorIds(campos, bloco), campos));
+        }
+        return pacienteList;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Paciente> buscarPacientesPorIds(List<Long> ids) {
+        var pacienteList = new ArrayList<Paciente>(ids.size());
+        // Cada bloco custa uma consulta para pacientes, contatos e endereços e as cargas em lote do histórico
+        for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_BLOCO_IN) {
+            var entityList = pacienteRepository.findByIdIn(ids.subList(inicio, Math.min(ids.size(), inicio + TAMANHO_BLOCO_IN)));
+            pacienteList.addAll(fromEntityToDomain(entityList));
+            // Libera o bloco já convertido para que o contexto de persistência não cresça com listas grandes
+            entityManager.clear();
+        }
+        return pacienteList;
+    }
+
+    @Override
+    @Transactional
     public Optional<Paciente> atualizarPaciente(Paciente paciente) {
-        var pacienteEntity = pacienteRepository.save(PacienteConverter.fromDomainToEntity(paciente));
-        return Optional.of(PacienteConverter.fromEntityToDomain(pacienteEntity));
+        // A versão do paciente informado é a esperada; sem ela vale a versão lida aqui.
+        // O UPDATE confere a versão, então uma gravação concorrente entre a leitura e o commit também é detectada.
+        var existente = pacienteRepository.findById(paciente.getId());
+        if (existente.isEmpty()) {
+            return Optional.empty();
+        }
+        verificarVersao(existente.get(), paciente.getVersao());
+        // O perfil anterior é lido antes do save, que copia o paciente informado sobre a entidade gerenciada
+        var antes = perfil(existente.get());
+        var entity = dominioParaEntidade.record(() -> PacienteConverter.fromDomainToEntity(paciente));
+        entity.setVersao(existente.get().getVersao());
+        var pacienteEntity = pacienteRepository.save(entity);
+        Long versao = incrementarVersao(pacienteEntity);
+        contar(pacienteEntity.getId(), antes, perfil(pacienteEntity));
+        var pacienteAtualizado = entidadeParaDominio.record(() -> PacienteConverter.fromEntityToDomain(pacienteEntity));
+        pacienteAtualizado.setVersao(versao);
+        return Optional.of(pacienteAtualizado);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<List<Paciente>> buscarPacientes(String nome, int limit, Set<CampoPaciente> campos) {
+        var tuplas = pacienteRepository.findProjecaoPorNome(campos, "%" + nome + "%", Limit.of(limit));
+        if (tuplas.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(fromProjecaoToDomain(tuplas, campos));
+    }
+
+    @Override
+    @Transactional
+    public Optional<Paciente> atualizarPacienteParcialmente(Long id, Map<String, Object> alteracoes, Long versaoEsperada) {
+        // Aplica o patch sobre a entidade gerenciada; o dirty checking grava só o que mudou no commit
+        return pacienteRepository.findById(id).map(entity -> {
+            verificarVersao(entity, versaoEsperada);
+            var antes = perfil(entity);
+            Long versao = entity.getVersao();
+            if (PacienteMergePatch.aplicar(entity, alteracoes)) {
+                versao = incrementarVersao(entity);
+                contar(id, antes, perfil(entity));
+            }
+            var pacienteAtualizado = entidadeParaDominio.record(() -> PacienteConverter.fromEntityToDomain(entity));
+            pacienteAtualizado.setVersao(versao);
+            return pacienteAtualizado;
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Long> buscarVersaoPaciente(Long id) {
+        return pacienteRepository.findVersaoById(id);
     }
 
     @Override
-    public Optional<List<Paciente>> buscarPacientes(String nome) {
-        List<PacienteEntity> pacienteEntityList = pacienteRepository.findByNome(nome);
+    @Transactional(readOnly = true)
+    public Optional<List<Paciente>> buscarPacientes(String nome, int limit) {
+        List<PacienteEntity> pacienteEntityList = pacienteRepository.findByNome("%" + nome + "%", Limit.of(limit));
 
         // Retorna Optional.empty() se a lista estiver vazia
         if (pacienteEntityList.isEmpty()) {
             return Optional.empty();
         }
 
-        return Optional.of(pacienteEntityList.stream()
-            .map(PacienteConverter::fromEntityToDomain)
-            .toList());
+        return Optional.of(fromEntityToDomain(pacienteEntityList));
     }
 
     @Override
-    public void deletarPaciente(Paciente paciente) {
-        // Verifica se o paciente existe antes de deletar
-        if (paciente.getId() != null && pacienteRepository.existsById(paciente.getId())) {
-            pacienteRepository.deleteById(paciente.getId());
+    @Transactional
+    public List<Long> deletarPacientes(List<Long> ids) {
+        var removidos = new ArrayList<Long>();
+        // Listas IN grandes são divididas em blocos; cada bloco custa um SELECT e até três DELETEs. O SELECT diz quais
+        // pacientes existem, e portanto são removidos, e traz os campos contados, para que eles saiam das contagens sem
+        // outra leitura
+        for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_BLOCO_IN) {
+            var bloco = ids.subList(inicio, Math.min(ids.size(), inicio + TAMANHO_BLOCO_IN));
+
+            var contatos = new ArrayList<Long>(bloco.size());
+            var enderecos = new ArrayList<Long>(bloco.size());
+            for (AssociacoesPaciente associacoes : pacienteRepository.findAssociacoes(bloco)) {
+                removidos.add(associacoes.getId());
+                contar(associacoes.getId(), new Perfil(associacoes.getEstado(), associacoes.getCidade(),
+                    associacoes.getGenero(), associacoes.getDataNascimento()), null);
+                if (associacoes.getContatoId() != null) {
+                    contatos.add(associacoes.getContatoId());
+                }
+                if (associacoes.getEnderecoId() != null) {
+                    enderecos.add(associacoes.getEnderecoId());
+                }
+            }
+
+            // Os pacientes saem primeiro porque apontam para contato e endereço
+            pacienteRepository.deleteByIdIn(bloco);
+            if (!contatos.isEmpty()) {
+                pacienteRepository.deleteContatosByIdIn(contatos);
+            }
+            if (!enderecos.isEmpty()) {
+                pacienteRepository.deleteEnderecosByIdIn(enderecos);
+            }
+        }
+        return removidos;
+    }
+
+    @Override
+    @Transactional
+    public Optional<HistoricoAdicionado> adicionarHistorico(Long pacienteId, HistoricoMedico historico, Long versaoEsperada) {
+        // A nova consulta muda o paciente: a versão é incrementada, o que também confirma que ele existe. Com uma versão
+        // esperada, o UPDATE só altera a linha se ela ainda for a atual
+        int alterados = versaoEsperada == null
+            ? pacienteRepository.incrementarVersao(pacienteId)
+            : pacienteRepository.incrementarVersao(pacienteId, versaoEsperada);
+        if (alterados == 0) {
+            if (versaoEsperada != null && pacienteRepository.findVersaoById(pacienteId).isPresent()) {
+                throw new ObjectOptimisticLockingFailureException(PacienteEntity.class, pacienteId);
+            }
+            return Optional.empty();
+        }
+        // Insere apenas a nova consulta, usando uma referência ao paciente sem carregar o histórico existente
+        var historicoEntity = new HistoricoMedicoEntity(historico.getDataConsulta(), historico.getDiagnostico(),
+            historico.getTratamento(), historico.getObservacoes());
+        historicoEntity.setPaciente(entityManager.getReference(PacienteEntity.class, pacienteId));
+        historicoMedicoRepository.save(historicoEntity);
+        // A linha do paciente segue travada pelo UPDATE até o commit, então a versão lida é a gravada aqui
+        return Optional.of(new HistoricoAdicionado(historico, pacienteRepository.findVersaoById(pacienteId).orElseThrow()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Pagina<HistoricoMedico>> listarHistorico(Long pacienteId, LocalDate de, LocalDate ate, Long after, int limit) {
+        LocalDate inicio = de != null ? de : DATA_MINIMA;
+        LocalDate fim = ate != null ? ate : DATA_MAXIMA;
+
+        List<HistoricoMedicoEntity> entityList;
+        if (after == null) {
+            entityList = historicoMedicoRepository.findPagina(pacienteId, inicio, fim, Limit.of(limit + 1));
         } else {
-            throw new IllegalArgumentException("Paciente não encontrado ou ID inválido.");
+            // O cursor é o ID da última consulta lida; sua data posiciona a busca no índice. Um cursor de outro
+            // paciente posicionaria a busca numa data qualquer, pulando ou repetindo consultas
+            var cursor = historicoMedicoRepository.findByIdAndPacienteId(after, pacienteId);
+            if (cursor.isEmpty()) {
+                if (!pacienteRepository.existsById(pacienteId)) {
+                    return Optional.empty();
+                }
+                throw new ParametroInvalidoException("Cursor after não pertence ao histórico do paciente: " + after);
+            }
+            entityList = historicoMedicoRepository.findPaginaApos(pacienteId, inicio, fim,
+                cursor.get().getDataConsulta(), after, Limit.of(limit + 1));
+        }
+
+        if (entityList.isEmpty() && !pacienteRepository.existsById(pacienteId)) {
+            return Optional.empty();
+        }
+
+        boolean temProxima = entityList.size() > limit;
+        var historicoList = new ArrayList<HistoricoMedico>(Math.min(entityList.size(), limit));
+        for (int i = 0; i < entityList.size() && i < limit; i++) {
+            historicoList.add(PacienteConverter.fromEntityToDomain(entityList.get(i)));
+        }
+        Long proximoCursor = temProxima ? entityList.get(limit - 1).getId() : null;
+        return Optional.of(new Pagina<>(historicoList, proximoCursor));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Paciente> buscarPacienteComConsultasRecentes(Long id, int consultas) {
+        // Carrega o paciente sem o histórico e, à parte, apenas as consultas mais recentes
+        return pacienteRepository.findSemHistoricoById(id).map(entity -> {
+            var historico = historicoMedicoRepository.findPagina(id, DATA_MINIMA, DATA_MAXIMA, Limit.of(consultas));
+            return entidadeParaDominio.record(() -> PacienteConverter.fromEntityToDomain(entity, historico));
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportarPacientes(Consumer<Paciente> consumidor) {
+        // Percorre os pacientes em blocos pelo cursor de ID: cada bloco custa uma consulta para pacientes, contatos e
+        // endereços e outra para o histórico de todos eles
+        Long after = 0L;
+        int lidos;
+        do {
+            var entityList = pacienteRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(TAMANHO_BLOCO_EXPORTACAO));
+            lidos = entityList.size();
+            if (lidos == 0) {
+                break;
+            }
+            var historicos = historicosPorPaciente(entityList.stream().map(PacienteEntity::getId).toList());
+            var pacienteList = entidadeParaDominio.record(() -> {
+                var pacientes = new ArrayList<Paciente>(entityList.size());
+                for (PacienteEntity e : entityList) {
+                    pacientes.add(PacienteConverter.fromEntityToDomain(e, historicos.getOrDefault(e.getId(), List.of())));
+                }
+                return pacientes;
+            });
+            pacienteList.forEach(consumidor);
+            after = entityList.get(lidos - 1).getId();
+            // Libera o bloco do contexto de persistência para manter a memória constante
+            entityManager.clear();
+        } while (lidos == TAMANHO_BLOCO_EXPORTACAO);
+    }
+
+    // Converte as tuplas de uma projeção; o histórico, quando pedido, vem de uma única consulta para todos os pacientes
+    private List<Paciente> fromProjecaoToDomain(List<Tuple> tuplas, Set<CampoPaciente> campos) {
+        Map<Long, List<HistoricoMedicoEntity>> historicos = Map.of();
+        if (campos.contains(CampoPaciente.HISTORICO_MEDICO) && !tuplas.isEmpty()) {
+            var ids = new ArrayList<Long>(tuplas.size());
+            for (Tuple tupla : tuplas) {
+                ids.add(tupla.get("id", Long.class));
+            }
+            historicos = historicosPorPaciente(ids);
+        }
+
+        var historicosPorId = historicos;
+        return tuplaParaDominio.record(() -> {
+            var pacienteList = new ArrayList<Paciente>(tuplas.size());
+            for (Tuple tupla : tuplas) {
+                pacienteList.add(PacienteConverter.fromTupleToDomain(tupla, campos,
+                    historicosPorId.getOrDefault(tupla.get("id", Long.class), List.of())));
+            }
+            return pacienteList;
+        });
+    }
+
+    private List<Paciente> fromEntityToDomain(List<PacienteEntity> entityList) {
+        return entidadeParaDominio.record(() -> {
+            var pacienteList = new ArrayList<Paciente>(entityList.size());
+            for (PacienteEntity e : entityList) {
+                pacienteList.add(PacienteConverter.fromEntityToDomain(e));
+            }
+            return pacienteList;
+        });
+    }
+
+    // Histórico dos pacientes informados em uma única consulta, agrupado pelo paciente
+    private Map<Long, List<HistoricoMedicoEntity>> historicosPorPaciente(List<Long> ids) {
+        var historicos = new HashMap<Long, List<HistoricoMedicoEntity>>();
+        for (HistoricoMedicoEntity h : historicoMedicoRepository.findByPacienteIdIn(ids)) {
+            historicos.computeIfAbsent(h.getPaciente().getId(), id -> new ArrayList<>()).add(h);
+        }
+        return historicos;
+    }
+
+    // Ajusta as contagens depois do commit, para que uma gravação desfeita não as altere. A gravação é anunciada já
+    // aqui, antes do commit, para que uma reconciliação lendo o banco ao mesmo tempo não a perca nem a conte duas vezes
+    private void contar(Long id, Perfil antes, Perfil depois) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            contagens.alterar(id, antes, depois);
+            return;
+        }
+        var gravacao = contagens.anunciar(id, antes);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    gravacao.confirmar(depois);
+                } else {
+                    gravacao.desfazer();
+                }
+            }
+        });
+    }
+
+    private static Perfil perfil(PacienteEntity entity) {
+        var endereco = entity.getEndereco();
+        return new Perfil(endereco != null ? endereco.getEstado() : null, endereco != null ? endereco.getCidade() : null,
+            entity.getGenero(), entity.getDataNascimento());
+    }
+
+    private static Timer timerConversao(String conversao, MeterRegistry registry) {
+        return Timer.builder("pacientes.converter")
+            .description("Tempo das conversões de paciente por chamada ao gateway")
+            .tag("conversao", conversao)
+            .register(registry);
+    }
+
+    private static void verificarVersao(PacienteEntity entity, Long versaoEsperada) {
+        if (versaoEsperada != null && !versaoEsperada.equals(entity.getVersao())) {
+            throw new ObjectOptimisticLockingFailureException(PacienteEntity.class, entity.getId());
+        }
+    }
+
+    // Grava as alterações e garante o incremento da versão, retornando a versão atual. O Hibernate só incrementa
+    // quando colunas do próprio paciente mudam; se apenas contato ou endereço mudaram, a versão é incrementada com um
+    // UPDATE à parte que confere a versão lida. Nada é bloqueado antes: uma gravação concorrente faz o UPDATE não
+    // alterar nenhuma linha e a requisição recebe 412, em vez de esperar a outra transação.
+    private Long incrementarVersao(PacienteEntity entity) {
+        Long versaoAnterior = entity.getVersao();
+        entityManager.flush();
+        if (!versaoAnterior.equals(entity.getVersao())) {
+            return entity.getVersao();
+        }
+        if (pacienteRepository.incrementarVersao(entity.getId(), versaoAnterior) == 0) {
+            throw new ObjectOptimisticLockingFailureException(PacienteEntity.class, entity.getId());
         }
+        // A entidade gerenciada continua com a versão lida; nada mais é gravado por ela nesta transação
+        return versaoAnterior + 1;
     }
 }
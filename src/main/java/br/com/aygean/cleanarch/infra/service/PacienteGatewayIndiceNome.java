@@ -0,0 +1,179 @@
+package br.com.aygean.cleanarch.infra.service;
+
+import br.com.aygean.cleanarch.domain.CampoPaciente;
+import br.com.aygean.cleanarch.domain.HistoricoAdicionado;
+import br.com.aygean.cleanarch.domain.HistoricoMedico;
+import br.com.aygean.cleanarch.domain.Pagina;
+import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import br.com.aygean.cleanarch.infra.index.IndiceTrigramas;
+import br.com.aygean.cleanarch.infra.repository.NomePaciente;
+import br.com.aygean.cleanarch.infra.repository.PacienteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+
+import java.util.Arrays;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Decorador de PacienteGateway que responde às buscas por nome a partir de um índice de trigramas
+// em memória. O índice é montado na inicialização e atualizado a cada escrita feita por este gateway.
+public class PacienteGatewayIndiceNome implements PacienteGateway {
+
+    private static final Logger log = LoggerFactory.getLogger(PacienteGatewayIndiceNome.class);
+    private static final int TAMANHO_PAGINA_CARGA = 10_000;
+
+    private final PacienteGateway delegate;
+    private final PacienteRepository pacienteRepository;
+    private final IndiceTrigramas indice = new IndiceTrigramas();
+
+    public PacienteGatewayIndiceNome(PacienteGateway delegate, PacienteRepository pacienteRepository) {
+        this.delegate = delegate;
+        this.pacienteRepository = pacienteRepository;
+    }
+
+    // Lê os nomes do banco em páginas por keyset e reconstrói o índice em paralelo
+    public void reconstruirIndice() {
+        long inicio = System.nanoTime();
+        long[] ids = new long[TAMANHO_PAGINA_CARGA];
+        String[] nomes = new String[TAMANHO_PAGINA_CARGA];
+        int total = 0;
+        long cursor = 0L;
+
+        List<NomePaciente> pagina;
+        do {
+            pagina = pacienteRepository.findNomes(cursor, Limit.of(TAMANHO_PAGINA_CARGA));
+            if (total + pagina.size() > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(total + pagina.size(), ids.length * 2));
+                nomes = Arrays.copyOf(nomes, ids.length);
+            }
+            for (NomePaciente nomePaciente : pagina) {
+                ids[total] = nomePaciente.getId();
+                nomes[total] = nomePaciente.getNome();
+                total++;
+            }
+            if (!pagina.isEmpty()) {
+                cursor = pagina.get(pagina.size() - 1).getId();
+            }
+        } while (pagina.size() == TAMANHO_PAGINA_CARGA);
+
+        indice.reconstruir(Arrays.copyOf(ids, total), Arrays.copyOf(nomes, total));
+        log.info("Índice de nomes reconstruído com {} pacientes em {} ms", total, (System.nanoTime() - inicio) / 1_000_000);
+    }
+
+    @Override
+    public Optional<List<Paciente>> buscarPacientes(String nome, int limit) {
+        List<Long> ids = indice.buscar(nome, limit);
+        if (ids.isEmpty()) {
+            return Optional.empty();
+        }
+        // Carrega todos os candidatos de uma só vez
+        return Optional.of(delegate.buscarPacientesPorIds(ids));
+    }
+
+    @Override
+    public Optional<List<Paciente>> buscarPacientes(String nome, int limit, Set<CampoPaciente> campos) {
+        List<Long> ids = indice.buscar(nome, limit);
+        if (ids.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(delegate.buscarPacientesPorIds(ids, campos));
+    }
+
+    @Override
+    public Pagina<Paciente> listarPacientes(Long after, int limit) {
+        return delegate.listarPacientes(after, limit);
+    }
+
+    @Override
+    public Pagina<Paciente> listarPacientes(Long after, int limit, Set<CampoPaciente> campos) {
+        return delegate.listarPacientes(after, limit, campos);
+    }
+
+    @Override
+    public Paciente adicionarPaciente(Paciente paciente) {
+        var pacienteSalvo = delegate.adicionarPaciente(paciente);
+        indice.adicionar(pacienteSalvo.getId(), pacienteSalvo.getNome());
+        return pacienteSalvo;
+    }
+
+    @Override
+    public List<Paciente> adicionarPacientes(List<Paciente> pacientes) {
+        var pacientesSalvos = delegate.adicionarPacientes(pacientes);
+        pacientesSalvos.forEach(p -> indice.adicionar(p.getId(), p.getNome()));
+        return pacientesSalvos;
+    }
+
+    @Override
+    public Optional<Paciente> buscarPacientePorId(Long id) {
+        return delegate.buscarPacientePorId(id);
+    }
+
+    @Override
+    public Optional<Paciente> buscarPacientePorId(Long id, Set<CampoPaciente> campos) {
+        return delegate.buscarPacientePorId(id, campos);
+    }
+
+    @Override
+    public List<Paciente> buscarPacientesPorIds(List<Long> ids) {
+        return delegate.buscarPacientesPorIds(ids);
+    }
+
+    @Override
+    public List<Paciente> buscarPacientesPorIds(List<Long> ids, Set<CampoPaciente> campos) {
+        return delegate.buscarPacientesPorIds(ids, campos);
+    }
+
+    @Override
+    public Optional<Paciente> atualizarPaciente(Paciente paciente) {
+        var pacienteAtualizado = delegate.atualizarPaciente(paciente);
+        pacienteAtualizado.ifPresent(p -> indice.adicionar(p.getId(), p.getNome()));
+        return pacienteAtualizado;
+    }
+
+    @Override
+    public Optional<Paciente> atualizarPacienteParcialmente(Long id, Map<String, Object> alteracoes, Long versaoEsperada) {
+        var pacienteAtualizado = delegate.atualizarPacienteParcialmente(id, alteracoes, versaoEsperada);
+        if (alteracoes.containsKey("nome")) {
+            pacienteAtualizado.ifPresent(p -> indice.adicionar(p.getId(), p.getNome()));
+        }
+        return pacienteAtualizado;
+    }
+
+    @Override
+    public List<Long> deletarPacientes(List<Long> ids) {
+        var removidos = delegate.deletarPacientes(ids);
+        removidos.forEach(indice::remover);
+        return removidos;
+    }
+
+    @Override
+    public Optional<Long> buscarVersaoPaciente(Long id) {
+        return delegate.buscarVersaoPaciente(id);
+    }
+
+    @Override
+    public Optional<HistoricoAdicionado> adicionarHistorico(Long pacienteId, HistoricoMedico historico, Long versaoEsperada) {
+        return delegate.adicionarHistorico(pacienteId, historico, versaoEsperada);
+    }
+
+    @Override
+    public Optional<Pagina<HistoricoMedico>> listarHistorico(Long pacienteId, LocalDate de, LocalDate ate, Long after, int limit) {
+        return delegate.listarHistorico(pacienteId, de, ate, after, limit);
+    }
+
+    @Override
+    public Optional<Paciente> buscarPacienteComConsultasRecentes(Long id, int consultas) {
+        return delegate.buscarPacienteComConsultasRecentes(id, consultas);
+    }
+
+    @Override
+    public void exportarPacientes(Consumer<Paciente> consumidor) {
+        delegate.exportarPacientes(consumidor);
+    }
+}
@@ -0,0 +1,164 @@
+package br.com.aygean.cleanarch.infra.service;
+
+import br.com.aygean.cleanarch.domain.CampoPaciente;
+import br.com.aygean.cleanarch.domain.HistoricoAdicionado;
+import br.com.aygean.cleanarch.domain.HistoricoMedico;
+import br.com.aygean.cleanarch.domain.Pagina;
+import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import br.com.aygean.cleanarch.infra.exception.SobrecargaException;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Decorador de PacienteGateway que limita as chamadas simultâneas ao banco ao tamanho do pool de conexões.
+// As chamadas excedentes aguardam aqui, em fila justa e com espera máxima, em vez de disputarem as conexões do Hikari
+// e ocuparem as threads do servidor até o timeout do pool.
+public class PacienteGatewayLimitado implements PacienteGateway {
+
+    private static final int TAMANHO_BLOCO_EXPORTACAO = 500;
+    private static final Set<CampoPaciente> TODOS_CAMPOS = EnumSet.allOf(CampoPaciente.class);
+
+    private final PacienteGateway delegate;
+    private final Semaphore permissoes;
+    private final long esperaMaximaNanos;
+
+    public PacienteGatewayLimitado(PacienteGateway delegate, int chamadasSimultaneas, Duration esperaMaxima) {
+        this.delegate = delegate;
+        this.permissoes = new Semaphore(chamadasSimultaneas, true);
+        this.esperaMaximaNanos = esperaMaxima.toNanos();
+    }
+
+    @Override
+    public Pagina<Paciente> listarPacientes(Long after, int limit) {
+        return executar(() -> delegate.listarPacientes(after, limit));
+    }
+
+    @Override
+    public Pagina<Paciente> listarPacientes(Long after, int limit, Set<CampoPaciente> campos) {
+        return executar(() -> delegate.listarPacientes(after, limit, campos));
+    }
+
+    @Override
+    public Paciente adicionarPaciente(Paciente paciente) {
+        return executar(() -> delegate.adicionarPaciente(paciente));
+    }
+
+    @Override
+    public List<Paciente> adicionarPacientes(List<Paciente> pacientes) {
+        return executar(() -> delegate.adicionarPacientes(pacientes));
+    }
+
+    @Override
+    public Optional<Paciente> buscarPacientePorId(Long id) {
+        return executar(() -> delegate.buscarPacientePorId(id));
+    }
+
+    @Override
+    public Optional<Paciente> buscarPacientePorId(Long id, Set<CampoPaciente> campos) {
+        return executar(() -> delegate.buscarPacientePorId(id, campos));
+    }
+
+    @Override
+    public List<Paciente> buscarPacientesPorIds(List<Long> ids, Set<CampoPaciente> campos) {
+        return executar(() -> delegate.buscarPacientesPorIds(ids, campos));
+    }
+
+    @Override
+    public List<Paciente> buscarPacientesPorIds(List<Long> ids) {
+        return executar(() -> delegate.buscarPacientesPorIds(ids));
+    }
+
+    @Override
+    public Optional<Paciente> atualizarPaciente(Paciente paciente) {
+        return executar(() -> delegate.atualizarPaciente(paciente));
+    }
+
+    @Override
+    public Optional<Paciente> atualizarPacienteParcialmente(Long id, Map<String, Object> alteracoes, Long versaoEsperada) {
+        return executar(() -> delegate.atualizarPacienteParcialmente(id, alteracoes, versaoEsperada));
+    }
+
+    @Override
+    public Optional<Long> buscarVersaoPaciente(Long id) {
+        return executar(() -> delegate.buscarVersaoPaciente(id));
+    }
+
+    @Override
+    public Optional<List<Paciente>> buscarPacientes(String nome, int limit, Set<CampoPaciente> campos) {
+        return executar(() -> delegate.buscarPacientes(nome, limit, campos));
+    }
+
+    @Override
+    public Optional<List<Paciente>> buscarPacientes(String nome, int limit) {
+        return executar(() -> delegate.buscarPacientes(nome, limit));
+    }
+
+    @Override
+    public List<Long> deletarPacientes(List<Long> ids) {
+        return executar(() -> delegate.deletarPacientes(ids));
+    }
+
+    @Override
+    public Optional<HistoricoAdicionado> adicionarHistorico(Long pacienteId, HistoricoMedico historico, Long versaoEsperada) {
+        return executar(() -> delegate.adicionarHistorico(pacienteId, historico, versaoEsperada));
+    }
+
+    @Override
+    public Optional<Pagina<HistoricoMedico>> listarHistorico(Long pacienteId, LocalDate de, LocalDate ate, Long after, int limit) {
+        return executar(() -> delegate.listarHistorico(pacienteId, de, ate, after, limit));
+    }
+
+    @Override
+    public Optional<Paciente> buscarPacienteComConsultasRecentes(Long id, int consultas) {
+        return executar(() -> delegate.buscarPacienteComConsultasRecentes(id, consultas));
+    }
+
+    // Exporta em blocos pelo cursor de ID, com uma permissão por bloco: a permissão é devolvida enquanto o bloco é
+    // enviado ao cliente, e uma exportação longa não ocupa uma conexão durante todo o envio
+    @Override
+    public void exportarPacientes(Consumer<Paciente> consumidor) {
+        Long after = null;
+        do {
+            Long cursor = after;
+            var pagina = executar(() -> delegate.listarPacientes(cursor, TAMANHO_BLOCO_EXPORTACAO, TODOS_CAMPOS));
+            pagina.getItens().forEach(consumidor);
+            after = pagina.getProximoCursor();
+        } while (after != null);
+    }
+
+    // Chamadas aguardando uma permissão
+    public int aguardando() {
+        return permissoes.getQueueLength();
+    }
+
+    // Permissões livres no momento
+    public int disponiveis() {
+        return permissoes.availablePermits();
+    }
+
+    private <T> T executar(Supplier<T> chamada) {
+        try {
+            if (!permissoes.tryAcquire(esperaMaximaNanos, TimeUnit.NANOSECONDS)) {
+                throw new SobrecargaException("Banco de dados sem conexões disponíveis no momento");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SobrecargaException("Requisição interrompida enquanto aguardava conexão com o banco");
+        }
+        try {
+            return chamada.get();
+        } finally {
+            permissoes.release();
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package br.com.aygean.cleanarch.infra.service;
+
+import br.com.aygean.cleanarch.domain.CampoPaciente;
+import br.com.aygean.cleanarch.domain.HistoricoAdicionado;
+import br.com.aygean.cleanarch.domain.HistoricoMedico;
+import br.com.aygean.cleanarch.domain.Pagina;
+import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import br.com.aygean.cleanarch.infra.entity.PacienteResumoEntity;
+import br.com.aygean.cleanarch.infra.repository.NomePaciente;
+import br.com.aygean.cleanarch.infra.repository.PacienteRepository;
+import br.com.aygean.cleanarch.infra.repository.PacienteResumoRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+// Decorador de PacienteGateway que mantém o modelo de leitura desnormalizado (pacientes_resumo).
+// Listagem e busca por ID são respondidas lendo apenas essa tabela; cada escrita atualiza o resumo na mesma
+// transação da escrita no modelo normalizado. A busca por nome fica com o índice de trigramas
+// (PacienteGatewayIndiceNome), que carrega daqui, pela chave primária, os pacientes encontrados.
+// A inclusão de uma consulta não reescreve o documento, que cresce com o histórico: o resumo é só marcado como
+// desatualizado, as leituras que o encontram assim carregam o paciente do modelo normalizado e o documento é
+// remontado em segundo plano.
+public class PacienteGatewayResumo implements PacienteGateway, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PacienteGatewayResumo.class);
+    // Pacientes por bloco na reconstrução e por lista IN nas leituras
+    private static final int TAMANHO_BLOCO = 1000;
+
+    private final PacienteGateway delegate;
+    private final PacienteResumoRepository resumoRepository;
+    private final PacienteRepository pacienteRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader leitor;
+    private final ObjectWriter escritor;
+    private final int threadsReconstrucao;
+    private final ExecutorService remontagem;
+    private final Set<Long> remontagensPendentes = ConcurrentHashMap.newKeySet();
+
+    public PacienteGatewayResumo(PacienteGateway delegate, PacienteResumoRepository resumoRepository,
+                                 PacienteRepository pacienteRepository, TransactionTemplate transactionTemplate,
+                                 ObjectMapper objectMapper, int threadsReconstrucao) {
+        this.delegate = delegate;
+        this.resumoRepository = resumoRepository;
+        this.pacienteRepository = pacienteRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.leitor = objectMapper.readerFor(Paciente.class);
+        this.escritor = objectMapper.writerFor(Paciente.class);
+        this.threadsReconstrucao = threadsReconstrucao;
+        this.remontagem = Executors.newSingleThreadExecutor(r -> {
+            var thread = new Thread(r, "paciente-resumo-remontagem");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Reconstrói o resumo a partir do modelo normalizado, em blocos de pacientes processados em paralelo.
+    // Cada bloco roda em sua própria transação; ao final são removidos os resumos de pacientes excluídos.
+    public int reconstruirResumo() {
+        long inicio = System.nanoTime();
+        var contador = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threadsReconstrucao,
+            r -> new Thread(r, "paciente-resumo-" + contador.incrementAndGet()));
+        try {
+            var blocos = new ArrayList<Future<Integer>>();
+            long cursor = 0L;
+            List<NomePaciente> pagina;
+            do {
+                pagina = pacienteRepository.findNomes(cursor, Limit.of(TAMANHO_BLOCO));
+                if (!pagina.isEmpty()) {
+                    var ids = pagina.stream().map(NomePaciente::getId).toList();
+                    blocos.add(executor.submit(() -> reconstruirBloco(ids)));
+                    cursor = ids.get(ids.size() - 1);
+                }
+            } while (pagina.size() == TAMANHO_BLOCO);
+
+            int total = 0;
+            for (Future<Integer> bloco : blocos) {
+                total += bloco.get();
+            }
+            transactionTemplate.executeWithoutResult(status -> resumoRepository.deleteOrfaos());
+
+            log.info("Resumo de pacientes reconstruído com {} pacientes em {} ms", total, (System.nanoTime() - inicio) / 1_000_000);
+            return total;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Reconstrução do resumo de pacientes interrompida", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Falha ao reconstruir o resumo de pacientes", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // Na inicialização o resumo só é reconstruído quando está vazio (primeira subida com pacientes já cadastrados):
+    // nas demais ele já foi mantido pelas escritas, e reconstruí-lo atrasaria a subida conforme a tabela cresce
+    public void reconstruirSeVazio() {
+        if (resumoRepository.findByIdGreaterThanOrderByIdAsc(Long.MIN_VALUE, Limit.of(1)).isEmpty()) {
+            reconstruirResumo();
+        }
+    }
+
+    private int reconstruirBloco(List<Long> ids) {
+        return transactionTemplate.execute(status -> {
+            var pacientes = delegate.buscarPacientesPorIds(ids);
+            Set<Long> existentes = new HashSet<>(resumoRepository.findIdsByIdIn(ids));
+            var resumos = new ArrayList<PacienteResumoEntity>(pacientes.size());
+            for (Paciente paciente : pacientes) {
+                resumos.add(toResumo(paciente, !existentes.contains(paciente.getId())));
+            }
+            resumoRepository.saveAll(resumos);
+            return pacientes.size();
+        });
+    }
+
+    // Leituras respondidas pelo resumo
+
+    @Override
+    @Transactional(readOnly = true)
+    public Pagina<Paciente> listarPacientes(Long after, int limit) {
+        var resumos = resumoRepository.findByIdGreaterThanOrderByIdAsc(after != null ? after : 0L, Limit.of(limit + 1));
+        boolean temProxima = resumos.size() > limit;
+        var pacienteList = fromResumo(temProxima ? resumos.subList(0, limit) : resumos);
+
+        Long proximoCursor = temProxima ? pacienteList.get(pacienteList.size() - 1).getId() : null;
+        return new Pagina<>(pacienteList, proximoCursor);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Paciente> buscarPacientePorId(Long id) {
+        return resumoRepository.findById(id).flatMap(resumo -> fromResumo(List.of(resumo)).stream().findFirst());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Paciente> buscarPacientesPorIds(List<Long> ids) {
+        var pacienteList = new ArrayList<Paciente>(ids.size());
+        for (int inicio = 0; inicio < ids.size(); inicio += TAMANHO_BLOCO) {
+            pacienteList.addAll(fromResumo(resumoRepository.findByIdIn(ids.subList(inicio, Math.min(ids.size(), inicio + TAMANHO_BLOCO)))));
+        }
+        return pacienteList;
+    }
+
+    // Escritas: delegadas ao modelo normalizado e refletidas no resumo na mesma transação
+
+    @Override
+    @Transactional
+    public Paciente adicionarPaciente(Paciente paciente) {
+        var pacienteSalvo = delegate.adicionarPaciente(paciente);
+        resumoRepository.save(toResumo(pacienteSalvo, true));
+        return pacienteSalvo;
+    }
+
+    @Override
+    @Transactional
+    public List<Paciente> adicionarPacientes(List<Paciente> pacientes) {
+        var pacientesSalvos = delegate.adicionarPacientes(pacientes);
+        var resumos = new ArrayList<PacienteResumoEntity>(pacientesSalvos.size());
+        for (Paciente paciente : pacientesSalvos) {
+            resumos.add(toResumo(paciente, true));
+        }
+        resumoRepository.saveAll(resumos);
+        return pacientesSalvos;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Paciente> atualizarPaciente(Paciente paciente) {
+        var pacienteAtualizado = delegate.atualizarPaciente(paciente);
+        pacienteAtualizado.ifPresent(p -> resumoRepository.save(toResumo(p, false)));
+        return pacienteAtualizado;
+    }
+
+    @Override
+    @Transactional
+    public Optional<Paciente> atualizarPacienteParcialmente(Long id, Map<String, Object> alteracoes, Long versaoEsperada) {
+        var pacienteAtualizado = delegate.atualizarPacienteParcialmente(id, alteracoes, versaoEsperada);
+        pacienteAtualizado.ifPresent(p -> resumoRepository.save(toResumo(p, false)));
+        return pacienteAtualizado;
+    }
+
+    @Override
+    @Transactional
+    public List<Long> deletarPacientes(List<Long> ids) {
+        var removidos = delegate.deletarPacientes(ids);
+        for (int inicio = 0; inicio < removidos.size(); inicio += TAMANHO_BLOCO) {
+            resumoRepository.deleteByIdIn(removidos.subList(inicio, Math.min(removidos.size(), inicio + TAMANHO_BLOCO)));
+        }
+        return removidos;
+    }
+
+    @Override
+    @Transactional
+    public Optional<HistoricoAdicionado> adicionarHistorico(Long pacienteId, HistoricoMedico historico, Long versaoEsperada) {
+        var adicionado = delegate.adicionarHistorico(pacienteId, historico, versaoEsperada);
+        // Acompanha o incremento de versão feito pela inclusão da consulta, sem reescrever o documento
+        adicionado.ifPresent(a -> resumoRepository.marcarDesatualizado(pacienteId, a.getVersaoPaciente()));
+        return adicionado;
+    }
+
+    // Demais operações seguem para o modelo normalizado
+
+    @Override
+    public Pagina<Paciente> listarPacientes(Long after, int limit, Set<CampoPaciente> campos) {
+        return delegate.listarPacientes(after, limit, campos);
+    }
+
+    @Override
+    public Optional<Paciente> buscarPacientePorId(Long id, Set<CampoPaciente> campos) {
+        return delegate.buscarPacientePorId(id, campos);
+    }
+
+    @Override
+    public List<Paciente> buscarPacientesPorIds(List<Long> ids, Set<CampoPaciente> campos) {
+        return delegate.buscarPacientesPorIds(ids, campos);
+    }
+
+    @Override
+    public Optional<List<Paciente>> buscarPacientes(String nome, int limit) {
+        return delegate.buscarPacientes(nome, limit);
+    }
+
+    @Override
+    public Optional<List<Paciente>> buscarPacientes(String nome, int limit, Set<CampoPaciente> campos) {
+        return delegate.buscarPacientes(nome, limit, campos);
+    }
+
+    @Override
+    public Optional<Long> buscarVersaoPaciente(Long id) {
+        return delegate.buscarVersaoPaciente(id);
+    }
+
+    @Override
+    public Optional<Pagina<HistoricoMedico>> listarHistorico(Long pacienteId, LocalDate de, LocalDate ate, Long after, int limit) {
+        return delegate.listarHistorico(pacienteId, de, ate, after, limit);
+    }
+
+    @Override
+    public Optional<Paciente> buscarPacienteComConsultasRecentes(Long id, int consultas) {
+        return delegate.buscarPacienteComConsultasRecentes(id, consultas);
+    }
+
+    @Override
+    public void exportarPacientes(Consumer<Paciente> consumidor) {
+        delegate.exportarPacientes(consumidor);
+    }
+
+    private PacienteResumoEntity toResumo(Paciente paciente, boolean novo) {
+        try {
+            return new PacienteResumoEntity(paciente.getId(), paciente.getNome(), escritor.writeValueAsString(paciente),
+                paciente.getVersao(), novo);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar o paciente " + paciente.getId(), e);
+        }
+    }
+
+    private Paciente fromResumo(PacienteResumoEntity resumo) {
+        try {
+            return leitor.readValue(resumo.getDocumento());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Resumo inválido para o paciente " + resumo.getId(), e);
+        }
+    }
+
+    // Pacientes dos resumos, na mesma ordem; os desatualizados vêm do modelo normalizado, numa única leitura, e são
+    // agendados para remontagem
+    private List<Paciente> fromResumo(List<PacienteResumoEntity> resumos) {
+        var pacienteList = new ArrayList<Paciente>(resumos.size());
+        var desatualizados = new ArrayList<Long>();
+        for (PacienteResumoEntity resumo : resumos) {
+            if (resumo.isDesatualizado()) {
+                desatualizados.add(resumo.getId());
+                pacienteList.add(null);
+            } else {
+                pacienteList.add(fromResumo(resumo));
+            }
+        }
+        if (desatualizados.isEmpty()) {
+            return pacienteList;
+        }
+
+        var atuais = new HashMap<Long, Paciente>();
+        delegate.buscarPacientesPorIds(desatualizados).forEach(paciente -> atuais.put(paciente.getId(), paciente));
+        for (int i = 0; i < resumos.size(); i++) {
+            if (pacienteList.get(i) == null) {
+                pacienteList.set(i, atuais.get(resumos.get(i).getId()));
+            }
+        }
+        // Paciente removido depois da leitura do resumo
+        pacienteList.removeIf(Objects::isNull);
+        desatualizados.forEach(this::agendarRemontagem);
+        return pacienteList;
+    }
+
+    private void agendarRemontagem(Long id) {
+        if (remontagensPendentes.add(id)) {
+            try {
+                remontagem.execute(() -> remontar(id));
+            } catch (RejectedExecutionException e) {
+                remontagensPendentes.remove(id);
+            }
+        }
+    }
+
+    // Remonta o documento a partir do modelo normalizado, no banco principal; uma escrita feita no meio tempo prevalece
+    private void remontar(Long id) {
+        remontagensPendentes.remove(id);
+        try {
+            transactionTemplate.executeWithoutResult(status -> delegate.buscarPacientesPorIds(List.of(id)).forEach(paciente ->
+                resumoRepository.gravarRemontado(id, toResumo(paciente, false).getDocumento(), paciente.getVersao())));
+        } catch (RuntimeException e) {
+            // O resumo continua desatualizado e é remontado na próxima leitura
+            log.warn("Falha ao remontar o resumo do paciente {}: {}", id, e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        remontagem.shutdownNow();
+    }
+}
@@ -0,0 +1,96 @@
+package br.com.aygean.cleanarch.infra.sharding;
+
+import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import br.com.aygean.cleanarch.infra.entity.GeradorIdPaciente;
+import br.com.aygean.cleanarch.infra.entity.PacienteEntity;
+import br.com.aygean.cleanarch.infra.index.ContagensPacientes;
+import br.com.aygean.cleanarch.infra.repository.HistoricoMedicoRepository;
+import br.com.aygean.cleanarch.infra.repository.PacienteRepository;
+import br.com.aygean.cleanarch.infra.repository.PacienteRepositoryProjecaoImpl;
+import br.com.aygean.cleanarch.infra.service.PacienteGatewayImpl;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.repository.core.support.RepositoryComposition.RepositoryFragments;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import java.util.HashMap;
+import java.util.Map;
+
+// Monta o acesso a um banco de pacientes fora do contexto do Spring: pool de conexões, unidade de persistência
+// (com o mesmo mapeamento e propriedades JPA da aplicação, exceto a geração do esquema), repositórios e o PacienteGatewayImpl com as
+// transações de @Transactional presas ao gerenciador de transações do próprio shard.
+public class FabricaShards {
+
+    private final EntityManagerFactoryBuilder entityManagerFactoryBuilder;
+    private final Map<String, Object> propriedadesJpa;
+    private final String username;
+    private final String password;
+    private final int tamanhoPool;
+    private final ContagensPacientes contagens;
+    private final MeterRegistry meterRegistry;
+
+    public FabricaShards(EntityManagerFactoryBuilder entityManagerFactoryBuilder, Map<String, Object> propriedadesJpa,
+                         String ddlAuto, String username, String password, int tamanhoPool, ContagensPacientes contagens,
+                         MeterRegistry meterRegistry) {
+        this.entityManagerFactoryBuilder = entityManagerFactoryBuilder;
+        this.propriedadesJpa = new HashMap<>(propriedadesJpa);
+        // Definido à parte para cada shard: o ddl-auto do banco principal (create em desenvolvimento) apagaria os
+        // pacientes dos shards a cada inicialização
+        this.propriedadesJpa.put(AvailableSettings.HBM2DDL_AUTO, ddlAuto);
+        // Os IDs são gerados pelo GeradorIdsSnowflake antes de escolher o shard
+        this.propriedadesJpa.put(GeradorIdPaciente.IDS_ATRIBUIDOS, true);
+        this.username = username;
+        this.password = password;
+        this.tamanhoPool = tamanhoPool;
+        this.contagens = contagens;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public Shard criar(int indice, String url) {
+        var dataSource = new HikariDataSource();
+        dataSource.setPoolName("shard-" + indice);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(tamanhoPool);
+        dataSource.setMetricRegistry(meterRegistry);
+
+        try {
+            var entityManagerFactory = entityManagerFactoryBuilder
+                .dataSource(dataSource)
+                .packages(PacienteEntity.class)
+                .persistenceUnit("shard-" + indice)
+                .properties(propriedadesJpa)
+                .build();
+            entityManagerFactory.afterPropertiesSet();
+            try {
+                var transactionManager = new JpaTransactionManager(entityManagerFactory.getObject());
+                EntityManager entityManager = SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory.getObject());
+                var repositorios = new JpaRepositoryFactory(entityManager);
+                var pacienteRepository = repositorios.getRepository(PacienteRepository.class,
+                    RepositoryFragments.just(new PacienteRepositoryProjecaoImpl(entityManager)));
+                var historicoMedicoRepository = repositorios.getRepository(HistoricoMedicoRepository.class);
+
+                var proxy = new ProxyFactory(new PacienteGatewayImpl(pacienteRepository, historicoMedicoRepository, entityManager,
+                    contagens, meterRegistry));
+                proxy.addInterface(PacienteGateway.class);
+                proxy.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+                return new Shard(indice, (PacienteGateway) proxy.getProxy(), entityManagerFactory, dataSource);
+            } catch (RuntimeException e) {
+                entityManagerFactory.destroy();
+                throw e;
+            }
+        } catch (RuntimeException e) {
+            dataSource.close();
+            throw e;
+        }
+    }
+}
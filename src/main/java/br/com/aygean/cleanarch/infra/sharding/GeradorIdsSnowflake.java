@@ -0,0 +1,81 @@
+package br.com.aygean.cleanarch.infra.sharding;
+
+import br.com.aygean.cleanarch.infra.exception.SobrecargaException;
+
+import java.time.Clock;
+import java.time.Instant;
+
+// IDs de 64 bits únicos entre instâncias e bancos, sem depender de sequências: 41 bits de milissegundos desde
+// EPOCA, 10 bits do número da instância e 12 bits de contador dentro do mesmo milissegundo. São crescentes no
+// tempo, então a paginação por ID continua seguindo a ordem de cadastro.
+public class GeradorIdsSnowflake {
+
+    static final Instant EPOCA = Instant.parse("2024-01-01T00:00:00Z");
+
+    private static final int BITS_INSTANCIA = 10;
+    private static final int BITS_CONTADOR = 12;
+    static final int MAXIMO_INSTANCIA = (1 << BITS_INSTANCIA) - 1;
+    private static final int MAXIMO_CONTADOR = (1 << BITS_CONTADOR) - 1;
+    // Recuo do relógio até o qual a geração espera ele voltar
+    static final long ATRASO_TOLERADO_MS = 5;
+
+    private final long instancia;
+    private final Clock clock;
+    private long ultimoMilissegundo = -1;
+    private int contador;
+
+    public GeradorIdsSnowflake(int instancia) {
+        this(instancia, Clock.systemUTC());
+    }
+
+    GeradorIdsSnowflake(int instancia, Clock clock) {
+        if (instancia < 0 || instancia > MAXIMO_INSTANCIA) {
+            throw new IllegalArgumentException("Número da instância deve estar entre 0 e " + MAXIMO_INSTANCIA + ": " + instancia);
+        }
+        this.instancia = instancia;
+        this.clock = clock;
+    }
+
+    public synchronized long proximoId() {
+        long agora = milissegundoAtual();
+        if (agora < ultimoMilissegundo) {
+            long atraso = ultimoMilissegundo - agora;
+            // Um recuo grande do relógio não é esperado: recusa os IDs em vez de segurar os cadastros até ele voltar
+            if (atraso > ATRASO_TOLERADO_MS) {
+                throw new SobrecargaException("Relógio da instância recuou " + atraso + " ms; geração de IDs suspensa");
+            }
+            // Recuo pequeno (ajuste de NTP): espera o relógio alcançar o último milissegundo usado, sem repetir IDs
+            agora = esperarAte(ultimoMilissegundo);
+        }
+        if (agora == ultimoMilissegundo) {
+            contador = (contador + 1) & MAXIMO_CONTADOR;
+            if (contador == 0) {
+                // Contador esgotado neste milissegundo: avança para o próximo
+                agora = esperarAte(ultimoMilissegundo + 1);
+            }
+        } else {
+            contador = 0;
+        }
+        ultimoMilissegundo = agora;
+        return (agora << (BITS_INSTANCIA + BITS_CONTADOR)) | (instancia << BITS_CONTADOR) | contador;
+    }
+
+    // Dorme até o relógio chegar ao milissegundo informado e devolve o milissegundo atual
+    private long esperarAte(long milissegundo) {
+        long agora = milissegundoAtual();
+        while (agora < milissegundo) {
+            try {
+                Thread.sleep(milissegundo - agora);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SobrecargaException("Geração de ID interrompida");
+            }
+            agora = milissegundoAtual();
+        }
+        return agora;
+    }
+
+    private long milissegundoAtual() {
+        return clock.millis() - EPOCA.toEpochMilli();
+    }
+}
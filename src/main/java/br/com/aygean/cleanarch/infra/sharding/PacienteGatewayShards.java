@@ -0,0 +1,352 @@
+package br.com.aygean.cleanarch.infra.sharding;
+
+import br.com.aygean.cleanarch.domain.CampoPaciente;
+import br.com.aygean.cleanarch.domain.HistoricoAdicionado;
+import br.com.aygean.cleanarch.domain.HistoricoMedico;
+import br.com.aygean.cleanarch.domain.Pagina;
+import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Distribui os pacientes entre vários bancos pelo hash do ID. Os IDs vêm do GeradorIdsSnowflake, únicos entre os
+// bancos, e o shard de cada paciente é escolhido por hash consistente (jump consistent hash): ao acrescentar um
+// shard ao fim da lista, só os pacientes que passam a pertencer a ele mudam de banco.
+// Operações sobre um paciente vão direto ao seu shard; listagens e buscas por nome consultam todos os shards em
+// paralelo e juntam os resultados na ordem de ID, mantendo a paginação por cursor.
+public class PacienteGatewayShards implements PacienteGateway, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PacienteGatewayShards.class);
+
+    // Pacientes copiados por vez durante o rebalanceamento
+    private static final int TAMANHO_LOTE_REBALANCEAMENTO = 500;
+
+    private final List<Shard> shards;
+    private final GeradorIdsSnowflake geradorIds;
+    private final ExecutorService executor;
+    // Enquanto houver pacientes fora do shard de destino, as operações por ID os procuram nos demais shards
+    private volatile boolean rebalanceamentoPendente;
+
+    public PacienteGatewayShards(List<Shard> shards, GeradorIdsSnowflake geradorIds, int threads,
+                                 boolean rebalanceamentoPendente) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("Nenhum shard configurado");
+        }
+        this.shards = List.copyOf(shards);
+        this.geradorIds = geradorIds;
+        this.rebalanceamentoPendente = rebalanceamentoPendente;
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            var thread = new Thread(r, "paciente-shards");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public List<Shard> getShards() {
+        return shards;
+    }
+
+    public boolean isRebalanceamentoPendente() {
+        return rebalanceamentoPendente;
+    }
+
+    @Override
+    public Pagina<Paciente> listarPacientes(Long after, int limit) {
+        return juntarPaginas(consultarTodos(s -> s.listarPacientes(after, limit)), limit);
+    }
+
+    @Override
+    public Pagina<Paciente> listarPacientes(Long after, int limit, Set<CampoPaciente> campos) {
+        return juntarPaginas(consultarTodos(s -> s.listarPacientes(after, limit, campos)), limit);
+    }
+
+    @Override
+    public Paciente adicionarPaciente(Paciente paciente) {
+        atribuirId(paciente);
+        return destino(paciente.getId()).getGateway().adicionarPaciente(paciente);
+    }
+
+    @Override
+    public List<Paciente> adicionarPacientes(List<Paciente> pacientes) {
+        var porShard = new LinkedHashMap<Shard, List<Paciente>>();
+        for (Paciente paciente : pacientes) {
+            atribuirId(paciente);
+            porShard.computeIfAbsent(destino(paciente.getId()), s -> new ArrayList<>()).add(paciente);
+        }
+        var salvos = new HashMap<Long, Paciente>(pacientes.size() * 2);
+        consultarGrupos(porShard, (s, grupo) -> s.adicionarPacientes(grupo))
+            .forEach(lista -> lista.forEach(p -> salvos.put(p.getId(), p)));
+
+        // Devolve na ordem recebida
+        var pacienteList = new ArrayList<Paciente>(pacientes.size());
+        for (Paciente paciente : pacientes) {
+            pacienteList.add(salvos.get(paciente.getId()));
+        }
+        return pacienteList;
+    }
+
+    @Override
+    public Optional<Paciente> buscarPacientePorId(Long id) {
+        return localizar(id).getGateway().buscarPacientePorId(id);
+    }
+
+    @Override
+    public Optional<Paciente> buscarPacientePorId(Long id, Set<CampoPaciente> campos) {
+        return localizar(id).getGateway().buscarPacientePorId(id, campos);
+    }
+
+    @Override
+    public List<Paciente> buscarPacientesPorIds(List<Long> ids) {
+        return juntarPorId(consultarGrupos(agruparIds(ids), PacienteGateway::buscarPacientesPorIds));
+    }
+
+    @Override
+    public List<Paciente> buscarPacientesPorIds(List<Long> ids, Set<CampoPaciente> campos) {
+        return juntarPorId(consultarGrupos(agruparIds(ids), (s, grupo) -> s.buscarPacientesPorIds(grupo, campos)));
+    }
+
+    @Override
+    public Optional<Paciente> atualizarPaciente(Paciente paciente) {
+        return localizar(paciente.getId()).getGateway().atualizarPaciente(paciente);
+    }
+
+    @Override
+    public Optional<Paciente> atualizarPacienteParcialmente(Long id, Map<String, Object> alteracoes, Long versaoEsperada) {
+        return localizar(id).getGateway().atualizarPacienteParcialmente(id, alteracoes, versaoEsperada);
+    }
+
+    @Override
+    public Optional<Long> buscarVersaoPaciente(Long id) {
+        return localizar(id).getGateway().buscarVersaoPaciente(id);
+    }
+
+    @Override
+    public Optional<List<Paciente>> buscarPacientes(String nome, int limit) {
+        return juntarBusca(consultarTodos(s -> s.buscarPacientes(nome, limit)), limit);
+    }
+
+    @Override
+    public Optional<List<Paciente>> buscarPacientes(String nome, int limit, Set<CampoPaciente> campos) {
+        return juntarBusca(consultarTodos(s -> s.buscarPacientes(nome, limit, campos)), limit);
+    }
+
+    @Override
+    public List<Long> deletarPacientes(List<Long> ids) {
+        return consultarGrupos(agruparIds(ids), PacienteGateway::deletarPacientes).stream()
+            .flatMap(List::stream)
+            .toList();
+    }
+
+    @Override
+    public Optional<HistoricoAdicionado> adicionarHistorico(Long pacienteId, HistoricoMedico historico, Long versaoEsperada) {
+        return localizar(pacienteId).getGateway().adicionarHistorico(pacienteId, historico, versaoEsperada);
+    }
+
+    @Override
+    public Optional<Pagina<HistoricoMedico>> listarHistorico(Long pacienteId, LocalDate de, LocalDate ate, Long after, int limit) {
+        return localizar(pacienteId).getGateway().listarHistorico(pacienteId, de, ate, after, limit);
+    }
+
+    @Override
+    public Optional<Paciente> buscarPacienteComConsultasRecentes(Long id, int consultas) {
+        return localizar(id).getGateway().buscarPacienteComConsultasRecentes(id, consultas);
+    }
+
+    // Um shard depois do outro, já que o consumidor não precisa ser seguro para várias threads
+    @Override
+    public void exportarPacientes(Consumer<Paciente> consumidor) {
+        for (Shard shard : shards) {
+            shard.getGateway().exportarPacientes(consumidor);
+        }
+    }
+
+    // Move para o shard de destino os pacientes que estão em outro banco, como os que passam a pertencer a um shard
+    // recém-acrescentado. Cada paciente é gravado no destino (com o mesmo ID, mas com a versão reiniciada) e só
+    // depois removido da origem; durante a cópia as operações por ID o encontram em um dos dois bancos.
+    // Alterações feitas em um paciente enquanto ele é copiado podem se perder: rode fora dos horários de pico.
+    public synchronized int rebalancear() {
+        int movidos = 0;
+        for (Shard origem : shards) {
+            int movidosOrigem = 0;
+            // Percorre a origem por páginas; os pacientes removidos ficam sempre antes do cursor
+            Long cursor = null;
+            do {
+                var pagina = origem.getGateway().listarPacientes(cursor, TAMANHO_LOTE_REBALANCEAMENTO);
+                var lote = pagina.getItens().stream().filter(p -> destino(p.getId()) != origem).toList();
+                movidosOrigem += mover(origem, lote);
+                cursor = pagina.getProximoCursor();
+            } while (cursor != null);
+            if (movidosOrigem > 0) {
+                log.info("Rebalanceamento: {} pacientes movidos do shard {}", movidosOrigem, origem.getIndice());
+            }
+            movidos += movidosOrigem;
+        }
+        rebalanceamentoPendente = false;
+        return movidos;
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+        shards.forEach(Shard::close);
+    }
+
+    // Shard do paciente: jump consistent hash sobre o ID misturado, já que IDs próximos no tempo diferem pouco
+    static int indiceShard(long id, int quantidadeShards) {
+        long chave = misturar(id);
+        long shard = -1;
+        long proximo = 0;
+        while (proximo < quantidadeShards) {
+            shard = proximo;
+            chave = chave * 2862933555777941757L + 1;
+            proximo = (long) ((shard + 1) * ((double) (1L << 31) / (double) ((chave >>> 33) + 1)));
+        }
+        return (int) shard;
+    }
+
+    // Etapa final do MurmurHash3 de 64 bits
+    private static long misturar(long valor) {
+        valor ^= valor >>> 33;
+        valor *= 0xff51afd7ed558ccdL;
+        valor ^= valor >>> 33;
+        valor *= 0xc4ceb9fe1a85ec53L;
+        valor ^= valor >>> 33;
+        return valor;
+    }
+
+    private Shard destino(Long id) {
+        return shards.get(indiceShard(id, shards.size()));
+    }
+
+    // Shard que guarda o paciente: o de destino, ou, com rebalanceamento pendente, aquele onde ele ainda está
+    private Shard localizar(Long id) {
+        Shard destino = destino(id);
+        if (!rebalanceamentoPendente || destino.getGateway().buscarVersaoPaciente(id).isPresent()) {
+            return destino;
+        }
+        for (Shard shard : shards) {
+            if (shard != destino && shard.getGateway().buscarVersaoPaciente(id).isPresent()) {
+                return shard;
+            }
+        }
+        return destino;
+    }
+
+    private int mover(Shard origem, List<Paciente> lote) {
+        if (lote.isEmpty()) {
+            return 0;
+        }
+        var porDestino = new LinkedHashMap<Shard, List<Paciente>>();
+        var ids = new ArrayList<Long>(lote.size());
+        for (Paciente paciente : lote) {
+            paciente.setVersao(null);
+            porDestino.computeIfAbsent(destino(paciente.getId()), s -> new ArrayList<>()).add(paciente);
+            ids.add(paciente.getId());
+        }
+        porDestino.forEach((destino, pacientes) -> destino.getGateway().adicionarPacientes(pacientes));
+        origem.getGateway().deletarPacientes(ids);
+        return ids.size();
+    }
+
+    private void atribuirId(Paciente paciente) {
+        paciente.setId(geradorIds.proximoId());
+        paciente.setVersao(null);
+    }
+
+    private Map<Shard, List<Long>> agruparIds(List<Long> ids) {
+        var porShard = new LinkedHashMap<Shard, List<Long>>();
+        for (Long id : ids) {
+            porShard.computeIfAbsent(localizar(id), s -> new ArrayList<>()).add(id);
+        }
+        return porShard;
+    }
+
+    private <T> List<T> consultarTodos(Function<PacienteGateway, T> consulta) {
+        var futuros = new ArrayList<CompletableFuture<T>>(shards.size());
+        for (Shard shard : shards) {
+            futuros.add(CompletableFuture.supplyAsync(() -> consulta.apply(shard.getGateway()), executor));
+        }
+        return aguardar(futuros);
+    }
+
+    private <E, T> List<T> consultarGrupos(Map<Shard, List<E>> grupos,
+                                           BiFunction<PacienteGateway, List<E>, T> consulta) {
+        // Um único shard envolvido: consulta na própria thread
+        if (grupos.size() == 1) {
+            var grupo = grupos.entrySet().iterator().next();
+            return List.of(consulta.apply(grupo.getKey().getGateway(), grupo.getValue()));
+        }
+        var futuros = new ArrayList<CompletableFuture<T>>(grupos.size());
+        grupos.forEach((shard, grupo) ->
+            futuros.add(CompletableFuture.supplyAsync(() -> consulta.apply(shard.getGateway(), grupo), executor)));
+        return aguardar(futuros);
+    }
+
+    private static <T> List<T> aguardar(List<CompletableFuture<T>> futuros) {
+        var resultados = new ArrayList<T>(futuros.size());
+        try {
+            for (CompletableFuture<T> futuro : futuros) {
+                resultados.add(futuro.join());
+            }
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException causa) {
+                throw causa;
+            }
+            throw e;
+        }
+        return resultados;
+    }
+
+    // Junta as páginas dos shards: cada uma já vem ordenada por ID e com no máximo limit itens, então os limit
+    // menores IDs entre elas formam a página; há próxima página se sobrou algum item ou algum shard tem mais
+    private static Pagina<Paciente> juntarPaginas(List<Pagina<Paciente>> paginas, int limit) {
+        var porId = new TreeMap<Long, Paciente>();
+        boolean algumShardTemMais = false;
+        for (Pagina<Paciente> pagina : paginas) {
+            pagina.getItens().forEach(p -> porId.putIfAbsent(p.getId(), p));
+            algumShardTemMais |= pagina.getProximoCursor() != null;
+        }
+        var itens = new ArrayList<Paciente>(Math.min(limit, porId.size()));
+        for (Paciente paciente : porId.values()) {
+            if (itens.size() == limit) {
+                break;
+            }
+            itens.add(paciente);
+        }
+        boolean temProxima = porId.size() > limit || algumShardTemMais;
+        Long proximoCursor = temProxima && !itens.isEmpty() ? itens.get(itens.size() - 1).getId() : null;
+        return new Pagina<>(itens, proximoCursor);
+    }
+
+    private static Optional<List<Paciente>> juntarBusca(List<Optional<List<Paciente>>> resultados, int limit) {
+        var porId = new TreeMap<Long, Paciente>();
+        resultados.forEach(r -> r.ifPresent(lista -> lista.forEach(p -> porId.putIfAbsent(p.getId(), p))));
+        if (porId.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(porId.values().stream().limit(limit).toList());
+    }
+
+    private static List<Paciente> juntarPorId(List<List<Paciente>> resultados) {
+        var porId = new TreeMap<Long, Paciente>();
+        resultados.forEach(lista -> lista.forEach(p -> porId.putIfAbsent(p.getId(), p)));
+        return new ArrayList<>(porId.values());
+    }
+}
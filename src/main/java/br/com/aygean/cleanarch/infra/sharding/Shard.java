@@ -0,0 +1,40 @@
+package br.com.aygean.cleanarch.infra.sharding;
+
+import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+
+// Um banco de pacientes com a própria unidade de persistência, transações e gateway
+public class Shard implements AutoCloseable {
+
+    private final int indice;
+    private final PacienteGateway gateway;
+    private final LocalContainerEntityManagerFactoryBean entityManagerFactory;
+    private final HikariDataSource dataSource;
+
+    Shard(int indice, PacienteGateway gateway, LocalContainerEntityManagerFactoryBean entityManagerFactory,
+          HikariDataSource dataSource) {
+        this.indice = indice;
+        this.gateway = gateway;
+        this.entityManagerFactory = entityManagerFactory;
+        this.dataSource = dataSource;
+    }
+
+    public int getIndice() {
+        return indice;
+    }
+
+    public PacienteGateway getGateway() {
+        return gateway;
+    }
+
+    public HikariDataSource getDataSource() {
+        return dataSource;
+    }
+
+    @Override
+    public void close() {
+        entityManagerFactory.destroy();
+        dataSource.close();
+    }
+}
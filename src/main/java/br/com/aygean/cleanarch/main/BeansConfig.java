@@ -1,22 +1,326 @@
 package br.com.aygean.cleanarch.main;
 
 import br.com.aygean.cleanarch.application.PacienteUseCase;
+import br.com.aygean.cleanarch.gateway.AlteracoesPacienteGateway;
 import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import br.com.aygean.cleanarch.gateway.PacienteGatewayAsync;
+import br.com.aygean.cleanarch.infra.converter.FormatosBinarios;
+import br.com.aygean.cleanarch.infra.datasource.DataSourceReplicado;
+import br.com.aygean.cleanarch.infra.datasource.VerificadorReplica;
+import br.com.aygean.cleanarch.infra.dto.PacienteDTO;
+import br.com.aygean.cleanarch.infra.index.ContagensPacientes;
+import br.com.aygean.cleanarch.infra.metrics.MetricasAspect;
+import br.com.aygean.cleanarch.infra.metrics.MetricasDataSourcePostProcessor;
+import br.com.aygean.cleanarch.infra.metrics.MetricasSqlFilter;
+import br.com.aygean.cleanarch.infra.metrics.PerfilSqlListener;
+import br.com.aygean.cleanarch.infra.repository.HistoricoMedicoRepository;
 import br.com.aygean.cleanarch.infra.repository.PacienteRepository;
+import br.com.aygean.cleanarch.infra.repository.PacienteResumoRepository;
+import br.com.aygean.cleanarch.infra.service.AlteracoesPacienteGatewayImpl;
+import br.com.aygean.cleanarch.infra.service.EstatisticasPacientes;
+import br.com.aygean.cleanarch.infra.service.PacienteGatewayAgrupado;
+import br.com.aygean.cleanarch.infra.service.PacienteGatewayAsyncImpl;
+import br.com.aygean.cleanarch.infra.service.PacienteGatewayCache;
 import br.com.aygean.cleanarch.infra.service.PacienteGatewayImpl;
+import br.com.aygean.cleanarch.infra.service.PacienteGatewayIndiceNome;
+import br.com.aygean.cleanarch.infra.service.PacienteGatewayLimitado;
+import br.com.aygean.cleanarch.infra.service.PacienteGatewayResumo;
+import br.com.aygean.cleanarch.infra.sharding.FabricaShards;
+import br.com.aygean.cleanarch.infra.sharding.GeradorIdsSnowflake;
+import br.com.aygean.cleanarch.infra.sharding.PacienteGatewayShards;
+import br.com.aygean.cleanarch.infra.sharding.Shard;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.health.CompositeHealthContributor;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthContributor;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.actuate.jdbc.DataSourceHealthIndicator;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.JpaProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jackson.Jackson2ObjectMapperBuilderCustomizer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.boot.orm.jpa.EntityManagerFactoryBuilder;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 
 @Configuration
 public class BeansConfig {
 
+    // Sem ?fields= o filtro de campos do PacienteDTO deixa passar todos os campos
+    @Bean
+    public Jackson2ObjectMapperBuilderCustomizer filtroCamposPaciente() {
+        return builder -> builder.filters(new SimpleFilterProvider()
+            .addFilter(PacienteDTO.FILTRO_CAMPOS, SimpleBeanPropertyFilter.serializeAll()));
+    }
+
+    // Negociação de conteúdo: além do JSON, as respostas e os corpos podem ser CBOR (application/cbor)
+    // ou Smile (application/x-jackson-smile); o JSON continua sendo o padrão quando o Accept não escolhe
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2CborHttpMessageConverter(FormatosBinarios.cbor(objectMapper));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(ObjectMapper objectMapper) {
+        return new MappingJackson2SmileHttpMessageConverter(FormatosBinarios.smile(objectMapper));
+    }
+
+    // Métricas: timers do caso de uso e das camadas do gateway, e comandos/linhas SQL por requisição
     @Bean
-    public PacienteGateway pacienteGateway(PacienteRepository pacienteRepository) {
-        return new PacienteGatewayImpl(pacienteRepository);
+    public MetricasAspect metricasAspect(MeterRegistry meterRegistry) {
+        return new MetricasAspect(meterRegistry);
     }
 
     @Bean
-    public PacienteUseCase pacienteUseCase(PacienteGateway pacienteGateway) {
-        return new PacienteUseCase(pacienteGateway);
+    public static MetricasDataSourcePostProcessor metricasDataSourcePostProcessor(ObjectProvider<PerfilSqlListener> perfilSqlListener) {
+        return new MetricasDataSourcePostProcessor(perfilSqlListener);
+    }
+
+    // Perfil de SQL: log assíncrono dos comandos lentos e de uma amostra dos demais
+    @Bean
+    @ConditionalOnProperty(name = "pacientes.sql.perfil.ativo", havingValue = "true", matchIfMissing = true)
+    public static PerfilSqlListener perfilSqlListener(@Value("${pacientes.sql.perfil.limite-lento:200ms}") Duration limiteLento,
+                                                      @Value("${pacientes.sql.perfil.amostragem:0}") double amostragem,
+                                                      @Value("${pacientes.sql.perfil.fila:10000}") int fila) {
+        return new PerfilSqlListener(limiteLento, amostragem, fila);
+    }
+
+    @Bean
+    public MetricasSqlFilter metricasSqlFilter(MeterRegistry meterRegistry,
+                                               @Value("${pacientes.sql.perfil.cabecalhos:false}") boolean cabecalhos) {
+        return new MetricasSqlFilter(meterRegistry, cabecalhos);
+    }
+
+    // Réplica de leitura (opcional): com pacientes.replica.ativo=true o DataSource da aplicação passa a enviar as transações
+    // somente leitura à réplica, voltando ao banco principal enquanto a réplica estiver indisponível
+    @Bean
+    @ConditionalOnProperty(name = "pacientes.replica.ativo", havingValue = "true")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSourcePrincipal(DataSourceProperties dataSourceProperties) {
+        HikariDataSource principal = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        principal.setPoolName("principal");
+        return principal;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "pacientes.replica.ativo", havingValue = "true")
+    @ConfigurationProperties("pacientes.replica.datasource")
+    public HikariDataSource dataSourceReplica() {
+        HikariDataSource replica = DataSourceBuilder.create().type(HikariDataSource.class).build();
+        replica.setPoolName("replica");
+        // Com a réplica fora do ar a leitura não deve esperar o timeout padrão de 30s antes de ir para o principal
+        replica.setConnectionTimeout(1000);
+        return replica;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "pacientes.replica.ativo", havingValue = "true")
+    public VerificadorReplica verificadorReplica(@Qualifier("dataSourceReplica") DataSource dataSourceReplica,
+                                                 @Value("${pacientes.replica.intervalo-verificacao:5s}") Duration intervalo,
+                                                 @Value("${pacientes.replica.timeout-verificacao:1s}") Duration timeout) {
+        return new VerificadorReplica(dataSourceReplica, intervalo, timeout);
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(name = "pacientes.replica.ativo", havingValue = "true")
+    public DataSource dataSource(@Qualifier("dataSourcePrincipal") DataSource dataSourcePrincipal, VerificadorReplica verificadorReplica) {
+        return new DataSourceReplicado(dataSourcePrincipal, verificadorReplica);
+    }
+
+    // Substitui o health check padrão, que marcaria a aplicação como fora do ar com a réplica indisponível,
+    // mesmo com as leituras atendidas pelo banco principal
+    @Bean
+    @ConditionalOnProperty(name = "pacientes.replica.ativo", havingValue = "true")
+    public HealthContributor dbHealthContributor(@Qualifier("dataSourcePrincipal") DataSource dataSourcePrincipal,
+                                                 VerificadorReplica verificadorReplica) {
+        HealthIndicator replica = () -> Health.up()
+            .withDetail("disponivel", verificadorReplica.isDisponivel())
+            .withDetail("leituras", verificadorReplica.isDisponivel() ? "replica" : "principal")
+            .build();
+        return CompositeHealthContributor.fromMap(Map.of(
+            "principal", new DataSourceHealthIndicator(dataSourcePrincipal),
+            "replica", replica));
+    }
+
+    // Contagens de pacientes para GET /pacientes/stats, ajustadas pelo PacienteGatewayImpl (de cada shard, com shards)
+    @Bean
+    public ContagensPacientes contagensPacientes() {
+        return new ContagensPacientes();
+    }
+
+    @Bean
+    public PacienteGatewayImpl pacienteGatewayImpl(PacienteRepository pacienteRepository,
+                                                   HistoricoMedicoRepository historicoMedicoRepository,
+                                                   EntityManager entityManager,
+                                                   ContagensPacientes contagensPacientes,
+                                                   MeterRegistry meterRegistry) {
+        return new PacienteGatewayImpl(pacienteRepository, historicoMedicoRepository, entityManager, contagensPacientes,
+            meterRegistry);
+    }
+
+    // Modelo de leitura desnormalizado, mantido a cada escrita; na inicialização só é reconstruído se estiver vazio,
+    // e a reconstrução completa fica disponível em POST /resumo/pacientes/reconstrucao
+    @Bean(initMethod = "reconstruirSeVazio")
+    public PacienteGatewayResumo pacienteGatewayResumo(PacienteGatewayImpl pacienteGatewayImpl,
+                                                       PacienteResumoRepository pacienteResumoRepository,
+                                                       PacienteRepository pacienteRepository,
+                                                       PlatformTransactionManager transactionManager,
+                                                       ObjectMapper objectMapper,
+                                                       @Value("${pacientes.resumo.threads-reconstrucao:4}") int threadsReconstrucao) {
+        return new PacienteGatewayResumo(pacienteGatewayImpl, pacienteResumoRepository, pacienteRepository,
+            new TransactionTemplate(transactionManager), objectMapper, threadsReconstrucao);
+    }
+
+    // Limita as chamadas simultâneas ao banco ao tamanho do pool de conexões
+    @Bean
+    public PacienteGatewayLimitado pacienteGatewayLimitado(PacienteGatewayResumo pacienteGatewayResumo,
+                                                           @Value("${spring.datasource.hikari.maximum-pool-size:10}") int chamadasSimultaneas,
+                                                           @Value("${pacientes.jdbc.espera-maxima:30s}") Duration esperaMaxima) {
+        return new PacienteGatewayLimitado(pacienteGatewayResumo, chamadasSimultaneas, esperaMaxima);
+    }
+
+    // Busca por nome respondida pelo índice de trigramas, reconstruído na inicialização
+    @Bean(initMethod = "reconstruirIndice")
+    public PacienteGatewayIndiceNome pacienteGatewayIndiceNome(PacienteGatewayLimitado pacienteGatewayLimitado,
+                                                               PacienteRepository pacienteRepository) {
+        return new PacienteGatewayIndiceNome(pacienteGatewayLimitado, pacienteRepository);
+    }
+
+    // Modo opcional de agrupamento dos cadastros: os pacientes adicionados ao mesmo tempo são gravados juntos, em lote
+    @Bean
+    @ConditionalOnProperty(name = "pacientes.agrupamento.ativo", havingValue = "true")
+    public PacienteGatewayAgrupado pacienteGatewayAgrupado(PacienteGatewayIndiceNome pacienteGatewayIndiceNome,
+                                                           @Value("${pacientes.agrupamento.tamanho-lote:100}") int tamanhoLote,
+                                                           @Value("${pacientes.agrupamento.espera-maxima:5ms}") Duration esperaMaxima,
+                                                           @Value("${pacientes.agrupamento.fila:10000}") int fila,
+                                                           @Value("${pacientes.agrupamento.timeout-gravacao:30s}") Duration timeoutGravacao,
+                                                           @Value("${pacientes.agrupamento.timeout-resultado:2m}") Duration timeoutResultado,
+                                                           MeterRegistry meterRegistry) {
+        return new PacienteGatewayAgrupado(pacienteGatewayIndiceNome, tamanhoLote, esperaMaxima, fila, timeoutGravacao,
+            timeoutResultado, meterRegistry);
+    }
+
+    // Modo opcional com os pacientes distribuídos entre vários bancos: cada shard tem a própria unidade de persistência,
+    // com o mesmo mapeamento e as mesmas propriedades JPA da aplicação
+    @Bean
+    @ConditionalOnProperty(name = "pacientes.shards.ativo", havingValue = "true")
+    public FabricaShards fabricaShards(EntityManagerFactoryBuilder entityManagerFactoryBuilder,
+                                       JpaProperties jpaProperties,
+                                       HibernateProperties hibernateProperties,
+                                       @Value("${pacientes.shards.username:}") String username,
+                                       @Value("${pacientes.shards.password:}") String password,
+                                       @Value("${pacientes.shards.maximum-pool-size:10}") int tamanhoPool,
+                                       @Value("${pacientes.shards.ddl-auto:validate}") String ddlAuto,
+                                       ContagensPacientes contagensPacientes,
+                                       MeterRegistry meterRegistry) {
+        Map<String, Object> propriedadesJpa = hibernateProperties.determineHibernateProperties(
+            jpaProperties.getProperties(), new HibernateSettings().ddlAuto(() -> ddlAuto));
+        return new FabricaShards(entityManagerFactoryBuilder, propriedadesJpa, ddlAuto, username, password, tamanhoPool,
+            contagensPacientes, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "pacientes.shards.ativo", havingValue = "true")
+    public PacienteGatewayShards pacienteGatewayShards(FabricaShards fabricaShards,
+                                                       @Value("${pacientes.shards.urls:}") List<String> urls,
+                                                       @Value("${pacientes.shards.instancia:0}") int instancia,
+                                                       @Value("${pacientes.shards.threads:16}") int threads,
+                                                       @Value("${pacientes.shards.rebalanceamento-pendente:false}") boolean rebalanceamentoPendente) {
+        var shards = new ArrayList<Shard>(urls.size());
+        try {
+            for (String url : urls) {
+                shards.add(fabricaShards.criar(shards.size(), url));
+            }
+        } catch (RuntimeException e) {
+            shards.forEach(Shard::close);
+            throw e;
+        }
+        return new PacienteGatewayShards(shards, new GeradorIdsSnowflake(instancia), threads, rebalanceamentoPendente);
+    }
+
+    // Contagens de pacientes montadas na inicialização e reconciliadas periodicamente com o banco, lido pelo gateway
+    // mais externo abaixo do cache
+    @Bean(initMethod = "reconciliar")
+    public EstatisticasPacientes estatisticasPacientes(PacienteGatewayIndiceNome pacienteGatewayIndiceNome,
+                                                       ObjectProvider<PacienteGatewayAgrupado> pacienteGatewayAgrupado,
+                                                       ObjectProvider<PacienteGatewayShards> pacienteGatewayShards,
+                                                       ContagensPacientes contagensPacientes,
+                                                       @Value("${pacientes.estatisticas.threads-leitura:4}") int threadsLeitura,
+                                                       @Value("${pacientes.estatisticas.intervalo-reconciliacao:15m}") Duration intervaloReconciliacao) {
+        return new EstatisticasPacientes(gatewayExterno(pacienteGatewayIndiceNome, pacienteGatewayAgrupado, pacienteGatewayShards),
+            contagensPacientes, threadsLeitura, intervaloReconciliacao);
+    }
+
+    // Gateway usado pela aplicação: o modelo de leitura e o acesso ao banco, limitados, envolvidos pelo índice de nomes,
+    // pelo agrupamento de cadastros (quando ativo) e pelo cache de pacientes. Com shards, o cache envolve diretamente o
+    // gateway dos shards.
+    @Bean
+    @Primary
+    public PacienteGatewayCache pacienteGateway(PacienteGatewayIndiceNome pacienteGatewayIndiceNome,
+                                                ObjectProvider<PacienteGatewayAgrupado> pacienteGatewayAgrupado,
+                                                ObjectProvider<PacienteGatewayShards> pacienteGatewayShards,
+                                                @Value("${pacientes.cache.tamanho-maximo:10000}") long tamanhoMaximo,
+                                                @Value("${pacientes.cache.ttl:10m}") Duration ttl,
+                                                @Value("${pacientes.cache.janela-leitura-propria:5s}") Duration janelaLeituraPropria) {
+        return new PacienteGatewayCache(gatewayExterno(pacienteGatewayIndiceNome, pacienteGatewayAgrupado, pacienteGatewayShards),
+            tamanhoMaximo, ttl, janelaLeituraPropria);
+    }
+
+    // Gateway assíncrono com executor próprio e limitado; com a fila cheia as chamadas são rejeitadas
+    @Bean
+    public PacienteGatewayAsync pacienteGatewayAsync(PacienteGateway pacienteGateway,
+                                                     @Value("${pacientes.async.threads:10}") int threads,
+                                                     @Value("${pacientes.async.fila:1000}") int fila) {
+        return new PacienteGatewayAsyncImpl(pacienteGateway, threads, fila);
+    }
+
+    // Feed de alterações de pacientes (GET /pacientes/changes), com as últimas alterações em buffer para reconexões
+    @Bean
+    public AlteracoesPacienteGatewayImpl alteracoesPacienteGateway(@Value("${pacientes.alteracoes.buffer:10000}") int tamanhoBuffer,
+                                                                   @Value("${pacientes.alteracoes.fila-assinante:1000}") int filaAssinante,
+                                                                   @Value("${pacientes.alteracoes.threads-envio:4}") int threadsEnvio,
+                                                                   MeterRegistry meterRegistry) {
+        return new AlteracoesPacienteGatewayImpl(tamanhoBuffer, filaAssinante, threadsEnvio, meterRegistry);
+    }
+
+    @Bean
+    public PacienteUseCase pacienteUseCase(PacienteGateway pacienteGateway, PacienteGatewayAsync pacienteGatewayAsync,
+                                           AlteracoesPacienteGateway alteracoesPacienteGateway) {
+        return new PacienteUseCase(pacienteGateway, pacienteGatewayAsync, alteracoesPacienteGateway);
+    }
+
+    // O gateway dos shards, o agrupamento de cadastros ou o índice de nomes, o que estiver mais externo
+    private static PacienteGateway gatewayExterno(PacienteGatewayIndiceNome pacienteGatewayIndiceNome,
+                                                  ObjectProvider<PacienteGatewayAgrupado> pacienteGatewayAgrupado,
+                                                  ObjectProvider<PacienteGatewayShards> pacienteGatewayShards) {
+        PacienteGateway gateway = pacienteGatewayShards.getIfAvailable();
+        if (gateway == null) {
+            gateway = pacienteGatewayAgrupado.getIfAvailable();
+        }
+        return gateway != null ? gateway : pacienteGatewayIndiceNome;
     }
 }
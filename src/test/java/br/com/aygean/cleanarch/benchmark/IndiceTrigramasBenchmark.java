@@ -0,0 +1,85 @@
+package br.com.aygean.cleanarch.benchmark;
+
+import br.com.aygean.cleanarch.infra.index.IndiceTrigramas;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Compara a busca por trecho de nome no índice de trigramas com uma varredura linear, sobre 1 milhão de nomes sintéticos.
+// Execução: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=br.com.aygean.cleanarch.benchmark.IndiceTrigramasBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class IndiceTrigramasBenchmark {
+
+    private static final int TOTAL_NOMES = 1_000_000;
+    private static final int LIMITE = 20;
+
+    private static final String[] PRENOMES = {"Maria", "José", "Ana", "João", "Antônio", "Francisca", "Carlos", "Paulo",
+        "Adriana", "Lucas", "Juliana", "Márcia", "Fernanda", "Patrícia", "Aline", "Sebastião", "Raimunda", "Iratuã", "Cícero", "Luíza"};
+    private static final String[] SOBRENOMES = {"Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves", "Pereira",
+        "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Araújo", "Melo", "Barbosa", "Cardoso", "Nogueira", "Conceição"};
+
+    @Param({"silva", "joao", "conceicao melo", "xyz"})
+    private String consulta;
+
+    private IndiceTrigramas indice;
+    private String[] normalizados;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        var random = new Random(42);
+        long[] ids = new long[TOTAL_NOMES];
+        String[] nomes = new String[TOTAL_NOMES];
+        for (int i = 0; i < TOTAL_NOMES; i++) {
+            ids[i] = i + 1;
+            nomes[i] = PRENOMES[random.nextInt(PRENOMES.length)] + " "
+                + SOBRENOMES[random.nextInt(SOBRENOMES.length)] + " "
+                + SOBRENOMES[random.nextInt(SOBRENOMES.length)] + " " + Integer.toString(i, 36);
+        }
+
+        indice = new IndiceTrigramas();
+        long inicio = System.nanoTime();
+        indice.reconstruir(ids, nomes);
+        System.out.printf("%nÍndice com %d nomes construído em %d ms%n", TOTAL_NOMES, (System.nanoTime() - inicio) / 1_000_000);
+
+        normalizados = new String[TOTAL_NOMES];
+        for (int i = 0; i < TOTAL_NOMES; i++) {
+            normalizados[i] = IndiceTrigramas.normalizar(nomes[i]);
+        }
+    }
+
+    @Benchmark
+    public List<Long> indiceTrigramas() {
+        return indice.buscar(consulta, LIMITE);
+    }
+
+    // Referência: equivalente em memória ao like '%...%' sem índice
+    @Benchmark
+    public List<Long> varreduraLinear() {
+        String normalizada = IndiceTrigramas.normalizar(consulta);
+        var resultado = new ArrayList<Long>(LIMITE);
+        for (int i = 0; i < normalizados.length && resultado.size() < LIMITE; i++) {
+            if (normalizados[i].contains(normalizada)) {
+                resultado.add((long) i + 1);
+            }
+        }
+        return resultado;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        var options = new OptionsBuilder()
+            .include(IndiceTrigramasBenchmark.class.getSimpleName())
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,129 @@
+package br.com.aygean.cleanarch.benchmark;
+
+import br.com.aygean.cleanarch.CleanarchApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Teste de carga com mais clientes simultâneos que conexões no pool, passando pelo limite de chamadas ao banco.
+// Sobe a aplicação, popula a base e dispara requisições concorrentes de leitura, reportando vazão e latências p50/p99.
+// Execução: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=br.com.aygean.cleanarch.benchmark.PacienteCargaBenchmark
+// Argumentos do Spring (por exemplo --spring.datasource.url=jdbc:postgresql://...) são repassados à aplicação.
+public class PacienteCargaBenchmark {
+
+    private static final int CLIENTES = Integer.getInteger("carga.clientes", 400);
+    private static final Duration DURACAO = Duration.ofSeconds(Long.getLong("carga.segundos", 20));
+    private static final int PACIENTES = Integer.getInteger("carga.pacientes", 2000);
+
+    public static void main(String[] args) throws Exception {
+        // O reinício automático do devtools não se aplica a execuções sucessivas no mesmo processo
+        System.setProperty("spring.devtools.restart.enabled", "false");
+        String resultado = executar(args);
+        System.out.printf("%n%d clientes simultâneos durante %d s%n", CLIENTES, DURACAO.toSeconds());
+        System.out.println(resultado);
+    }
+
+    private static String executar(String[] args) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CleanarchApplication.class)
+            .properties(
+                "server.port=0",
+                "spring.datasource.url=jdbc:h2:mem:carga;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+            .run(args)) {
+            String base = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+            HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+            popular(client, base);
+
+            ExecutorService executor = Executors.newFixedThreadPool(CLIENTES);
+            AtomicLong erros = new AtomicLong();
+            long fim = System.nanoTime() + DURACAO.toNanos();
+            List<Future<long[]>> futuros = new ArrayList<>(CLIENTES);
+            for (int i = 0; i < CLIENTES; i++) {
+                futuros.add(executor.submit(() -> carga(client, base, fim, erros)));
+            }
+
+            long[] latencias = new long[0];
+            for (Future<long[]> futuro : futuros) {
+                long[] parcial = futuro.get();
+                int inicio = latencias.length;
+                latencias = Arrays.copyOf(latencias, inicio + parcial.length);
+                System.arraycopy(parcial, 0, latencias, inicio, parcial.length);
+            }
+            executor.shutdown();
+            Arrays.sort(latencias);
+
+            return String.format("%8.1f req/s  p50 %7.2f ms  p99 %7.2f ms  erros %d",
+                latencias.length / (double) DURACAO.toSeconds(),
+                percentil(latencias, 0.50),
+                percentil(latencias, 0.99),
+                erros.get());
+        }
+    }
+
+    // Cadastra os pacientes usados na carga através da importação em lote
+    private static void popular(HttpClient client, String base) throws Exception {
+        var ndjson = new StringBuilder();
+        for (int i = 0; i < PACIENTES; i++) {
+            ndjson.append("{\"nome\":\"Paciente ").append(i)
+                .append("\",\"dataNascimento\":\"1980-01-01\",\"genero\":\"F\",")
+                .append("\"contato\":{\"telefone\":\"85999990000\",\"email\":\"p").append(i).append("@email.com\"},")
+                .append("\"endereco\":{\"rua\":\"Rua A\",\"numero\":1,\"cidade\":\"Fortaleza\",\"estado\":\"CE\",\"cep\":\"60000-000\"},")
+                .append("\"historicoMedico\":[{\"dataConsulta\":\"2024-01-01\",\"diagnostico\":\"Gripe\",\"tratamento\":\"Repouso\",\"observacoes\":\"\"}]}\n");
+        }
+        var request = HttpRequest.newBuilder(URI.create(base + "/pacientes/batch"))
+            .header("Content-Type", "application/x-ndjson")
+            .POST(HttpRequest.BodyPublishers.ofString(ndjson.toString()))
+            .build();
+        client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    // Alterna leituras por ID e páginas da listagem até o fim do período, medindo cada requisição
+    private static long[] carga(HttpClient client, String base, long fim, AtomicLong erros) {
+        long[] latencias = new long[1024];
+        int total = 0;
+        while (System.nanoTime() < fim) {
+            var random = ThreadLocalRandom.current();
+            String caminho = random.nextBoolean()
+                ? "/pacientes/" + (random.nextInt(PACIENTES) + 1)
+                : "/pacientes?after=" + random.nextInt(PACIENTES) + "&limit=20";
+            long inicio = System.nanoTime();
+            try {
+                var response = client.send(HttpRequest.newBuilder(URI.create(base + caminho)).GET().build(),
+                    HttpResponse.BodyHandlers.discarding());
+                if (response.statusCode() != 200) {
+                    erros.incrementAndGet();
+                }
+            } catch (Exception e) {
+                erros.incrementAndGet();
+            }
+            if (total == latencias.length) {
+                latencias = Arrays.copyOf(latencias, total * 2);
+            }
+            latencias[total++] = System.nanoTime() - inicio;
+        }
+        return Arrays.copyOf(latencias, total);
+    }
+
+    private static double percentil(long[] ordenadas, double percentil) {
+        if (ordenadas.length == 0) {
+            return 0;
+        }
+        int indice = (int) Math.min(ordenadas.length - 1, Math.ceil(percentil * ordenadas.length) - 1);
+        return ordenadas[Math.max(0, indice)] / 1_000_000.0;
+    }
+}
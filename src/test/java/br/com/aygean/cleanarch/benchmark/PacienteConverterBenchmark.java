@@ -0,0 +1,109 @@
+package br.com.aygean.cleanarch.benchmark;
+
+import br.com.aygean.cleanarch.domain.Contato;
+import br.com.aygean.cleanarch.domain.Endereco;
+import br.com.aygean.cleanarch.domain.HistoricoMedico;
+import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.infra.converter.PacienteConverter;
+import br.com.aygean.cleanarch.infra.dto.PacienteDTO;
+import br.com.aygean.cleanarch.infra.entity.PacienteEntity;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+// Compara o conversor antigo (BeanUtils) com o atual (campo a campo) em vazão e taxa de alocação.
+// Execução: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=br.com.aygean.cleanarch.benchmark.PacienteConverterBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PacienteConverterBenchmark {
+
+    @Param({"0", "10", "500"})
+    private int consultas;
+
+    private Paciente paciente;
+    private PacienteDTO pacienteDTO;
+    private PacienteEntity pacienteEntity;
+
+    @Setup
+    public void setUp() {
+        var historico = new ArrayList<HistoricoMedico>(consultas);
+        for (int i = 0; i < consultas; i++) {
+            historico.add(new HistoricoMedico(LocalDate.of(2020, 1, 1).plusDays(i), "Diagnóstico " + i, "Tratamento " + i, "Observações " + i));
+        }
+        paciente = new Paciente(1L, "Maria da Silva", LocalDate.of(1985, 3, 15), "F",
+            new Contato("85999990000", "maria@email.com"),
+            new Endereco("Rua das Flores", 123, "Fortaleza", "CE", "60000-000"),
+            historico);
+        pacienteDTO = PacienteConverter.fromDomainToDTO(paciente);
+        pacienteEntity = PacienteConverter.fromDomainToEntity(paciente);
+    }
+
+    @Benchmark
+    public Paciente beanUtilsDtoToDomain() {
+        return BeanUtilsPacienteConverter.fromDtoToDomain(pacienteDTO);
+    }
+
+    @Benchmark
+    public Paciente explicitoDtoToDomain() {
+        return PacienteConverter.fromDtoToDomain(pacienteDTO);
+    }
+
+    @Benchmark
+    public PacienteEntity beanUtilsDtoToEntity() {
+        return BeanUtilsPacienteConverter.fromDtoToEntity(pacienteDTO);
+    }
+
+    @Benchmark
+    public PacienteEntity explicitoDtoToEntity() {
+        return PacienteConverter.fromDtoToEntity(pacienteDTO);
+    }
+
+    @Benchmark
+    public PacienteDTO beanUtilsDomainToDTO() {
+        return BeanUtilsPacienteConverter.fromDomainToDTO(paciente);
+    }
+
+    @Benchmark
+    public PacienteDTO explicitoDomainToDTO() {
+        return PacienteConverter.fromDomainToDTO(paciente);
+    }
+
+    @Benchmark
+    public Paciente beanUtilsEntityToDomain() {
+        return BeanUtilsPacienteConverter.fromEntityToDomain(pacienteEntity);
+    }
+
+    @Benchmark
+    public Paciente explicitoEntityToDomain() {
+        return PacienteConverter.fromEntityToDomain(pacienteEntity);
+    }
+
+    @Benchmark
+    public PacienteEntity beanUtilsDomainToEntity() {
+        return BeanUtilsPacienteConverter.fromDomainToEntity(paciente);
+    }
+
+    @Benchmark
+    public PacienteEntity explicitoDomainToEntity() {
+        return PacienteConverter.fromDomainToEntity(paciente);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        var options = new OptionsBuilder()
+            .include(PacienteConverterBenchmark.class.getSimpleName())
+            // Acrescenta a taxa de alocação (gc.alloc.rate.norm) ao resultado
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,135 @@
+package br.com.aygean.cleanarch.benchmark;
+
+import br.com.aygean.cleanarch.domain.Contato;
+import br.com.aygean.cleanarch.domain.Endereco;
+import br.com.aygean.cleanarch.domain.HistoricoMedico;
+import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.infra.converter.FormatosBinarios;
+import br.com.aygean.cleanarch.infra.converter.PacienteConverter;
+import br.com.aygean.cleanarch.infra.dto.PacienteDTO;
+import br.com.aygean.cleanarch.infra.dto.PaginaDTO;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+// Compara JSON, Smile e CBOR na serialização de uma página com 10 mil pacientes: tempo de CPU para
+// serializar (com e sem gzip) e desserializar, alocação e, antes das medições, o tamanho de cada payload.
+// Execução: mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=br.com.aygean.cleanarch.benchmark.PacienteSerializacaoBenchmark
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PacienteSerializacaoBenchmark {
+
+    private static final int PACIENTES = 10_000;
+    private static final TypeReference<PaginaDTO<PacienteDTO>> TIPO_PAGINA = new TypeReference<>() {
+    };
+
+    @Param({"json", "smile", "cbor"})
+    private String formato;
+
+    private ObjectMapper mapper;
+    private PaginaDTO<PacienteDTO> pagina;
+    private byte[] serializado;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = mapper(formato);
+        pagina = pagina();
+        serializado = mapper.writeValueAsBytes(pagina);
+    }
+
+    @Benchmark
+    public byte[] serializar() throws IOException {
+        return mapper.writeValueAsBytes(pagina);
+    }
+
+    @Benchmark
+    public byte[] serializarComGzip() throws IOException {
+        return gzip(mapper, pagina);
+    }
+
+    @Benchmark
+    public PaginaDTO<PacienteDTO> desserializar() throws IOException {
+        return mapper.readValue(serializado, TIPO_PAGINA);
+    }
+
+    // Mesma configuração do ObjectMapper da aplicação que afeta a saída: filtro de campos e datas ISO
+    private static ObjectMapper mapper(String formato) {
+        ObjectMapper json = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .filters(new SimpleFilterProvider().addFilter(PacienteDTO.FILTRO_CAMPOS, SimpleBeanPropertyFilter.serializeAll()))
+            .build();
+        return switch (formato) {
+            case "json" -> json;
+            case "smile" -> FormatosBinarios.smile(json);
+            case "cbor" -> FormatosBinarios.cbor(json);
+            default -> throw new IllegalArgumentException("Formato desconhecido: " + formato);
+        };
+    }
+
+    private static PaginaDTO<PacienteDTO> pagina() {
+        List<PacienteDTO> pacientes = new ArrayList<>(PACIENTES);
+        for (int i = 0; i < PACIENTES; i++) {
+            var historico = new ArrayList<HistoricoMedico>();
+            for (int c = 0; c < 3; c++) {
+                historico.add(new HistoricoMedico(LocalDate.of(2020, 1, 1).plusDays(i % 365 + c), "Diagnóstico " + (i % 50),
+                    "Tratamento " + (i % 20), "Observações da consulta " + c));
+            }
+            var paciente = new Paciente((long) i + 1, "Paciente " + i, LocalDate.of(1950, 1, 1).plusDays(i), i % 2 == 0 ? "F" : "M",
+                new Contato("8599" + (1_000_000 + i), "paciente" + i + "@email.com"),
+                new Endereco("Rua " + (i % 100), i % 1000, "Fortaleza", "CE", "60000-000"),
+                historico, 0L);
+            pacientes.add(PacienteConverter.fromDomainToDTO(paciente));
+        }
+        return new PaginaDTO<>(pacientes, (long) PACIENTES);
+    }
+
+    private static byte[] gzip(ObjectMapper mapper, Object valor) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(bytes)) {
+            mapper.writeValue(gzip, valor);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        // Tamanho dos payloads, que não depende do JMH
+        var pagina = pagina();
+        for (String formato : List.of("json", "smile", "cbor")) {
+            var mapper = mapper(formato);
+            try {
+                System.out.printf("%-6s: %,d bytes, %,d bytes com gzip%n", formato,
+                    mapper.writeValueAsBytes(pagina).length, gzip(mapper, pagina).length);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        var options = new OptionsBuilder()
+            .include(PacienteSerializacaoBenchmark.class.getSimpleName())
+            // Acrescenta a taxa de alocação (gc.alloc.rate.norm) ao resultado
+            .addProfiler(GCProfiler.class)
+            .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,100 @@
+package br.com.aygean.cleanarch.infra.controller;
+
+import br.com.aygean.cleanarch.infra.converter.FormatosBinarios;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// Banco próprio: o contexto não é compartilhado e não pode reaproveitar sequências de um banco recriado por outro contexto
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:formatos;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class FormatosBinariosTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void corpoEmCborERespostaEmSmile() throws Exception {
+        var cbor = FormatosBinarios.cbor(objectMapper);
+        byte[] corpo = cbor.writeValueAsBytes(Map.of(
+            "nome", "Paciente Binário", "dataNascimento", "1990-01-02", "genero", "F",
+            "contato", Map.of("telefone", "85999990000", "email", "binario@email.com")));
+
+        byte[] resposta = mockMvc.perform(post("/pacientes")
+                .contentType(FormatosBinarios.APPLICATION_CBOR)
+                .accept(FormatosBinarios.APPLICATION_SMILE)
+                .content(corpo))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(FormatosBinarios.APPLICATION_SMILE))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode paciente = FormatosBinarios.smile(objectMapper).readTree(resposta);
+        assertEquals("Paciente Binário", paciente.get("nome").asText());
+        assertEquals("1990-01-02", paciente.get("dataNascimento").asText());
+        assertEquals("binario@email.com", paciente.get("contato").get("email").asText());
+    }
+
+    @Test
+    void listagemEmCborRespeitaFields() throws Exception {
+        mockMvc.perform(post("/pacientes").contentType("application/json").content("""
+                {"nome": "Paciente Fields", "dataNascimento": "1990-01-01", "genero": "M"}
+                """))
+            .andExpect(status().isOk());
+
+        byte[] resposta = mockMvc.perform(get("/pacientes").param("fields", "nome")
+                .accept(FormatosBinarios.APPLICATION_CBOR))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(FormatosBinarios.APPLICATION_CBOR))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        JsonNode paciente = FormatosBinarios.cbor(objectMapper).readTree(resposta).get("itens").get(0);
+        assertTrue(paciente.has("nome"));
+        assertTrue(paciente.has("id"));
+        assertFalse(paciente.has("contato"));
+    }
+
+    @Test
+    void exportacaoEmSequenciaCbor() throws Exception {
+        mockMvc.perform(post("/pacientes").contentType("application/json").content("""
+                {"nome": "Paciente Exportado", "dataNascimento": "1990-01-01", "genero": "F"}
+                """))
+            .andExpect(status().isOk());
+
+        var resultado = mockMvc.perform(get("/pacientes/export").accept(FormatosBinarios.APPLICATION_CBOR_SEQ))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        byte[] resposta = mockMvc.perform(asyncDispatch(resultado))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(FormatosBinarios.APPLICATION_CBOR_SEQ))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        int pacientes = 0;
+        try (MappingIterator<JsonNode> itens = FormatosBinarios.cbor(objectMapper).readerFor(JsonNode.class).readValues(resposta)) {
+            while (itens.hasNext()) {
+                assertTrue(itens.next().has("nome"));
+                pacientes++;
+            }
+        }
+        assertTrue(pacientes > 0);
+    }
+}
@@ -0,0 +1,125 @@
+package br.com.aygean.cleanarch.infra.controller;
+
+import br.com.aygean.cleanarch.application.PacienteUseCase;
+import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import br.com.aygean.cleanarch.infra.service.PacienteGatewayAsyncImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.lang.reflect.Proxy;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:async;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class PacienteAsyncControllerTest {
+
+    private static final long INEXISTENTE = Long.MAX_VALUE;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void falhasRespondemComOsMesmosStatusDosEndpointsSincronos() throws Exception {
+        long id = adicionarPaciente("Paciente Assíncrono");
+
+        assertEquals(404, statusSincrono(get("/pacientes/{id}", INEXISTENTE)));
+        assertEquals(404, statusAssincrono(get("/async/pacientes/{id}", INEXISTENTE)));
+
+        assertEquals(404, statusSincrono(get("/pacientes/busca").param("nome", "nome que nenhum paciente tem")));
+        assertEquals(404, statusAssincrono(get("/async/pacientes/busca").param("nome", "nome que nenhum paciente tem")));
+
+        assertEquals(404, statusSincrono(put("/pacientes/{id}", INEXISTENTE)
+            .contentType(MediaType.APPLICATION_JSON).content(paciente("Paciente Inexistente", null))));
+        assertEquals(404, statusAssincrono(put("/async/pacientes/{id}", INEXISTENTE)
+            .contentType(MediaType.APPLICATION_JSON).content(paciente("Paciente Inexistente", null))));
+
+        // Versão informada diferente da atual: a gravação é recusada nos dois casos
+        assertEquals(412, statusSincrono(put("/pacientes/{id}", id)
+            .contentType(MediaType.APPLICATION_JSON).content(paciente("Paciente Assíncrono", 99L))));
+        assertEquals(412, statusAssincrono(put("/async/pacientes/{id}", id)
+            .contentType(MediaType.APPLICATION_JSON).content(paciente("Paciente Assíncrono", 99L))));
+
+        assertEquals(404, statusSincrono(delete("/pacientes/{id}", INEXISTENTE)));
+        assertEquals(404, statusAssincrono(delete("/async/pacientes/{id}", INEXISTENTE)));
+        assertEquals(204, statusAssincrono(delete("/async/pacientes/{id}", id)));
+    }
+
+    @Test
+    void filaDoExecutorCheiaRespondeServiceUnavailable() throws Exception {
+        var liberar = new CountDownLatch(1);
+        // Gateway cujas buscas só terminam quando liberadas, ocupando a única thread e a única vaga da fila
+        var gateway = (PacienteGateway) Proxy.newProxyInstance(PacienteGateway.class.getClassLoader(),
+            new Class<?>[]{PacienteGateway.class}, (proxy, metodo, args) -> {
+                liberar.await(10, TimeUnit.SECONDS);
+                return Optional.empty();
+            });
+        var gatewayAsync = new PacienteGatewayAsyncImpl(gateway, 1, 1);
+        var mockMvcLimitado = MockMvcBuilders
+            .standaloneSetup(new PacienteAsyncController(new PacienteUseCase(gateway, gatewayAsync, null)))
+            .setControllerAdvice(new ExceptionHandlerController())
+            .build();
+        try {
+            var emExecucao = gatewayAsync.buscarPacientePorId(1L);
+            var naFila = gatewayAsync.buscarPacientePorId(2L);
+
+            var resultado = mockMvcLimitado.perform(get("/async/pacientes/{id}", 3L))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+            mockMvcLimitado.perform(asyncDispatch(resultado)).andExpect(status().isServiceUnavailable());
+
+            // Liberadas, as operações aceitas terminam normalmente
+            liberar.countDown();
+            assertEquals(Optional.empty(), emExecucao.get(10, TimeUnit.SECONDS));
+            assertEquals(Optional.empty(), naFila.get(10, TimeUnit.SECONDS));
+        } finally {
+            liberar.countDown();
+            gatewayAsync.close();
+        }
+    }
+
+    private int statusSincrono(RequestBuilder requisicao) throws Exception {
+        return mockMvc.perform(requisicao).andReturn().getResponse().getStatus();
+    }
+
+    private int statusAssincrono(RequestBuilder requisicao) throws Exception {
+        var resultado = mockMvc.perform(requisicao).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(resultado)).andReturn().getResponse().getStatus();
+    }
+
+    private long adicionarPaciente(String nome) throws Exception {
+        String resposta = mockMvc.perform(post("/pacientes").contentType(MediaType.APPLICATION_JSON).content(paciente(nome, null)))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(resposta).get("id").asLong();
+    }
+
+    private static String paciente(String nome, Long versao) {
+        return """
+            {"nome": "%s", "dataNascimento": "1990-01-02", "genero": "F", "versao": %s,
+             "contato": {"telefone": "85999990000", "email": "async@email.com"},
+             "endereco": {"rua": "Rua B", "numero": 20, "cidade": "Sobral", "estado": "CE", "cep": "62000000"},
+             "historicoMedico": []}
+            """.formatted(nome, versao);
+    }
+}
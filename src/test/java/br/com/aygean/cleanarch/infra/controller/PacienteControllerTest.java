@@ -0,0 +1,285 @@
+package br.com.aygean.cleanarch.infra.controller;
+
+import br.com.aygean.cleanarch.application.PacienteUseCase;
+import br.com.aygean.cleanarch.infra.converter.FormatosBinarios;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:controller;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+@AutoConfigureMockMvc
+class PacienteControllerTest {
+
+    private static final String CONSULTA = """
+        {"dataConsulta": "2024-03-10", "diagnostico": "Revisão", "tratamento": "Exames"}
+        """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void exportacaoEmNdjsonTrazCadaPacienteUmaVezComOHistorico() throws Exception {
+        long id = adicionarPaciente("Paciente Exportação NDJSON");
+
+        var resultado = mockMvc.perform(get("/pacientes/export"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+        String resposta = mockMvc.perform(asyncDispatch(resultado))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+        Map<Long, JsonNode> exportados = new HashMap<>();
+        for (String linha : resposta.split("\n")) {
+            JsonNode paciente = objectMapper.readTree(linha);
+            assertEquals(null, exportados.put(paciente.get("id").asLong(), paciente), "Paciente exportado duas vezes");
+        }
+        JsonNode exportado = exportados.get(id);
+        assertEquals("Paciente Exportação NDJSON", exportado.get("nome").asText());
+        assertEquals(2, exportado.get("historicoMedico").size());
+    }
+
+    @Test
+    void etagDependeDoFormatoNegociadoEDosCamposPedidos() throws Exception {
+        long id = adicionarPaciente("Paciente ETag");
+        String etag = mockMvc.perform(get("/pacientes/{id}", id))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String versao = etag.replace("\"", "");
+
+        mockMvc.perform(get("/pacientes/{id}", id).accept(FormatosBinarios.APPLICATION_CBOR))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + versao + "+cbor\""))
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        mockMvc.perform(get("/pacientes/{id}", id).accept(FormatosBinarios.APPLICATION_SMILE))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + versao + "+smile\""));
+        mockMvc.perform(get("/pacientes/{id}", id).param("fields", "nome").accept(FormatosBinarios.APPLICATION_CBOR))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + versao + "-ID.NOME.VERSAO+cbor\""));
+
+        // A ETag do JSON não vale para a representação em CBOR, e vice-versa
+        mockMvc.perform(get("/pacientes/{id}", id).accept(FormatosBinarios.APPLICATION_CBOR).header(HttpHeaders.IF_NONE_MATCH, etag))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/pacientes/{id}", id).accept(FormatosBinarios.APPLICATION_CBOR)
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + versao + "+cbor\""))
+            .andExpect(status().isNotModified())
+            .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT));
+        mockMvc.perform(get("/pacientes/{id}", id).header(HttpHeaders.IF_NONE_MATCH, "\"" + versao + "+cbor\""))
+            .andExpect(status().isOk());
+
+        // Qualquer formato da representação completa identifica a versão num If-Match; uma representação parcial, não
+        mockMvc.perform(put("/pacientes/{id}", id).header(HttpHeaders.IF_MATCH, "\"" + versao + "-ID.NOME.VERSAO\"")
+                .contentType(MediaType.APPLICATION_JSON).content(paciente("Paciente ETag")))
+            .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(put("/pacientes/{id}", id).header(HttpHeaders.IF_MATCH, "\"" + versao + "+cbor\"")
+                .contentType(MediaType.APPLICATION_JSON).content(paciente("Paciente ETag")))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + (Long.parseLong(versao) + 1) + "\""));
+    }
+
+    @Test
+    void consultaIncluidaNoHistoricoVoltaComANovaVersaoERespeitaIfMatch() throws Exception {
+        long id = adicionarPaciente("Paciente Histórico");
+        String etag = mockMvc.perform(get("/pacientes/{id}", id))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        long versao = Long.parseLong(etag.replace("\"", ""));
+
+        String novaEtag = mockMvc.perform(post("/pacientes/{id}/historico", id).header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON).content(CONSULTA))
+            .andExpect(status().isCreated())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + (versao + 1) + "\""))
+            .andExpect(jsonPath("$.dataConsulta").value("2024-03-10"))
+            .andExpect(jsonPath("$.diagnostico").value("Revisão"))
+            .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        mockMvc.perform(get("/pacientes/{id}", id))
+            .andExpect(header().string(HttpHeaders.ETAG, novaEtag))
+            .andExpect(jsonPath("$.historicoMedico.length()").value(3));
+
+        // A versão informada já não é a atual: nada é incluído
+        mockMvc.perform(post("/pacientes/{id}/historico", id).header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON).content(CONSULTA))
+            .andExpect(status().isPreconditionFailed());
+        mockMvc.perform(get("/pacientes/{id}", id))
+            .andExpect(header().string(HttpHeaders.ETAG, novaEtag))
+            .andExpect(jsonPath("$.historicoMedico.length()").value(3));
+
+        mockMvc.perform(post("/pacientes/{id}/historico", id).contentType(MediaType.APPLICATION_JSON).content(CONSULTA))
+            .andExpect(status().isCreated())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + (versao + 2) + "\""));
+
+        mockMvc.perform(post("/pacientes/{id}/historico", Long.MAX_VALUE)
+                .contentType(MediaType.APPLICATION_JSON).content(CONSULTA))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(post("/pacientes/{id}/historico", Long.MAX_VALUE).header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON).content(CONSULTA))
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void paginacaoPorCursorPercorreTodosOsPacientesSemRepetirNemPular() throws Exception {
+        var criados = new ArrayList<Long>();
+        for (int i = 0; i < 7; i++) {
+            criados.add(adicionarPaciente("Paciente Página " + i));
+        }
+
+        // Parte de antes do primeiro criado: as páginas devem trazer exatamente os pacientes criados, em ordem
+        var paginados = new ArrayList<Long>();
+        String after = String.valueOf(criados.get(0) - 1);
+        JsonNode pagina;
+        do {
+            pagina = json(mockMvc.perform(get("/pacientes").param("after", after).param("limit", "3"))
+                .andExpect(status().isOk()));
+            assertTrue(pagina.get("itens").size() <= 3);
+            pagina.get("itens").forEach(paciente -> paginados.add(paciente.get("id").asLong()));
+            after = pagina.get("proximoCursor").asText();
+        } while (!pagina.get("proximoCursor").isNull());
+
+        assertEquals(criados, paginados);
+    }
+
+    @Test
+    void limiteDaListagemETruncadoNoMaximo() throws Exception {
+        var ndjson = new StringBuilder();
+        for (int i = 0; i <= PacienteUseCase.LIMITE_MAXIMO; i++) {
+            // Um paciente por linha
+            ndjson.append(paciente("Paciente Limite " + i).replace('\n', ' ')).append('\n');
+        }
+        mockMvc.perform(post("/pacientes/batch").contentType(MediaType.APPLICATION_NDJSON).content(ndjson.toString()))
+            .andExpect(status().isOk());
+
+        JsonNode pagina = json(mockMvc.perform(get("/pacientes").param("limit", "100000")).andExpect(status().isOk()));
+
+        assertEquals(PacienteUseCase.LIMITE_MAXIMO, pagina.get("itens").size());
+        assertTrue(pagina.get("proximoCursor").isNumber());
+    }
+
+    @Test
+    void importacaoComLoteAcimaDoMaximoERecusada() throws Exception {
+        mockMvc.perform(post("/pacientes/batch")
+                .param("tamanhoLote", String.valueOf(PacienteUseCase.TAMANHO_LOTE_MAXIMO + 1))
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .content(paciente("Paciente Lote Grande").replace('\n', ' ')))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void loteComFalhaEDesfeitoSozinhoEAImportacaoContinua() throws Exception {
+        // Cinco pacientes em lotes de dois; o terceiro tem um nome maior que a coluna e derruba o segundo lote
+        var nomes = List.of("Paciente Importado 1", "Paciente Importado 2", "Paciente Importado " + "X".repeat(300),
+            "Paciente Importado 4", "Paciente Importado 5");
+        var ndjson = new StringBuilder();
+        nomes.forEach(nome -> ndjson.append(paciente(nome).replace('\n', ' ')).append('\n'));
+
+        JsonNode resultados = json(mockMvc.perform(post("/pacientes/batch").param("tamanhoLote", "2")
+                .contentType(MediaType.APPLICATION_NDJSON).content(ndjson.toString()))
+            .andExpect(status().isOk()));
+
+        assertEquals(3, resultados.size());
+        assertTrue(resultados.get(0).get("sucesso").asBoolean());
+        assertEquals(2, resultados.get(1).get("lote").asInt());
+        assertEquals(2, resultados.get(1).get("quantidade").asInt());
+        assertEquals(false, resultados.get(1).get("sucesso").asBoolean());
+        assertTrue(resultados.get(1).hasNonNull("erro"));
+        assertTrue(resultados.get(2).get("sucesso").asBoolean());
+        assertEquals(1, resultados.get(2).get("quantidade").asInt());
+
+        // Os lotes gravados ficam; o paciente válido do lote com falha não
+        assertEquals(List.of("Paciente Importado 1", "Paciente Importado 2", "Paciente Importado 5"), nomesExportados("Paciente Importado"));
+    }
+
+    @Test
+    void exclusaoRespondeNoContentENotFoundParaPacienteInexistente() throws Exception {
+        long id = adicionarPaciente("Paciente Exclusão");
+
+        mockMvc.perform(delete("/pacientes/{id}", id))
+            .andExpect(status().isNoContent());
+        mockMvc.perform(get("/pacientes/{id}", id))
+            .andExpect(status().isNotFound());
+        mockMvc.perform(delete("/pacientes/{id}", id))
+            .andExpect(status().isNotFound())
+            .andExpect(content().contentType(MediaType.APPLICATION_PROBLEM_JSON));
+    }
+
+    @Test
+    void estatisticasDoCacheContamAcertoNaSegundaBusca() throws Exception {
+        long id = adicionarPaciente("Paciente Cache");
+        JsonNode antes = estatisticasCache();
+
+        mockMvc.perform(get("/pacientes/{id}", id)).andExpect(status().isOk());
+        mockMvc.perform(get("/pacientes/{id}", id)).andExpect(status().isOk());
+
+        JsonNode depois = estatisticasCache();
+        assertTrue(depois.get("acertos").asLong() > antes.get("acertos").asLong());
+        assertTrue(depois.get("falhas").asLong() > antes.get("falhas").asLong());
+        assertTrue(depois.get("tamanho").asLong() > 0);
+    }
+
+    private List<String> nomesExportados(String prefixo) throws Exception {
+        var resultado = mockMvc.perform(get("/pacientes/export")).andExpect(request().asyncStarted()).andReturn();
+        String resposta = mockMvc.perform(asyncDispatch(resultado))
+            .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+        var nomes = new ArrayList<String>();
+        for (String linha : resposta.split("\n")) {
+            String nome = objectMapper.readTree(linha).get("nome").asText();
+            if (nome.startsWith(prefixo)) {
+                nomes.add(nome);
+            }
+        }
+        return nomes;
+    }
+
+    private JsonNode json(ResultActions resultado) throws Exception {
+        return objectMapper.readTree(resultado.andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8));
+    }
+
+    private JsonNode estatisticasCache() throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/cache/pacientes"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString());
+    }
+
+    private long adicionarPaciente(String nome) throws Exception {
+        String resposta = mockMvc.perform(post("/pacientes").contentType(MediaType.APPLICATION_JSON).content(paciente(nome)))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(resposta).get("id").asLong();
+    }
+
+    private static String paciente(String nome) {
+        return """
+            {"nome": "%s", "dataNascimento": "1990-01-02", "genero": "F",
+             "contato": {"telefone": "85999990000", "email": "paciente@email.com"},
+             "endereco": {"rua": "Rua A", "numero": 10, "cidade": "Fortaleza", "estado": "CE", "cep": "60000000"},
+             "historicoMedico": [
+               {"dataConsulta": "2024-01-10", "diagnostico": "Gripe", "tratamento": "Repouso"},
+               {"dataConsulta": "2024-02-10", "diagnostico": "Retorno"}]}
+            """.formatted(nome);
+    }
+}
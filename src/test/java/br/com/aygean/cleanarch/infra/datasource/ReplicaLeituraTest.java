@@ -0,0 +1,91 @@
+package br.com.aygean.cleanarch.infra.datasource;
+
+import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import javax.sql.DataSource;
+import java.net.ServerSocket;
+import java.sql.DriverManager;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Banco principal em memória e réplica em um servidor H2 próprio, que o teste pode derrubar.
+// A réplica não recebe replicação: só tem o esquema, então tudo o que for lido dela aparece vazio.
+@SpringBootTest(properties = {
+    "pacientes.replica.ativo=true",
+    "spring.datasource.url=jdbc:h2:mem:principal;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+    "pacientes.replica.datasource.username=sa",
+    "pacientes.replica.intervalo-verificacao=1h"})
+class ReplicaLeituraTest {
+
+    private static Server servidorReplica;
+    private static String urlReplica;
+
+    @Autowired
+    private PacienteGateway pacienteGateway;
+
+    @Autowired
+    private VerificadorReplica verificadorReplica;
+
+    @Autowired
+    @Qualifier("dataSourcePrincipal")
+    private DataSource dataSourcePrincipal;
+
+    @DynamicPropertySource
+    static void replica(DynamicPropertyRegistry registry) throws Exception {
+        int porta;
+        try (var socket = new ServerSocket(0)) {
+            porta = socket.getLocalPort();
+        }
+        servidorReplica = Server.createTcpServer("-tcpPort", String.valueOf(porta), "-ifNotExists").start();
+        urlReplica = "jdbc:h2:tcp://localhost:" + porta + "/mem:replica;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+        registry.add("pacientes.replica.datasource.jdbc-url", () -> urlReplica);
+    }
+
+    @AfterAll
+    static void pararReplica() {
+        servidorReplica.stop();
+    }
+
+    @Test
+    void leiturasVaoParaReplicaEVoltamAoPrincipalQuandoElaCai() throws Exception {
+        copiarEsquemaParaReplica();
+        Paciente salvo = pacienteGateway.adicionarPaciente(new Paciente(null, "Paciente Replicado", LocalDate.of(1990, 1, 1), "F",
+            null, null, List.of()));
+
+        // A listagem é somente leitura e vai para a réplica, que não tem o paciente
+        assertFalse(contem(pacienteGateway.listarPacientes(null, 100).getItens(), salvo));
+        // Quem acabou de gravar lê a própria gravação no banco principal
+        assertTrue(pacienteGateway.buscarPacientePorId(salvo.getId()).isPresent());
+
+        servidorReplica.stop();
+        assertFalse(verificadorReplica.verificar());
+        assertTrue(contem(pacienteGateway.listarPacientes(null, 100).getItens(), salvo));
+    }
+
+    private void copiarEsquemaParaReplica() throws Exception {
+        List<String> comandos = new JdbcTemplate(dataSourcePrincipal).queryForList("SCRIPT NODATA", String.class);
+        try (var conexao = DriverManager.getConnection(urlReplica, "sa", "");
+             var statement = conexao.createStatement()) {
+            for (String comando : comandos) {
+                statement.execute(comando);
+            }
+        }
+    }
+
+    private static boolean contem(List<Paciente> pacientes, Paciente paciente) {
+        return pacientes.stream().anyMatch(p -> p.getId().equals(paciente.getId()));
+    }
+}
@@ -0,0 +1,70 @@
+package br.com.aygean.cleanarch.infra.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class IndiceTrigramasTest {
+
+    @Test
+    void buscaIgnoraAcentosEMaiusculas() {
+        var indice = new IndiceTrigramas();
+        indice.reconstruir(new long[]{1, 2, 3}, new String[]{"João Conceição", "JOANA ARAÚJO", "Pedro Souza"});
+
+        assertEquals(List.of(1L), indice.buscar("joao", 10));
+        assertEquals(List.of(1L), indice.buscar("CONCEICAO", 10));
+        assertEquals(List.of(2L), indice.buscar("araújo", 10));
+        assertEquals(List.of(1L, 2L), indice.buscar("  JoA ", 10));
+        assertEquals(List.of(), indice.buscar("silva", 10));
+    }
+
+    @Test
+    void consultasCurtasPercorremOsIdsEmOrdem() {
+        var indice = new IndiceTrigramas();
+        indice.reconstruir(new long[]{1, 2, 3, 4}, new String[]{"Ana", "Bruno", "Ângela", "Luana"});
+
+        // Com menos de três caracteres não há trigramas: os textos são comparados um a um
+        assertEquals(List.of(1L, 3L, 4L), indice.buscar("an", 10));
+        assertEquals(List.of(1L, 3L), indice.buscar("AN", 2));
+        assertEquals(List.of(1L, 2L, 3L, 4L), indice.buscar("N", 10));
+        assertEquals(List.of(1L, 2L), indice.buscar("", 2));
+    }
+
+    @Test
+    void renomearTrocaOsTrigramasDoId() {
+        var indice = new IndiceTrigramas();
+        indice.reconstruir(new long[]{1, 2}, new String[]{"Maria Silva", "Carlos Lima"});
+
+        indice.adicionar(1, "Maria Souza");
+
+        assertEquals(List.of(), indice.buscar("silva", 10));
+        assertEquals(List.of(1L), indice.buscar("souza", 10));
+        assertEquals(List.of(1L), indice.buscar("maria", 10));
+        assertEquals(2, indice.tamanho());
+    }
+
+    @Test
+    void removerTiraOIdDeTodasAsBuscas() {
+        var indice = new IndiceTrigramas();
+        indice.reconstruir(new long[]{1, 2}, new String[]{"Maria Silva", "Mariana Silva"});
+
+        indice.remover(1);
+
+        assertEquals(List.of(2L), indice.buscar("silva", 10));
+        assertEquals(List.of(2L), indice.buscar("ma", 10));
+        assertEquals(1, indice.tamanho());
+    }
+
+    @Test
+    void adicionarForaDeOrdemMantemOsIdsOrdenados() {
+        var indice = new IndiceTrigramas();
+        indice.adicionar(30, "Paciente C");
+        indice.adicionar(10, "Paciente A");
+        indice.adicionar(20, "Paciente B");
+
+        assertEquals(List.of(10L, 20L, 30L), indice.buscar("paciente", 10));
+        assertEquals(List.of(10L, 20L), indice.buscar("paciente", 2));
+    }
+}
@@ -0,0 +1,60 @@
+package br.com.aygean.cleanarch.infra.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "pacientes.sql.perfil.cabecalhos=true")
+@AutoConfigureMockMvc
+class MetricasTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void requisicaoRegistraTimersEComandosSql() throws Exception {
+        mockMvc.perform(post("/pacientes").contentType(MediaType.APPLICATION_JSON).content("""
+                {"nome": "Metricas", "dataNascimento": "1990-01-01", "genero": "F",
+                 "contato": {"telefone": "85999990000", "email": "metricas@email.com"}}
+                """))
+            .andExpect(status().isOk());
+        mockMvc.perform(get("/pacientes").param("limit", "10"))
+            .andExpect(status().isOk());
+
+        assertNotNull(meterRegistry.find("pacientes.usecase").tags("metodo", "adicionarPaciente", "excecao", "none").timer());
+        assertNotNull(meterRegistry.find("pacientes.gateway").tags("camada", "PacienteGatewayImpl", "metodo", "adicionarPaciente").timer());
+        assertTrue(meterRegistry.find("pacientes.converter").tag("conversao", "dominio-entidade").timer().count() > 0);
+
+        var comandos = meterRegistry.find("pacientes.requisicao.sql.comandos").tags("metodo", "POST", "uri", "/pacientes").summary();
+        assertTrue(comandos.count() > 0);
+        assertTrue(comandos.totalAmount() > 0);
+        var linhas = meterRegistry.find("pacientes.requisicao.sql.linhas").tags("metodo", "GET", "uri", "/pacientes").summary();
+        assertTrue(linhas.totalAmount() > 0);
+    }
+
+    @Test
+    void modoDepuracaoEnviaResumoSqlNosCabecalhos() throws Exception {
+        mockMvc.perform(get("/pacientes").param("limit", "10"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists("X-Sql-Comandos"))
+            .andExpect(header().exists("X-Sql-Linhas"))
+            .andExpect(header().exists("X-Sql-Tempo-Ms"));
+        mockMvc.perform(get("/pacientes/{id}", 999_999))
+            .andExpect(status().isNotFound())
+            .andExpect(header().string("X-Sql-Comandos", "1"));
+    }
+}
@@ -0,0 +1,163 @@
+package br.com.aygean.cleanarch.infra.service;
+
+import br.com.aygean.cleanarch.domain.AlteracaoPaciente;
+import br.com.aygean.cleanarch.domain.TipoAlteracao;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AlteracoesPacienteGatewayImplTest {
+
+    @Test
+    void reconexaoRecebeAsAlteracoesPerdidasEContinua() throws Exception {
+        try (var feed = new AlteracoesPacienteGatewayImpl(100, 10, 2, new SimpleMeterRegistry())) {
+            var primeira = new Coletor();
+            feed.assinar(null, primeira);
+            for (long id = 1; id <= 5; id++) {
+                feed.publicar(TipoAlteracao.ADICIONADO, id, 0L);
+            }
+            primeira.aguardar(5);
+            String ultimaRecebida = feed.idEvento(primeira.recebidas.get(1));
+
+            var reconectada = new Coletor();
+            feed.assinar(ultimaRecebida, reconectada);
+            feed.publicar(TipoAlteracao.REMOVIDO, 6L, null);
+
+            reconectada.aguardar(4);
+            assertEquals(List.of(3L, 4L, 5L, 6L), reconectada.recebidas.stream().map(AlteracaoPaciente::getPacienteId).toList());
+            assertEquals(TipoAlteracao.REMOVIDO, reconectada.recebidas.get(3).getTipo());
+            assertEquals(0, reconectada.lacunas.get());
+        }
+    }
+
+    @Test
+    void publicacoesSimultaneasChegamEmOrdemESemLacunas() throws Exception {
+        try (var feed = new AlteracoesPacienteGatewayImpl(10_000, 10_000, 2, new SimpleMeterRegistry())) {
+            var coletor = new Coletor();
+            feed.assinar(null, coletor);
+            var gravadoras = new ArrayList<Thread>();
+            for (int t = 0; t < 4; t++) {
+                var gravadora = new Thread(() -> {
+                    for (long id = 1; id <= 500; id++) {
+                        feed.publicar(TipoAlteracao.ADICIONADO, id, 0L);
+                    }
+                });
+                gravadora.start();
+                gravadoras.add(gravadora);
+            }
+            for (Thread gravadora : gravadoras) {
+                gravadora.join();
+            }
+
+            coletor.aguardar(2_000);
+            var sequencias = coletor.recebidas.stream().map(AlteracaoPaciente::getSequencia).toList();
+            assertEquals(LongStream.rangeClosed(1, 2_000).boxed().toList(), sequencias);
+        }
+    }
+
+    @Test
+    void ultimaRecebidaForaDoBufferAvisaLacuna() throws Exception {
+        try (var feed = new AlteracoesPacienteGatewayImpl(3, 10, 2, new SimpleMeterRegistry());
+             var reiniciado = new AlteracoesPacienteGatewayImpl(3, 10, 2, new SimpleMeterRegistry())) {
+            var coletor = new Coletor();
+            feed.assinar(null, coletor);
+            // O buffer guarda só três alterações: cada uma é recebida antes da seguinte para não ser sobrescrita
+            for (long id = 1; id <= 5; id++) {
+                feed.publicar(TipoAlteracao.ATUALIZADO, id, 1L);
+                coletor.aguardar((int) id);
+            }
+            String antiga = feed.idEvento(coletor.recebidas.get(0));
+            String ultima = feed.idEvento(coletor.recebidas.get(4));
+
+            var atrasada = new Coletor();
+            feed.assinar(antiga, atrasada);
+            // Depois de um reinício as sequências recomeçam; o id de antes do reinício é de outra instância
+            reiniciado.publicar(TipoAlteracao.ATUALIZADO, 1L, 2L);
+            var outraInstancia = new Coletor();
+            reiniciado.assinar(ultima, outraInstancia);
+
+            atrasada.lacuna.await(5, TimeUnit.SECONDS);
+            outraInstancia.lacuna.await(5, TimeUnit.SECONDS);
+            assertEquals(1, atrasada.lacunas.get());
+            assertEquals(1, outraInstancia.lacunas.get());
+            assertTrue(atrasada.recebidas.isEmpty());
+        }
+    }
+
+    @Test
+    void assinanteLentoEDesligadoSemSegurarQuemGrava() throws Exception {
+        var registry = new SimpleMeterRegistry();
+        try (var feed = new AlteracoesPacienteGatewayImpl(100, 2, 2, registry)) {
+            var liberar = new CountDownLatch(1);
+            var encerrada = new CountDownLatch(1);
+            feed.assinar(null, new AlteracoesPacienteGatewayImpl.Ouvinte() {
+                @Override
+                public void lacuna() {
+                }
+
+                @Override
+                public void receber(AlteracaoPaciente alteracao) {
+                    try {
+                        liberar.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                @Override
+                public void encerrada() {
+                    encerrada.countDown();
+                }
+            });
+
+            // O assinante está parado na primeira alteração; as gravações seguem até a fila dele encher
+            for (long id = 1; id <= 10; id++) {
+                feed.publicar(TipoAlteracao.ADICIONADO, id, 0L);
+            }
+
+            assertTrue(encerrada.await(5, TimeUnit.SECONDS));
+            assertEquals(0, feed.assinantes());
+            assertEquals(1, registry.get("pacientes.alteracoes.desligados").counter().count());
+            liberar.countDown();
+        }
+    }
+
+    private static final class Coletor implements AlteracoesPacienteGatewayImpl.Ouvinte {
+
+        private final List<AlteracaoPaciente> recebidas = new CopyOnWriteArrayList<>();
+        private final AtomicInteger lacunas = new AtomicInteger();
+        private final CountDownLatch lacuna = new CountDownLatch(1);
+
+        @Override
+        public void lacuna() {
+            lacunas.incrementAndGet();
+            lacuna.countDown();
+        }
+
+        @Override
+        public void receber(AlteracaoPaciente alteracao) {
+            recebidas.add(alteracao);
+        }
+
+        @Override
+        public void encerrada() {
+        }
+
+        private void aguardar(int quantidade) throws InterruptedException {
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (recebidas.size() < quantidade && System.nanoTime() < limite) {
+                Thread.sleep(10);
+            }
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package br.com.aygean.cleanarch.infra.service;
+
+import br.com.aygean.cleanarch.domain.Endereco;
+import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import br.com.aygean.cleanarch.infra.converter.PacienteConverter;
+import br.com.aygean.cleanarch.infra.index.ContagensPacientes;
+import br.com.aygean.cleanarch.infra.index.ContagensPacientes.Perfil;
+import br.com.aygean.cleanarch.infra.repository.PacienteRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:estatisticas;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+class EstatisticasPacientesTest {
+
+    @Autowired
+    private PacienteGateway pacienteGateway;
+
+    @Autowired
+    private EstatisticasPacientes estatisticasPacientes;
+
+    @Autowired
+    private PacienteRepository pacienteRepository;
+
+    @Test
+    void contagensAcompanhamAsGravacoes() {
+        long totalAntes = estatisticasPacientes.estatisticas().total();
+        var salvos = pacienteGateway.adicionarPacientes(List.of(
+            novoPaciente("Fortaleza", "XA", "F"),
+            novoPaciente("Fortaleza", "XA", "F"),
+            novoPaciente("Sobral", "XA", "M")));
+
+        var estatisticas = estatisticasPacientes.estatisticas();
+        assertEquals(totalAntes + 3, estatisticas.total());
+        assertEquals(3, estatisticas.porEstado().get("XA"));
+        assertEquals(Map.of("Fortaleza", 2L, "Sobral", 1L), estatisticas.porCidade().get("XA"));
+
+        pacienteGateway.atualizarPacienteParcialmente(salvos.get(0).getId(),
+            Map.of("endereco", Map.of("cidade", "Sobral")), null);
+        pacienteGateway.deletarPacientes(List.of(salvos.get(2).getId()));
+
+        estatisticas = estatisticasPacientes.estatisticas();
+        assertEquals(totalAntes + 2, estatisticas.total());
+        assertEquals(Map.of("Fortaleza", 1L, "Sobral", 1L), estatisticas.porCidade().get("XA"));
+        assertTrue(estatisticas.porFaixaEtaria().get("30-44") >= 2);
+    }
+
+    @Test
+    void reconciliacaoCorrigeGravacoesFeitasForaDoGateway() {
+        // Gravação direta no banco, sem passar pelo gateway que ajusta as contagens
+        var salvo = pacienteRepository.save(PacienteConverter.fromDomainToEntity(novoPaciente("Crato", "XB", "F")));
+        assertNull(estatisticasPacientes.estatisticas().porEstado().get("XB"));
+
+        assertTrue(estatisticasPacientes.reconciliar() >= 1);
+        assertEquals(1, estatisticasPacientes.estatisticas().porEstado().get("XB"));
+
+        pacienteRepository.deleteById(salvo.getId());
+        estatisticasPacientes.reconciliar();
+        assertNull(estatisticasPacientes.estatisticas().porEstado().get("XB"));
+    }
+
+    @Test
+    void reconciliacaoConsideraGravacoesFeitasDuranteALeitura() {
+        var contagens = new ContagensPacientes();
+        var fortaleza = new Perfil("XC", "Fortaleza", "F", null);
+        var sobral = new Perfil("XC", "Sobral", "F", null);
+        contagens.alterar(1, null, fortaleza);
+        contagens.alterar(2, null, fortaleza);
+
+        var reconciliacao = contagens.iniciarReconciliacao();
+        // O paciente 1 muda antes da leitura do bloco, que já o lê alterado; o 2 muda depois da leitura
+        contagens.alterar(1, fortaleza, sobral);
+        reconciliacao.contarBloco(1, 2, Map.of(1L, sobral, 2L, fortaleza));
+        contagens.alterar(2, fortaleza, sobral);
+
+        assertEquals(0, reconciliacao.concluir());
+        assertEquals(2, contagens.total());
+        assertEquals(Map.of("XC", Map.of("Sobral", 2L)), contagens.porCidade());
+    }
+
+    @Test
+    void reconciliacaoNaoPerdeNemDuplicaGravacoesConfirmadasDepoisDaLeitura() {
+        var contagens = new ContagensPacientes();
+        var fortaleza = new Perfil("XD", "Fortaleza", "F", null);
+        var sobral = new Perfil("XD", "Sobral", "F", null);
+        for (long id = 1; id <= 5; id++) {
+            contagens.alterar(id, null, fortaleza);
+        }
+
+        // O paciente 1 tem o commit antes do início da reconciliação, mas só é confirmado depois da leitura
+        var emAndamento = contagens.anunciar(1, fortaleza);
+        var reconciliacao = contagens.iniciarReconciliacao();
+        // O 2 tem o commit antes da leitura e também só é confirmado depois dela; o 3 é desfeito; o 4 é removido antes
+        // da leitura; o 5 tem o commit só depois da conclusão
+        var antesDaLeitura = contagens.anunciar(2, fortaleza);
+        var desfeita = contagens.anunciar(3, fortaleza);
+        var remocao = contagens.anunciar(4, fortaleza);
+        var depoisDaConclusao = contagens.anunciar(5, fortaleza);
+        reconciliacao.contarBloco(1, 5, Map.of(1L, sobral, 2L, sobral, 3L, fortaleza, 5L, fortaleza));
+        emAndamento.confirmar(sobral);
+        antesDaLeitura.confirmar(sobral);
+        desfeita.desfazer();
+        remocao.confirmar(null);
+
+        reconciliacao.concluir();
+        depoisDaConclusao.confirmar(sobral);
+
+        assertEquals(4, contagens.total());
+        assertEquals(Map.of("XD", Map.of("Fortaleza", 1L, "Sobral", 3L)), contagens.porCidade());
+    }
+
+    private static Paciente novoPaciente(String cidade, String estado, String genero) {
+        return new Paciente(null, "Paciente Estatistica", LocalDate.now().minusYears(35), genero, null,
+            new Endereco("Rua A", 10, cidade, estado, "60000000"), List.of());
+    }
+}
@@ -0,0 +1,151 @@
+package br.com.aygean.cleanarch.infra.service;
+
+import br.com.aygean.cleanarch.domain.Contato;
+import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import br.com.aygean.cleanarch.infra.exception.ResultadoIndefinidoException;
+import br.com.aygean.cleanarch.infra.exception.SobrecargaException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+    "pacientes.agrupamento.ativo=true",
+    "pacientes.agrupamento.espera-maxima=50ms",
+    "spring.datasource.url=jdbc:h2:mem:agrupamento;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"})
+class PacienteGatewayAgrupadoTest {
+
+    private static final int CADASTROS = 40;
+
+    @Autowired
+    private PacienteGateway pacienteGateway;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void cadastrosSimultaneosSaoGravadosEmLotes() throws Exception {
+        List<Future<Paciente>> salvos = new ArrayList<>();
+        var executor = Executors.newFixedThreadPool(CADASTROS);
+        try {
+            var largada = new CountDownLatch(1);
+            for (int i = 0; i < CADASTROS; i++) {
+                var paciente = novoPaciente("Paciente Agrupado " + i);
+                salvos.add(executor.submit(() -> {
+                    largada.await();
+                    return pacienteGateway.adicionarPaciente(paciente);
+                }));
+            }
+            largada.countDown();
+
+            for (int i = 0; i < CADASTROS; i++) {
+                var salvo = salvos.get(i).get();
+                // Cada chamada recebe o próprio paciente, já com ID
+                assertEquals("Paciente Agrupado " + i, salvo.getNome());
+                assertEquals(salvo.getNome(), pacienteGateway.buscarPacientePorId(salvo.getId()).orElseThrow().getNome());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        var lotes = meterRegistry.find("pacientes.agrupamento.lote").summary();
+        assertEquals(CADASTROS, (long) lotes.totalAmount());
+        assertTrue(lotes.count() < CADASTROS);
+    }
+
+    @Test
+    void filaCheiaRecusaCadastro() {
+        var liberar = new CountDownLatch(1);
+        // Delegate que segura a gravação do primeiro lote até o teste liberar
+        var delegate = (PacienteGateway) Proxy.newProxyInstance(PacienteGateway.class.getClassLoader(),
+            new Class<?>[]{PacienteGateway.class}, (proxy, metodo, args) -> {
+                liberar.await();
+                return args[0];
+            });
+        var registry = new SimpleMeterRegistry();
+        try (var agrupado = new PacienteGatewayAgrupado(delegate, 1, Duration.ZERO, 1, Duration.ofSeconds(10),
+            Duration.ofSeconds(10), registry)) {
+            CompletableFuture<Paciente> gravando = agrupado.enfileirar(novoPaciente("Primeiro"));
+            // Espera a gravadora retirar o primeiro pedido; o segundo ocupa a única vaga da fila
+            while (registry.get("pacientes.agrupamento.lote").summary().count() == 0) {
+                Thread.onSpinWait();
+            }
+            CompletableFuture<Paciente> naFila = agrupado.enfileirar(novoPaciente("Segundo"));
+
+            assertThrows(SobrecargaException.class, () -> agrupado.enfileirar(novoPaciente("Terceiro")));
+            assertEquals(1, registry.get("pacientes.agrupamento.recusados").counter().count());
+
+            liberar.countDown();
+            assertEquals("Primeiro", gravando.join().getNome());
+            assertEquals("Segundo", naFila.join().getNome());
+        }
+    }
+
+    @Test
+    void pedidoJaEmGravacaoEsperaOFimDoLote() {
+        // Delegate que passa do timeout de gravação, mas termina o lote
+        var delegate = (PacienteGateway) Proxy.newProxyInstance(PacienteGateway.class.getClassLoader(),
+            new Class<?>[]{PacienteGateway.class}, (proxy, metodo, args) -> {
+                Thread.sleep(400);
+                return args[0];
+            });
+        try (var agrupado = new PacienteGatewayAgrupado(delegate, 1, Duration.ZERO, 10, Duration.ofMillis(100),
+            Duration.ofSeconds(10), new SimpleMeterRegistry())) {
+            assertEquals("Demorado", agrupado.adicionarPaciente(novoPaciente("Demorado")).getNome());
+        }
+    }
+
+    @Test
+    void gravacaoDemoradaOuGravadoraParadaNaoPrendemQuemChamou() {
+        var liberar = new CountDownLatch(1);
+        var recebidos = new CopyOnWriteArrayList<String>();
+        var delegate = (PacienteGateway) Proxy.newProxyInstance(PacienteGateway.class.getClassLoader(),
+            new Class<?>[]{PacienteGateway.class}, (proxy, metodo, args) -> {
+                ((List<?>) args[0]).forEach(paciente -> recebidos.add(((Paciente) paciente).getNome()));
+                if (!liberar.await(10, TimeUnit.SECONDS)) {
+                    throw new AssertionError("Gravação não liberada");
+                }
+                // Erro que não é tratado pela gravadora e a encerra
+                throw new OutOfMemoryError("Falha simulada");
+            });
+        try (var agrupado = new PacienteGatewayAgrupado(delegate, 1, Duration.ZERO, 10, Duration.ofMillis(200),
+            Duration.ofMillis(300), new SimpleMeterRegistry())) {
+            // Já em gravação, o pedido não pode ser retirado: passado o limite maior, o resultado é indefinido
+            assertThrows(ResultadoIndefinidoException.class, () -> agrupado.adicionarPaciente(novoPaciente("Demorado")));
+
+            // Ainda na fila, o pedido é retirado e recusado sem chegar a ser gravado
+            assertThrows(SobrecargaException.class, () -> agrupado.adicionarPaciente(novoPaciente("Na fila")));
+
+            CompletableFuture<Paciente> pendente = agrupado.enfileirar(novoPaciente("Pendente"));
+            liberar.countDown();
+            var erro = assertThrows(CompletionException.class, pendente::join);
+            assertInstanceOf(SobrecargaException.class, erro.getCause());
+            assertThrows(SobrecargaException.class, () -> agrupado.adicionarPaciente(novoPaciente("Depois")));
+            assertEquals(List.of("Demorado"), recebidos);
+        }
+    }
+
+    private static Paciente novoPaciente(String nome) {
+        return new Paciente(null, nome, LocalDate.of(1990, 1, 1), "F", new Contato("85999990000", "agrupado@email.com"), null, List.of());
+    }
+}
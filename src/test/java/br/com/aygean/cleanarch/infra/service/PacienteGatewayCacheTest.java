@@ -0,0 +1,144 @@
+package br.com.aygean.cleanarch.infra.service;
+
+import br.com.aygean.cleanarch.domain.HistoricoAdicionado;
+import br.com.aygean.cleanarch.domain.HistoricoMedico;
+import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PacienteGatewayCacheTest {
+
+    private static final long ID = 42L;
+
+    private final AtomicInteger buscas = new AtomicInteger();
+
+    @Test
+    void segundaBuscaPorIdVemDoCache() {
+        var cache = novoCache(buscaContada(buscado -> { }));
+
+        assertEquals("Paciente " + ID, cache.buscarPacientePorId(ID).orElseThrow().getNome());
+        assertEquals("Paciente " + ID, cache.buscarPacientePorId(ID).orElseThrow().getNome());
+
+        assertEquals(1, buscas.get());
+    }
+
+    @Test
+    void escritasRemovemOPacienteDoCache() {
+        var cache = novoCache(buscaContada(buscado -> { }));
+        cache.buscarPacientePorId(ID);
+
+        cache.atualizarPaciente(paciente(ID));
+        cache.buscarPacientePorId(ID);
+        assertEquals(2, buscas.get());
+
+        cache.atualizarPacienteParcialmente(ID, Map.of("nome", "Alterado"), null);
+        cache.buscarPacientePorId(ID);
+        assertEquals(3, buscas.get());
+
+        cache.adicionarHistorico(ID, new HistoricoMedico(LocalDate.of(2024, 1, 1), "Retorno", null, null), null);
+        cache.buscarPacientePorId(ID);
+        assertEquals(4, buscas.get());
+
+        cache.deletarPacientes(List.of(ID));
+        cache.buscarPacientePorId(ID);
+        assertEquals(5, buscas.get());
+    }
+
+    @Test
+    void buscasSimultaneasDoMesmoPacienteCarregamUmaVez() throws Exception {
+        var liberar = new CountDownLatch(1);
+        var cache = novoCache(buscaContada(buscado -> {
+            try {
+                liberar.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+
+        int chamadas = 16;
+        var executor = Executors.newFixedThreadPool(chamadas);
+        try {
+            var resultados = new ArrayList<Future<Optional<Paciente>>>();
+            for (int i = 0; i < chamadas; i++) {
+                resultados.add(executor.submit(() -> cache.buscarPacientePorId(ID)));
+            }
+            // Espera a primeira carga começar; as demais chamadas aguardam por ela
+            long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (buscas.get() == 0 && System.nanoTime() < limite) {
+                Thread.sleep(1);
+            }
+            Thread.sleep(50);
+            liberar.countDown();
+            for (Future<Optional<Paciente>> resultado : resultados) {
+                assertEquals(ID, resultado.get().orElseThrow().getId());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, buscas.get());
+    }
+
+    @Test
+    void estatisticasContamAcertosEFalhas() {
+        var cache = novoCache(buscaContada(buscado -> { }));
+
+        cache.buscarPacientePorId(ID);
+        cache.buscarPacientePorId(ID);
+        cache.buscarPacientePorId(ID);
+        cache.buscarPacientePorId(ID + 1);
+
+        var estatisticas = cache.estatisticas();
+        assertEquals(2, estatisticas.hitCount());
+        assertEquals(2, estatisticas.missCount());
+        assertEquals(2, estatisticas.loadCount());
+        assertEquals(0.5, estatisticas.hitRate());
+        assertEquals(2, cache.tamanho());
+        assertTrue(estatisticas.averageLoadPenalty() > 0);
+    }
+
+    private static PacienteGatewayCache novoCache(PacienteGateway delegate) {
+        return new PacienteGatewayCache(delegate, 100, Duration.ofMinutes(10), Duration.ofSeconds(5));
+    }
+
+    // Delegate que conta as buscas por ID e responde às escritas com o próprio paciente
+    private PacienteGateway buscaContada(Consumer<Long> aoBuscar) {
+        return (PacienteGateway) Proxy.newProxyInstance(PacienteGateway.class.getClassLoader(),
+            new Class<?>[]{PacienteGateway.class}, (proxy, metodo, args) -> switch (metodo.getName()) {
+                case "buscarPacientePorId" -> {
+                    buscas.incrementAndGet();
+                    aoBuscar.accept((Long) args[0]);
+                    yield Optional.of(paciente((Long) args[0]));
+                }
+                case "atualizarPaciente" -> Optional.of(args[0]);
+                case "atualizarPacienteParcialmente" -> Optional.of(paciente((Long) args[0]));
+                case "adicionarHistorico" -> Optional.of(new HistoricoAdicionado((HistoricoMedico) args[1], 2L));
+                case "deletarPacientes" -> args[0];
+                default -> throw new UnsupportedOperationException(metodo.getName());
+            });
+    }
+
+    private static Paciente paciente(long id) {
+        var paciente = new Paciente();
+        paciente.setId(id);
+        paciente.setNome("Paciente " + id);
+        paciente.setVersao(1L);
+        return paciente;
+    }
+}
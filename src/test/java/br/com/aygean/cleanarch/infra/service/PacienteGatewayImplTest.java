@@ -0,0 +1,250 @@
+package br.com.aygean.cleanarch.infra.service;
+
+import br.com.aygean.cleanarch.domain.CampoPaciente;
+import br.com.aygean.cleanarch.domain.Contato;
+import br.com.aygean.cleanarch.domain.Endereco;
+import br.com.aygean.cleanarch.domain.HistoricoMedico;
+import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.infra.exception.AlteracaoInvalidaException;
+import br.com.aygean.cleanarch.infra.exception.ParametroInvalidoException;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PacienteGatewayImplTest {
+
+    private static final int TOTAL_PACIENTES = 20;
+
+    @Autowired
+    private PacienteGatewayImpl pacienteGateway;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        var pacientes = new ArrayList<Paciente>();
+        for (int i = 0; i < TOTAL_PACIENTES; i++) {
+            pacientes.add(novoPaciente("Paciente " + i, 3));
+        }
+        pacienteGateway.adicionarPacientes(pacientes);
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void listarPacientesUsaNumeroConstanteDeConsultas() {
+        var pagina = pacienteGateway.listarPacientes(null, TOTAL_PACIENTES);
+
+        assertEquals(TOTAL_PACIENTES, pagina.getItens().size());
+        pagina.getItens().forEach(p -> assertEquals(3, p.getHistoricoMedico().size()));
+        // Uma consulta para pacientes, contatos e endereços e outra para os históricos
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void buscarPacientesUsaNumeroConstanteDeConsultas() {
+        var pacientes = pacienteGateway.buscarPacientes("paciente", 50).orElseThrow();
+
+        assertEquals(true, pacientes.size() >= TOTAL_PACIENTES);
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void buscarPacientePorIdUsaUmaConsulta() {
+        var id = pacienteGateway.listarPacientes(null, 1).getItens().get(0).getId();
+        statistics.clear();
+
+        var paciente = pacienteGateway.buscarPacientePorId(id).orElseThrow();
+
+        assertEquals(3, paciente.getHistoricoMedico().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void buscarPacientesPorIdsUsaNumeroConstanteDeConsultas() {
+        var ids = pacienteGateway.listarPacientes(null, TOTAL_PACIENTES).getItens().stream().map(Paciente::getId).toList();
+        statistics.clear();
+
+        var pacientes = pacienteGateway.buscarPacientesPorIds(ids);
+
+        assertEquals(TOTAL_PACIENTES, pacientes.size());
+        pacientes.forEach(p -> assertEquals(3, p.getHistoricoMedico().size()));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void exportarPacientesCarregaOHistoricoPorBloco() {
+        var exportados = new ArrayList<Paciente>();
+        pacienteGateway.exportarPacientes(exportados::add);
+
+        assertTrue(exportados.size() >= TOTAL_PACIENTES);
+        exportados.stream().filter(p -> p.getNome().matches("Paciente \\d+"))
+            .forEach(p -> assertEquals(3, p.getHistoricoMedico().size()));
+        // Duas consultas por bloco de 500 pacientes (mais uma, vazia, quando o total é múltiplo do bloco)
+        assertTrue(statistics.getPrepareStatementCount() <= 2L * (exportados.size() / 500 + 1));
+    }
+
+    @Test
+    void listarPacientesComCamposUsaUmaConsultaSemAssociacoesNaoPedidas() {
+        var pagina = pacienteGateway.listarPacientes(null, TOTAL_PACIENTES, EnumSet.of(CampoPaciente.ID, CampoPaciente.NOME, CampoPaciente.CONTATO));
+
+        assertEquals(TOTAL_PACIENTES, pagina.getItens().size());
+        pagina.getItens().forEach(p -> {
+            assertNotNull(p.getNome());
+            assertNotNull(p.getContato());
+            assertNull(p.getEndereco());
+            assertNull(p.getHistoricoMedico());
+        });
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    @Test
+    void atualizarParcialmenteAlteraAsLinhasExistentes() {
+        var id = pacienteGateway.listarPacientes(null, 1).getItens().get(0).getId();
+        statistics.clear();
+
+        var paciente = pacienteGateway.atualizarPacienteParcialmente(id, Map.of(
+            "nome", "Paciente Alterado",
+            "contato", Map.of("email", "novo@email.com")), null).orElseThrow();
+
+        assertEquals("Paciente Alterado", paciente.getNome());
+        assertEquals("85999990000", paciente.getContato().getTelefone());
+        assertEquals("novo@email.com", paciente.getContato().getEmail());
+        assertEquals(3, paciente.getHistoricoMedico().size());
+        // Nenhuma linha é inserida ou removida: apenas um UPDATE no paciente e outro no contato
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(0, statistics.getEntityDeleteCount());
+        assertEquals(2, statistics.getEntityUpdateCount());
+    }
+
+    @Test
+    void atualizarParcialmenteCasaOHistoricoNaOrdemDasLeituras() {
+        var paciente = pacienteGateway.adicionarPaciente(novoPaciente("Paciente Histórico", 3));
+        var lido = pacienteGateway.buscarPacientePorId(paciente.getId()).orElseThrow().getHistoricoMedico();
+        var historico = new ArrayList<Map<String, Object>>();
+        for (HistoricoMedico consulta : lido) {
+            historico.add(Map.of("dataConsulta", consulta.getDataConsulta().toString(), "diagnostico", consulta.getDiagnostico()));
+        }
+        historico.set(1, Map.of("dataConsulta", lido.get(1).getDataConsulta().toString(), "diagnostico", "Corrigido"));
+
+        var alterado = pacienteGateway.atualizarPacienteParcialmente(paciente.getId(),
+            Map.of("historicoMedico", historico), null).orElseThrow().getHistoricoMedico();
+
+        assertEquals(List.of(lido.get(0).getDiagnostico(), "Corrigido", lido.get(2).getDiagnostico()),
+            alterado.stream().map(HistoricoMedico::getDiagnostico).toList());
+        assertEquals(alterado.stream().map(HistoricoMedico::getDiagnostico).toList(),
+            pacienteGateway.buscarPacientePorId(paciente.getId()).orElseThrow().getHistoricoMedico().stream()
+                .map(HistoricoMedico::getDiagnostico).toList());
+    }
+
+    @Test
+    void atualizarParcialmenteRecusaNumeroNaoInteiro() {
+        var paciente = pacienteGateway.adicionarPaciente(novoPaciente("Paciente Número", 1));
+
+        assertThrows(AlteracaoInvalidaException.class, () -> pacienteGateway.atualizarPacienteParcialmente(
+            paciente.getId(), Map.of("endereco", Map.of("numero", 10.5)), null));
+        assertThrows(AlteracaoInvalidaException.class, () -> pacienteGateway.atualizarPacienteParcialmente(
+            paciente.getId(), Map.of("endereco", Map.of("numero", 3_000_000_000L)), null));
+        assertEquals(100, pacienteGateway.buscarPacientePorId(paciente.getId()).orElseThrow().getEndereco().getNumero());
+
+        var alterado = pacienteGateway.atualizarPacienteParcialmente(paciente.getId(),
+            Map.of("endereco", Map.of("numero", 12.0)), null).orElseThrow();
+        assertEquals(12, alterado.getEndereco().getNumero());
+    }
+
+    @Test
+    void alteracoesIncrementamAVersao() {
+        var paciente = pacienteGateway.adicionarPaciente(novoPaciente("Paciente Versionado", 1));
+        long versao = paciente.getVersao();
+
+        // Só o contato muda: a versão do paciente é incrementada mesmo sem UPDATE de colunas do paciente
+        var alterado = pacienteGateway.atualizarPacienteParcialmente(paciente.getId(),
+            Map.of("contato", Map.of("telefone", "85911112222")), versao).orElseThrow();
+        assertEquals(versao + 1, alterado.getVersao());
+
+        // Um patch sem mudanças não altera a versão
+        pacienteGateway.atualizarPacienteParcialmente(paciente.getId(), Map.of("contato", Map.of("telefone", "85911112222")), null);
+        assertEquals(versao + 1, pacienteGateway.buscarVersaoPaciente(paciente.getId()).orElseThrow());
+
+        var adicionado = pacienteGateway.adicionarHistorico(paciente.getId(),
+            new HistoricoMedico(LocalDate.of(2024, 2, 1), "Retorno", null, null), null).orElseThrow();
+        assertEquals(versao + 2, adicionado.getVersaoPaciente());
+        assertEquals(versao + 2, pacienteGateway.buscarVersaoPaciente(paciente.getId()).orElseThrow());
+
+        alterado.setNome("Paciente Substituído");
+        alterado.setVersao(versao + 2);
+        assertEquals(versao + 3, pacienteGateway.atualizarPaciente(alterado).orElseThrow().getVersao());
+    }
+
+    @Test
+    void versaoDesatualizadaImpedeAtualizacao() {
+        var paciente = pacienteGateway.adicionarPaciente(novoPaciente("Paciente Versionado", 1));
+        long versao = paciente.getVersao();
+        pacienteGateway.atualizarPacienteParcialmente(paciente.getId(), Map.of("nome", "Primeira Alteração"), versao);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () ->
+            pacienteGateway.atualizarPacienteParcialmente(paciente.getId(), Map.of("nome", "Segunda Alteração"), versao));
+        paciente.setVersao(versao);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> pacienteGateway.atualizarPaciente(paciente));
+        assertEquals("Primeira Alteração", pacienteGateway.buscarPacientePorId(paciente.getId()).orElseThrow().getNome());
+    }
+
+    @Test
+    void cursorDoHistoricoDeOutroPacienteEInvalido() {
+        var ids = pacienteGateway.listarPacientes(null, 2).getItens().stream().map(Paciente::getId).toList();
+        var primeiraPagina = pacienteGateway.listarHistorico(ids.get(0), null, null, null, 1).orElseThrow();
+        assertNotNull(primeiraPagina.getProximoCursor());
+
+        var segundaPagina = pacienteGateway.listarHistorico(ids.get(0), null, null, primeiraPagina.getProximoCursor(), 1);
+        assertEquals(1, segundaPagina.orElseThrow().getItens().size());
+        assertThrows(ParametroInvalidoException.class, () ->
+            pacienteGateway.listarHistorico(ids.get(1), null, null, primeiraPagina.getProximoCursor(), 1));
+    }
+
+    @Test
+    void deletarPacientesUsaNumeroConstanteDeComandos() {
+        var ids = pacienteGateway.listarPacientes(null, 5).getItens().stream().map(Paciente::getId).toList();
+        statistics.clear();
+
+        assertEquals(ids, pacienteGateway.deletarPacientes(ids));
+
+        // Um SELECT dos contatos e endereços e um DELETE para pacientes (com histórico), contatos e endereços
+        assertEquals(4, statistics.getPrepareStatementCount());
+        assertEquals(0, pacienteGateway.buscarPacientesPorIds(ids).size());
+        assertEquals(List.of(), pacienteGateway.deletarPacientes(ids));
+    }
+
+    private static Paciente novoPaciente(String nome, int consultas) {
+        List<HistoricoMedico> historico = new ArrayList<>();
+        for (int i = 0; i < consultas; i++) {
+            historico.add(new HistoricoMedico(LocalDate.of(2024, 1, i + 1), "Diagnóstico " + i, "Tratamento", "Observações"));
+        }
+        return new Paciente(null, nome, LocalDate.of(1990, 5, 10), "F",
+            new Contato("85999990000", "paciente@email.com"),
+            new Endereco("Rua A", 100, "Fortaleza", "CE", "60000-000"),
+            historico);
+    }
+}
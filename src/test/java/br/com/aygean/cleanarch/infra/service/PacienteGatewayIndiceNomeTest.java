@@ -0,0 +1,67 @@
+package br.com.aygean.cleanarch.infra.service;
+
+import br.com.aygean.cleanarch.domain.Contato;
+import br.com.aygean.cleanarch.domain.Paciente;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Banco próprio: as buscas por trecho de nome contam com os pacientes gravados só por este teste
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:indicenome;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1")
+class PacienteGatewayIndiceNomeTest {
+
+    @Autowired
+    private PacienteGatewayIndiceNome pacienteGatewayIndiceNome;
+
+    // Abaixo do índice: grava sem atualizá-lo, como uma gravação feita por outra instância
+    @Autowired
+    private PacienteGatewayResumo pacienteGatewayResumo;
+
+    @Test
+    void escritasAtualizamOIndice() {
+        var paciente = pacienteGatewayIndiceNome.adicionarPaciente(novoPaciente("Íris Conceição"));
+        assertEquals(List.of(paciente.getId()), ids("iris conceicao"));
+
+        paciente.setNome("Íris Barbosa");
+        pacienteGatewayIndiceNome.atualizarPaciente(paciente);
+        assertTrue(pacienteGatewayIndiceNome.buscarPacientes("conceicao", 10).isEmpty());
+        assertEquals(List.of(paciente.getId()), ids("BARBOSA"));
+
+        pacienteGatewayIndiceNome.atualizarPacienteParcialmente(paciente.getId(), Map.of("nome", "Íris Tavares"), null);
+        assertTrue(pacienteGatewayIndiceNome.buscarPacientes("barbosa", 10).isEmpty());
+        assertEquals(List.of(paciente.getId()), ids("tavares"));
+
+        pacienteGatewayIndiceNome.deletarPacientes(List.of(paciente.getId()));
+        assertTrue(pacienteGatewayIndiceNome.buscarPacientes("tavares", 10).isEmpty());
+    }
+
+    @Test
+    void reconstrucaoSegueOBanco() {
+        var gravadoPorFora = pacienteGatewayResumo.adicionarPaciente(novoPaciente("Otávio Reconstruído"));
+        var removidoPorFora = pacienteGatewayIndiceNome.adicionarPaciente(novoPaciente("Otávio Removido"));
+        pacienteGatewayResumo.deletarPacientes(List.of(removidoPorFora.getId()));
+        // O índice ainda não viu as duas gravações: o removido é encontrado, mas não carrega do banco
+        assertTrue(pacienteGatewayIndiceNome.buscarPacientes("reconstruido", 10).isEmpty());
+        assertEquals(List.of(), pacienteGatewayIndiceNome.buscarPacientes("otavio removido", 10).orElseThrow());
+
+        pacienteGatewayIndiceNome.reconstruirIndice();
+
+        assertEquals(List.of(gravadoPorFora.getId()), ids("otavio"));
+        assertTrue(pacienteGatewayIndiceNome.buscarPacientes("removido", 10).isEmpty());
+    }
+
+    private List<Long> ids(String nome) {
+        return pacienteGatewayIndiceNome.buscarPacientes(nome, 10).orElseThrow().stream().map(Paciente::getId).toList();
+    }
+
+    private static Paciente novoPaciente(String nome) {
+        return new Paciente(null, nome, LocalDate.of(1990, 1, 1), "F", new Contato("85999990000", "indice@email.com"), null, List.of());
+    }
+}
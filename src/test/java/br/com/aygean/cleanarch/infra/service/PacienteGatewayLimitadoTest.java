@@ -0,0 +1,55 @@
+package br.com.aygean.cleanarch.infra.service;
+
+import br.com.aygean.cleanarch.domain.Pagina;
+import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class PacienteGatewayLimitadoTest {
+
+    private static final long PACIENTES = 1_200;
+
+    @Test
+    void exportacaoUsaUmaPermissaoPorBloco() {
+        var consultas = new ArrayList<Integer>();
+        var referencia = new PacienteGatewayLimitado[1];
+        // Delegate que pagina os IDs de 1 a PACIENTES, anotando as permissões livres durante cada consulta
+        var delegate = (PacienteGateway) Proxy.newProxyInstance(PacienteGateway.class.getClassLoader(),
+            new Class<?>[]{PacienteGateway.class}, (proxy, metodo, args) -> {
+                consultas.add(referencia[0].disponiveis());
+                long after = args[0] != null ? (Long) args[0] : 0L;
+                int limit = (Integer) args[1];
+                long ultimo = Math.min(PACIENTES, after + limit);
+                var itens = LongStream.rangeClosed(after + 1, ultimo).mapToObj(PacienteGatewayLimitadoTest::paciente).toList();
+                return new Pagina<>(itens, ultimo < PACIENTES ? ultimo : null);
+            });
+        var limitado = new PacienteGatewayLimitado(delegate, 1, Duration.ofMillis(100));
+        referencia[0] = limitado;
+
+        var exportados = new ArrayList<Long>();
+        var livresNoEnvio = new ArrayList<Integer>();
+        limitado.exportarPacientes(paciente -> {
+            exportados.add(paciente.getId());
+            livresNoEnvio.add(limitado.disponiveis());
+        });
+
+        assertEquals(LongStream.rangeClosed(1, PACIENTES).boxed().toList(), exportados);
+        // Cada bloco ocupa a única permissão só durante a consulta dele
+        assertEquals(List.of(0, 0, 0), consultas);
+        assertEquals(List.of(1), livresNoEnvio.stream().distinct().toList());
+    }
+
+    private static Paciente paciente(long id) {
+        var paciente = new Paciente();
+        paciente.setId(id);
+        return paciente;
+    }
+}
@@ -0,0 +1,131 @@
+package br.com.aygean.cleanarch.infra.service;
+
+import br.com.aygean.cleanarch.domain.Contato;
+import br.com.aygean.cleanarch.domain.Endereco;
+import br.com.aygean.cleanarch.domain.HistoricoMedico;
+import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.infra.repository.PacienteResumoRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class PacienteGatewayResumoTest {
+
+    @Autowired
+    private PacienteGatewayResumo pacienteGatewayResumo;
+
+    @Autowired
+    private PacienteGatewayImpl pacienteGatewayImpl;
+
+    @Autowired
+    private PacienteResumoRepository pacienteResumoRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void leiturasUsamUmaConsultaNaTabelaDeResumo() {
+        var paciente = pacienteGatewayResumo.adicionarPaciente(novoPaciente("Resumo Leitura"));
+        statistics.clear();
+
+        var encontrado = pacienteGatewayResumo.buscarPacientePorId(paciente.getId()).orElseThrow();
+
+        assertEquals("Resumo Leitura", encontrado.getNome());
+        assertEquals("Fortaleza", encontrado.getEndereco().getCidade());
+        assertEquals(2, encontrado.getHistoricoMedico().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void escritasAtualizamOResumo() {
+        var paciente = pacienteGatewayResumo.adicionarPaciente(novoPaciente("Resumo Escrita"));
+
+        paciente.setNome("Resumo Alterado");
+        pacienteGatewayResumo.atualizarPaciente(paciente);
+        pacienteGatewayResumo.adicionarHistorico(paciente.getId(),
+            new HistoricoMedico(LocalDate.of(2024, 3, 1), "Retorno", null, null), null);
+
+        var encontrado = pacienteGatewayResumo.buscarPacientePorId(paciente.getId()).orElseThrow();
+        assertEquals("Resumo Alterado", encontrado.getNome());
+        assertEquals(3, encontrado.getHistoricoMedico().size());
+
+        pacienteGatewayResumo.deletarPacientes(List.of(paciente.getId()));
+        assertTrue(pacienteGatewayResumo.buscarPacientePorId(paciente.getId()).isEmpty());
+    }
+
+    @Test
+    void inclusaoDeConsultaNaoReescreveODocumentoQueERemontadoNaLeitura() throws Exception {
+        var paciente = pacienteGatewayResumo.adicionarPaciente(novoPaciente("Resumo Consulta"));
+        String documento = pacienteResumoRepository.findById(paciente.getId()).orElseThrow().getDocumento();
+
+        var adicionado = pacienteGatewayResumo.adicionarHistorico(paciente.getId(),
+            new HistoricoMedico(LocalDate.of(2024, 3, 1), "Retorno", null, null), null).orElseThrow();
+        var resumo = pacienteResumoRepository.findById(paciente.getId()).orElseThrow();
+        assertEquals(documento, resumo.getDocumento());
+        assertTrue(resumo.isDesatualizado());
+        assertEquals(adicionado.getVersaoPaciente(), resumo.getVersao());
+
+        // Desatualizado, o paciente vem do modelo normalizado e o documento é remontado em segundo plano
+        var encontrado = pacienteGatewayResumo.buscarPacientePorId(paciente.getId()).orElseThrow();
+        assertEquals(3, encontrado.getHistoricoMedico().size());
+        assertEquals(adicionado.getVersaoPaciente(), encontrado.getVersao());
+        long limite = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (pacienteResumoRepository.findById(paciente.getId()).orElseThrow().isDesatualizado()) {
+            assertTrue(System.nanoTime() < limite, "Resumo não remontado");
+            Thread.sleep(10);
+        }
+        statistics.clear();
+        assertEquals(3, pacienteGatewayResumo.buscarPacientePorId(paciente.getId()).orElseThrow().getHistoricoMedico().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void reconstrucaoIncluiPacientesGravadosSemOResumo() {
+        var paciente = pacienteGatewayImpl.adicionarPaciente(novoPaciente("Resumo Reconstruido"));
+        assertTrue(pacienteGatewayResumo.buscarPacientePorId(paciente.getId()).isEmpty());
+
+        pacienteGatewayResumo.reconstruirResumo();
+
+        assertEquals("Resumo Reconstruido", pacienteGatewayResumo.buscarPacientePorId(paciente.getId()).orElseThrow().getNome());
+    }
+
+    @Test
+    void inicializacaoNaoReconstroiResumoJaPreenchido() {
+        pacienteGatewayResumo.adicionarPaciente(novoPaciente("Resumo Existente"));
+        var paciente = pacienteGatewayImpl.adicionarPaciente(novoPaciente("Resumo Fora"));
+
+        pacienteGatewayResumo.reconstruirSeVazio();
+
+        assertTrue(pacienteGatewayResumo.buscarPacientePorId(paciente.getId()).isEmpty());
+    }
+
+    private static Paciente novoPaciente(String nome) {
+        List<HistoricoMedico> historico = new ArrayList<>();
+        historico.add(new HistoricoMedico(LocalDate.of(2024, 1, 1), "Diagnóstico", "Tratamento", "Observações"));
+        historico.add(new HistoricoMedico(LocalDate.of(2024, 2, 1), "Diagnóstico", "Tratamento", "Observações"));
+        return new Paciente(null, nome, LocalDate.of(1985, 3, 20), "M",
+            new Contato("85988887777", "resumo@email.com"),
+            new Endereco("Rua B", 200, "Fortaleza", "CE", "60100-000"),
+            historico);
+    }
+}
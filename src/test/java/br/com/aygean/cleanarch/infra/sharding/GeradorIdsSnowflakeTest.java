@@ -0,0 +1,79 @@
+package br.com.aygean.cleanarch.infra.sharding;
+
+import br.com.aygean.cleanarch.infra.exception.SobrecargaException;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeradorIdsSnowflakeTest {
+
+    @Test
+    void recuoPequenoDoRelogioEsperaSemRepetirIds() {
+        var relogio = new RelogioManual(GeradorIdsSnowflake.EPOCA.toEpochMilli() + 1_000);
+        var gerador = new GeradorIdsSnowflake(1, relogio);
+        long anterior = gerador.proximoId();
+
+        relogio.recuar(GeradorIdsSnowflake.ATRASO_TOLERADO_MS);
+        // O relógio volta a andar um milissegundo a cada leitura
+        relogio.andando = true;
+        for (int i = 0; i < 10; i++) {
+            long id = gerador.proximoId();
+            assertTrue(id > anterior);
+            anterior = id;
+        }
+    }
+
+    @Test
+    void recuoGrandeDoRelogioRecusaIds() {
+        var relogio = new RelogioManual(GeradorIdsSnowflake.EPOCA.toEpochMilli() + 1_000);
+        var gerador = new GeradorIdsSnowflake(1, relogio);
+        long anterior = gerador.proximoId();
+
+        relogio.recuar(GeradorIdsSnowflake.ATRASO_TOLERADO_MS + 1);
+        assertThrows(SobrecargaException.class, gerador::proximoId);
+
+        relogio.recuar(-(GeradorIdsSnowflake.ATRASO_TOLERADO_MS + 2));
+        assertTrue(gerador.proximoId() > anterior);
+    }
+
+    private static final class RelogioManual extends Clock {
+
+        private final AtomicLong milissegundos;
+        private volatile boolean andando;
+
+        private RelogioManual(long milissegundos) {
+            this.milissegundos = new AtomicLong(milissegundos);
+        }
+
+        private void recuar(long milissegundos) {
+            this.milissegundos.addAndGet(-milissegundos);
+        }
+
+        @Override
+        public long millis() {
+            return andando ? milissegundos.getAndIncrement() : milissegundos.get();
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis());
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
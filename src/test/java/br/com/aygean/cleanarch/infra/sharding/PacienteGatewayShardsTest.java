@@ -0,0 +1,135 @@
+package br.com.aygean.cleanarch.infra.sharding;
+
+import br.com.aygean.cleanarch.domain.Contato;
+import br.com.aygean.cleanarch.domain.Paciente;
+import br.com.aygean.cleanarch.gateway.PacienteGateway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Três bancos H2 em memória como shards, além do banco principal da aplicação
+@SpringBootTest(properties = {
+    "pacientes.shards.ativo=true",
+    "pacientes.shards.urls=" + PacienteGatewayShardsTest.URL_SHARD0 + "," + PacienteGatewayShardsTest.URL_SHARD1 + ","
+        + PacienteGatewayShardsTest.URL_SHARD2,
+    "pacientes.shards.username=sa",
+    "pacientes.shards.ddl-auto=create-drop",
+    "spring.datasource.url=jdbc:h2:mem:shards;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"})
+class PacienteGatewayShardsTest {
+
+    static final String URL_SHARD0 = "jdbc:h2:mem:shard0;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String URL_SHARD1 = "jdbc:h2:mem:shard1;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    static final String URL_SHARD2 = "jdbc:h2:mem:shard2;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private PacienteGateway pacienteGateway;
+
+    @Autowired
+    private PacienteGatewayShards pacienteGatewayShards;
+
+    @Autowired
+    private FabricaShards fabricaShards;
+
+    @Test
+    void pacientesSaoDistribuidosEListadosEmOrdemDeId() {
+        var salvos = new ArrayList<Paciente>();
+        for (int i = 0; i < 20; i++) {
+            salvos.add(pacienteGateway.adicionarPaciente(novoPaciente("Paciente Distribuido " + i)));
+        }
+        var lote = new ArrayList<Paciente>();
+        for (int i = 20; i < 40; i++) {
+            lote.add(novoPaciente("Paciente Distribuido " + i));
+        }
+        salvos.addAll(pacienteGateway.adicionarPacientes(lote));
+
+        // Cada shard recebeu parte dos pacientes, e cada paciente é encontrado pelo ID
+        for (Shard shard : pacienteGatewayShards.getShards()) {
+            assertTrue(contar(shard.getGateway()) > 0);
+        }
+        for (Paciente salvo : salvos) {
+            assertEquals(salvo.getNome(), pacienteGateway.buscarPacientePorId(salvo.getId()).orElseThrow().getNome());
+        }
+
+        // Páginas menores que um shard: os IDs seguem em ordem, sem repetir nem pular pacientes
+        var ids = new ArrayList<Long>();
+        Long cursor = null;
+        do {
+            var pagina = pacienteGateway.listarPacientes(cursor, 7);
+            pagina.getItens().forEach(p -> ids.add(p.getId()));
+            cursor = pagina.getProximoCursor();
+        } while (cursor != null);
+        assertEquals(ids.stream().sorted().toList(), ids);
+        assertTrue(ids.containsAll(salvos.stream().map(Paciente::getId).toList()));
+        assertEquals(ids.size(), new HashSet<>(ids).size());
+
+        var encontrados = pacienteGateway.buscarPacientes("Distribuido", 5).orElseThrow();
+        assertEquals(5, encontrados.size());
+        assertEquals(encontrados.stream().map(Paciente::getId).sorted().toList(), encontrados.stream().map(Paciente::getId).toList());
+
+        assertEquals(3, pacienteGateway.deletarPacientes(salvos.subList(0, 3).stream().map(Paciente::getId).toList()).size());
+    }
+
+    @Test
+    void rebalanceamentoMoveApenasOsPacientesDoNovoShard() {
+        var shardsAntigos = List.of(
+            fabricaShards.criar(0, "jdbc:h2:mem:rebalanceamento0;DB_CLOSE_DELAY=-1"),
+            fabricaShards.criar(1, "jdbc:h2:mem:rebalanceamento1;DB_CLOSE_DELAY=-1"));
+        var geradorIds = new GeradorIdsSnowflake(1);
+        var antes = new PacienteGatewayShards(shardsAntigos, geradorIds, 2, false);
+        var lote = new ArrayList<Paciente>();
+        for (int i = 0; i < 200; i++) {
+            lote.add(novoPaciente("Paciente Rebalanceado " + i));
+        }
+        var salvos = antes.adicionarPacientes(lote);
+
+        var novoShard = fabricaShards.criar(2, "jdbc:h2:mem:rebalanceamento2;DB_CLOSE_DELAY=-1");
+        var shardsNovos = new ArrayList<>(shardsAntigos);
+        shardsNovos.add(novoShard);
+        try (var depois = new PacienteGatewayShards(shardsNovos, geradorIds, 3, true)) {
+            // Antes de rebalancear, os pacientes ainda são encontrados nos shards antigos
+            for (Paciente salvo : salvos) {
+                assertTrue(depois.buscarPacientePorId(salvo.getId()).isPresent());
+            }
+
+            long esperados = salvos.stream().filter(p -> PacienteGatewayShards.indiceShard(p.getId(), 3) == 2).count();
+            assertTrue(esperados > 0 && esperados < salvos.size());
+            assertEquals(esperados, depois.rebalancear());
+            assertEquals(esperados, contar(novoShard.getGateway()));
+            assertEquals(salvos.size(), contar(depois));
+            for (Paciente salvo : salvos) {
+                assertEquals(salvo.getNome(), depois.buscarPacientePorId(salvo.getId()).orElseThrow().getNome());
+            }
+        }
+    }
+
+    @Test
+    void acrescentarShardSoMoveChavesParaOShardNovo() {
+        var geradorIds = new GeradorIdsSnowflake(7);
+        Set<Integer> usados = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {
+            long id = geradorIds.proximoId();
+            int antes = PacienteGatewayShards.indiceShard(id, 4);
+            int depois = PacienteGatewayShards.indiceShard(id, 5);
+            assertTrue(depois == antes || depois == 4);
+            usados.add(depois);
+        }
+        assertEquals(5, usados.size());
+    }
+
+    private static int contar(PacienteGateway gateway) {
+        return gateway.listarPacientes(null, 10_000).getItens().size();
+    }
+
+    private static Paciente novoPaciente(String nome) {
+        return new Paciente(null, nome, LocalDate.of(1990, 1, 1), "F", new Contato("85999990000", "shard@email.com"), null, List.of());
+    }
+}